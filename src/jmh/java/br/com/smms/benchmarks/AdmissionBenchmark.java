@@ -0,0 +1,125 @@
+package br.com.smms.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Load test for person.admission: well-behaved clients page through /person, each with its own
+// API key, while abusive ones ask for all of it, from one key (flood) or a new unissued key
+// every time (spread), or stay away (none). Compare the p0.99 of wellBehaved across abuse and admission:
+// mvn -Pjmh test-compile exec:exec -Djmh.args="AdmissionBenchmark"
+// Well-behaved calls turned away are counted and printed once per iteration.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AdmissionBenchmark {
+
+	private static final int ROWS = 10_000;
+
+	@Param({ "none", "flood", "spread" })
+	private String abuse;
+
+	@Param({ "disabled", "enabled" })
+	private String admission;
+
+	private ConfigurableApplicationContext context;
+	private HttpClient client;
+	private String baseUrl;
+	private final AtomicInteger clients = new AtomicInteger();
+	private final AtomicLong turnedAway = new AtomicLong();
+	private final AtomicLong served = new AtomicLong();
+
+	@State(Scope.Thread)
+	public static class Client {
+
+		private String key;
+
+		@Setup
+		public void setUp(AdmissionBenchmark benchmark) {
+			key = "client-" + benchmark.clients.incrementAndGet();
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start(WebApplicationType.SERVLET,
+				"person.admission.enabled=" + "enabled".equals(admission),
+				// Well-behaved clients send unpaced, so their budget is above what one thread can
+				// send; a findAll takes all of it, one every ten seconds per key
+				"person.admission.rate.capacity=20000",
+				"person.admission.rate.refill-per-second=2000",
+				"person.admission.costs[GET /person]=20000",
+				// Issued keys; the new key of every spread call is unknown and falls back to the address
+				"person.admission.api-keys=client-1,client-2,client-3,client-4,abuser");
+		BenchmarkContext.seed(context, ROWS);
+		baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/person";
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	}
+
+	@TearDown(Level.Iteration)
+	public void report() {
+		System.out.printf("%nwell-behaved: %d served, %d turned away%n", served.getAndSet(0), turnedAway.getAndSet(0));
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(4)
+	public int wellBehaved(Client self) throws Exception {
+		int status = get(baseUrl + "?after=" + ThreadLocalRandom.current().nextInt(ROWS) + "&limit=20", self.key);
+		(status == 200 ? served : turnedAway).incrementAndGet();
+		return status;
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(16)
+	public int abusive() throws Exception {
+		return switch (abuse) {
+			case "flood" -> get(baseUrl, "abuser");
+			case "spread" -> get(baseUrl, "abuser-" + ThreadLocalRandom.current().nextLong());
+			default -> {
+				Thread.sleep(10);
+				yield 0;
+			}
+		};
+	}
+
+	private int get(String uri, String key) throws Exception {
+		return client.send(HttpRequest.newBuilder(URI.create(uri))
+				.header("Accept", "application/json")
+				.header("X-API-Key", key)
+				.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+}
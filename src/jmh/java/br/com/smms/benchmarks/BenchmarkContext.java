@@ -0,0 +1,59 @@
+package br.com.smms.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.smms.StartupApplication;
+import br.com.smms.model.Person;
+import br.com.smms.services.PersonBatchService;
+
+// Boots the application against an in-memory H2 database (MySQL mode) so every benchmark
+// runs offline with the production mappings, services and caches
+public final class BenchmarkContext {
+
+	private BenchmarkContext() {}
+
+	public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+		// Keyed by property name so a caller can override a default instead of having
+		// both values joined into a comma separated list
+		Map<String, String> args = new LinkedHashMap<>();
+		for (String property : List.of(
+				"server.port=0",
+				"spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+				"spring.datasource.driver-class-name=org.h2.Driver",
+				"spring.datasource.username=sa",
+				"spring.datasource.password=",
+				"spring.jpa.hibernate.ddl-auto=create-drop",
+				"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+				"spring.devtools.restart.enabled=false",
+				"logging.level.root=WARN")) {
+			args.put(property.substring(0, property.indexOf('=')), property);
+		}
+		for (String property : properties) {
+			args.put(property.substring(0, property.indexOf('=')), property);
+		}
+		return new SpringApplicationBuilder(StartupApplication.class)
+				.web(webApplicationType)
+				.logStartupInfo(false)
+				.run(args.values().stream().map(property -> "--" + property).toArray(String[]::new));
+	}
+
+	public static void seed(ConfigurableApplicationContext context, long rows) {
+		context.getBean(PersonBatchService.class)
+				.createAll(LongStream.range(0, rows).mapToObj(BenchmarkContext::person).iterator());
+	}
+
+	public static Person person(long n) {
+		return new Person("First " + n,
+				"Last " + n,
+				"Street " + n,
+				n % 2 == 0 ? "Male" : "Female",
+				"person" + n + "@bench.com");
+	}
+}
@@ -0,0 +1,94 @@
+package br.com.smms.benchmarks;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.smms.exceptions.ExceptionResponse;
+import br.com.smms.exceptions.ResourceNotFoundException;
+import br.com.smms.handler.CustomizedResponseEntityExceptionHandler;
+
+// Error paths: the handler on its own, a duplicate create that goes through it,
+// a GET of a missing id (served by the cached miss) and a crawler-style scan of
+// distinct missing ids (each one a database lookup)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+	private ConfigurableApplicationContext context;
+	private CustomizedResponseEntityExceptionHandler handler;
+	private MockMvc mockMvc;
+	private WebRequest webRequest;
+	private byte[] duplicatePerson;
+	private final AtomicLong missingId = new AtomicLong(1_000_000_000L);
+
+	@Setup
+	public void setUp() throws Exception {
+		context = BenchmarkContext.start(WebApplicationType.SERVLET);
+		BenchmarkContext.seed(context, 1);
+		handler = context.getBean(CustomizedResponseEntityExceptionHandler.class);
+		mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+		webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/person/0"));
+		duplicatePerson = context.getBean(ObjectMapper.class).writeValueAsBytes(BenchmarkContext.person(0));
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public ResponseEntity<ExceptionResponse> handleNotFoundException() {
+		return handler.handleNotFoundExceptions(new ResourceNotFoundException("No records found this ID!"), webRequest);
+	}
+
+	@Benchmark
+	public int createDuplicateEmail() throws Exception {
+		return mockMvc.perform(post("/person")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(duplicatePerson))
+				.andReturn().getResponse().getStatus();
+	}
+
+	@Benchmark
+	public int findByIdMissing() throws Exception {
+		return mockMvc.perform(get("/person/{id}", Long.MAX_VALUE))
+				.andReturn().getResponse().getStatus();
+	}
+
+	@Benchmark
+	public int findByIdMissingScan() throws Exception {
+		return mockMvc.perform(get("/person/{id}", missingId.incrementAndGet()))
+				.andReturn().getResponse().getStatus();
+	}
+}
@@ -0,0 +1,73 @@
+package br.com.smms.benchmarks;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.smms.model.Person;
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.services.PersonService;
+
+// Cost of the @Timed service timers and repository invocation timers on the cheapest
+// path (cache hit). spring.aop.auto=false removes the TimedAspect proxy while keeping
+// the caching and transaction proxies, so the difference is the instrumentation alone.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+	private static final int ROWS = 1_000;
+	private static final int HOT_IDS = 100;
+
+	@Param({ "true", "false" })
+	private boolean instrumented;
+
+	private ConfigurableApplicationContext context;
+	private PersonService personService;
+	private PersonRepository personRepository;
+	private long[] ids;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start(WebApplicationType.NONE,
+				"spring.aop.auto=" + instrumented,
+				"management.metrics.data.repository.autotime.enabled=" + instrumented);
+		BenchmarkContext.seed(context, ROWS);
+		personService = context.getBean(PersonService.class);
+		personRepository = context.getBean(PersonRepository.class);
+		ids = personRepository.findAll().stream().mapToLong(Person::getId).toArray();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Optional<Person> findByIdHot() {
+		return personService.findById(ids[ThreadLocalRandom.current().nextInt(HOT_IDS)]);
+	}
+
+	@Benchmark
+	public boolean existsById() {
+		return personRepository.existsById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+	}
+}
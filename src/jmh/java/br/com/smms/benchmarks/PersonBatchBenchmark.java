@@ -0,0 +1,84 @@
+package br.com.smms.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.smms.model.BatchItemResult;
+import br.com.smms.model.Person;
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.services.PersonBatchService;
+import br.com.smms.services.PersonService;
+
+// Inserting the same number of people one create() at a time versus through the
+// chunked, JDBC-batched bulk path
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonBatchBenchmark {
+
+	@Param({ "1000" })
+	private int people;
+
+	private ConfigurableApplicationContext context;
+	private PersonService personService;
+	private PersonBatchService personBatchService;
+	private PersonRepository personRepository;
+	private final AtomicLong sequence = new AtomicLong();
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start(WebApplicationType.NONE);
+		personService = context.getBean(PersonService.class);
+		personBatchService = context.getBean(PersonBatchService.class);
+		personRepository = context.getBean(PersonRepository.class);
+	}
+
+	@Setup(Level.Iteration)
+	public void truncate() {
+		personRepository.deleteAllInBatch();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Person> singleItemCreates() {
+		List<Person> created = new ArrayList<>(people);
+		for (int i = 0; i < people; i++) {
+			created.add(personService.create(BenchmarkContext.person(sequence.incrementAndGet())));
+		}
+		return created;
+	}
+
+	@Benchmark
+	public List<BatchItemResult> batchCreate() {
+		List<Person> batch = new ArrayList<>(people);
+		for (int i = 0; i < people; i++) {
+			batch.add(BenchmarkContext.person(sequence.incrementAndGet()));
+		}
+		return personBatchService.createAll(batch.iterator());
+	}
+}
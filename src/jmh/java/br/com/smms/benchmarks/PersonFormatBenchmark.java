@@ -0,0 +1,121 @@
+package br.com.smms.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import br.com.smms.model.Person;
+import br.com.smms.serialization.JacksonProtobufHttpMessageConverter;
+import br.com.smms.serialization.JacksonProtobufHttpMessageConverter.Items;
+import br.com.smms.serialization.PersonSerializer;
+
+// The mappers behind each negotiated media type, set up as MessageConvertersConfig does. The
+// encoded sizes are printed once per fork:
+// mvn -Pjmh test-compile exec:exec -Djmh.args="PersonFormatBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonFormatBenchmark {
+
+	@Param({ "json", "cbor", "smile", "protobuf" })
+	private String format;
+
+	private ObjectWriter personWriter;
+	private ObjectReader personReader;
+	private ObjectWriter peopleWriter;
+	private ObjectReader peopleReader;
+	private Person person;
+	private Object people;
+	private byte[] personBytes;
+	private byte[] peopleBytes;
+
+	@Setup
+	public void setUp() throws Exception {
+		List<Person> list = LongStream.range(0, 1000).mapToObj(n -> {
+			Person p = BenchmarkContext.person(n);
+			p.setId(1_000_000_000_000L + n);
+			p.setVersion(0L);
+			return p;
+		}).toList();
+		person = list.get(0);
+		if ("protobuf".equals(format)) {
+			JacksonProtobufHttpMessageConverter converter = new JacksonProtobufHttpMessageConverter();
+			ProtobufMapper mapper = new ProtobufMapper();
+			JavaType listType = TypeFactory.defaultInstance().constructCollectionType(List.class, Person.class);
+			ProtobufSchema personSchema = converter.schemaFor(Person.class).orElseThrow();
+			ProtobufSchema peopleSchema = converter.schemaFor(listType).orElseThrow();
+			personWriter = mapper.writer(personSchema);
+			personReader = mapper.readerFor(Person.class).with(personSchema);
+			peopleWriter = mapper.writer(peopleSchema);
+			peopleReader = mapper.readerFor(TypeFactory.defaultInstance().constructParametricType(Items.class, Person.class))
+					.with(peopleSchema);
+			people = new Items<>(list);
+		} else {
+			Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+					.modulesToInstall(new SimpleModule().addSerializer(Person.class, new PersonSerializer()));
+			if ("cbor".equals(format)) {
+				builder.factory(new CBORFactory());
+			} else if ("smile".equals(format)) {
+				builder.factory(new SmileFactory());
+			}
+			ObjectMapper mapper = builder.build();
+			personWriter = mapper.writerFor(Person.class);
+			personReader = mapper.readerFor(Person.class);
+			peopleWriter = mapper.writer();
+			peopleReader = mapper.readerFor(TypeFactory.defaultInstance().constructCollectionType(List.class, Person.class));
+			people = list;
+		}
+		personBytes = personWriter.writeValueAsBytes(person);
+		peopleBytes = peopleWriter.writeValueAsBytes(people);
+		System.out.printf("%n%s: person %d bytes, 1000 people %d bytes%n", format, personBytes.length, peopleBytes.length);
+	}
+
+	@Benchmark
+	public byte[] serializePerson() throws Exception {
+		return personWriter.writeValueAsBytes(person);
+	}
+
+	@Benchmark
+	public Person deserializePerson() throws Exception {
+		return personReader.readValue(personBytes);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public byte[] serializeThousandPeople() throws Exception {
+		return peopleWriter.writeValueAsBytes(people);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public Object deserializeThousandPeople() throws Exception {
+		return peopleReader.readValue(peopleBytes);
+	}
+}
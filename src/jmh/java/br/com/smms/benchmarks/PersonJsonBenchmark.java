@@ -0,0 +1,71 @@
+package br.com.smms.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import br.com.smms.model.Person;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonJsonBenchmark {
+
+	private ObjectWriter personWriter;
+	private ObjectReader personReader;
+	private ObjectWriter peopleWriter;
+	private Person person;
+	private byte[] personJson;
+	private List<Person> people;
+
+	@Setup
+	public void setUp() throws Exception {
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		personWriter = objectMapper.writerFor(Person.class);
+		personReader = objectMapper.readerFor(Person.class);
+		peopleWriter = objectMapper.writer();
+		person = BenchmarkContext.person(1);
+		person.setId(1L);
+		personJson = personWriter.writeValueAsBytes(person);
+		people = LongStream.range(0, 1000).mapToObj(n -> {
+			Person p = BenchmarkContext.person(n);
+			p.setId(n);
+			return p;
+		}).toList();
+	}
+
+	@Benchmark
+	public byte[] serializePerson() throws Exception {
+		return personWriter.writeValueAsBytes(person);
+	}
+
+	@Benchmark
+	public Person deserializePerson() throws Exception {
+		return personReader.readValue(personJson);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public byte[] serializeThousandPeople() throws Exception {
+		return peopleWriter.writeValueAsBytes(people);
+	}
+}
@@ -0,0 +1,77 @@
+package br.com.smms.benchmarks;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.smms.controllers.PersonController;
+import br.com.smms.model.PersonPage;
+
+// Full-table read via findAll(), a keyset page walk and the NDJSON stream, each serialized
+// to a discarding stream. Run with -prof gc to compare allocation per full read.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersonListBenchmark {
+
+	private static final int PAGE_SIZE = 1000;
+
+	@Param({ "10000", "100000", "1000000" })
+	private int rows;
+
+	private ConfigurableApplicationContext context;
+	private PersonController personController;
+	private ObjectMapper objectMapper;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start(WebApplicationType.NONE);
+		BenchmarkContext.seed(context, rows);
+		personController = context.getBean(PersonController.class);
+		objectMapper = context.getBean(ObjectMapper.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public void findAll() throws Exception {
+		objectMapper.writeValue(OutputStream.nullOutputStream(), personController.findAll());
+	}
+
+	@Benchmark
+	public void keysetPages() throws Exception {
+		Long after = null;
+		do {
+			PersonPage page = personController.findPage(after, PAGE_SIZE);
+			objectMapper.writeValue(OutputStream.nullOutputStream(), page);
+			after = page.getNextCursor();
+		} while (after != null);
+	}
+
+	@Benchmark
+	public void ndjsonStream() throws Exception {
+		personController.streamAll().getBody().writeTo(OutputStream.nullOutputStream());
+	}
+}
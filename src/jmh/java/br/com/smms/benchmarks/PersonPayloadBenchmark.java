@@ -0,0 +1,95 @@
+package br.com.smms.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import br.com.smms.compression.CompressionProperties;
+import br.com.smms.compression.ContentCoding;
+import br.com.smms.model.Person;
+import br.com.smms.serialization.ColumnarPersonHttpMessageConverter;
+import br.com.smms.serialization.PersonSerializer;
+
+// CPU per findAll() response for each body shape and content coding, at the default levels
+// of person.compression; the bytes that reach the wire are printed once per fork:
+// mvn -Pjmh test-compile exec:exec -Djmh.args="PersonPayloadBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonPayloadBenchmark {
+
+	@Param({ "1000" })
+	private int rows;
+
+	@Param({ "rows", "columnar" })
+	private String shape;
+
+	@Param({ "identity", "gzip", "zstd" })
+	private String encoding;
+
+	private ObjectMapper mapper;
+	private ContentCoding coding;
+	private int level;
+	private List<Person> people;
+
+	@Setup
+	public void setUp() throws Exception {
+		mapper = Jackson2ObjectMapperBuilder.json()
+				.modulesToInstall(new SimpleModule().addSerializer(Person.class, new PersonSerializer())).build();
+		CompressionProperties properties = new CompressionProperties();
+		if (!"identity".equals(encoding)) {
+			coding = ContentCoding.of(encoding);
+			level = coding == ContentCoding.GZIP ? properties.getGzipLevel() : properties.getZstdLevel();
+		}
+		people = LongStream.range(0, rows).mapToObj(n -> {
+			Person person = BenchmarkContext.person(n);
+			person.setId(n + 1);
+			person.setVersion(0L);
+			return person;
+		}).toList();
+		ByteArrayOutputStream wire = new ByteArrayOutputStream();
+		write(wire);
+		System.out.printf("%n%s %s: %d people %d bytes%n", shape, encoding, rows, wire.size());
+	}
+
+	@Benchmark
+	public void writeResponse() throws Exception {
+		// A stream per response: closing it ends the body, as the filter does
+		write(OutputStream.nullOutputStream());
+	}
+
+	private void write(OutputStream wire) throws IOException {
+		try (OutputStream body = coding == null ? wire : coding.compress(wire, level);
+				JsonGenerator generator = mapper.getFactory().createGenerator(body, JsonEncoding.UTF8)) {
+			if ("columnar".equals(shape)) {
+				ColumnarPersonHttpMessageConverter.writeColumns(generator, people);
+			} else {
+				mapper.writeValue(generator, people);
+			}
+		}
+	}
+}
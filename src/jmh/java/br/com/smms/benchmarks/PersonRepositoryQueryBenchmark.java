@@ -0,0 +1,71 @@
+package br.com.smms.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.smms.repositories.PersonRepository;
+
+// The four name-lookup styles of PersonRepository against the same seeded table
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonRepositoryQueryBenchmark {
+
+	private static final int ROWS = 10_000;
+
+	private ConfigurableApplicationContext context;
+	private PersonRepository personRepository;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start(WebApplicationType.NONE);
+		BenchmarkContext.seed(context, ROWS);
+		personRepository = context.getBean(PersonRepository.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Object findByJPQL() {
+		int n = ThreadLocalRandom.current().nextInt(ROWS);
+		return personRepository.findByJPQL("First " + n, "Last " + n);
+	}
+
+	@Benchmark
+	public Object findByJPQLNamedParameters() {
+		int n = ThreadLocalRandom.current().nextInt(ROWS);
+		return personRepository.findByJPQLNamedParameters("First " + n, "Last " + n);
+	}
+
+	@Benchmark
+	public Object findByNativeSQL() {
+		int n = ThreadLocalRandom.current().nextInt(ROWS);
+		return personRepository.findByNativeSQL("First " + n, "Last " + n);
+	}
+
+	@Benchmark
+	public Object findByNativeSQLNamedParameters() {
+		int n = ThreadLocalRandom.current().nextInt(ROWS);
+		return personRepository.findByNativeSQLNamedParameters("First " + n, "Last " + n);
+	}
+}
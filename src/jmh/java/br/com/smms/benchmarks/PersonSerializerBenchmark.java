@@ -0,0 +1,68 @@
+package br.com.smms.benchmarks;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import br.com.smms.model.Person;
+import br.com.smms.serialization.PersonSerializer;
+
+// Serializes a findAll() sized list into a discarding stream, the way the message converter
+// writes into the servlet output stream. Compare bytes/op with:
+// mvn -Pjmh test-compile exec:exec -Djmh.args="PersonSerializerBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonSerializerBenchmark {
+
+	@Param({ "1000", "100000" })
+	private int rows;
+
+	@Param({ "bean", "specialized" })
+	private String serializer;
+
+	private ObjectWriter writer;
+	private List<Person> people;
+	private final OutputStream out = OutputStream.nullOutputStream();
+
+	@Setup
+	public void setUp() {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+		if ("specialized".equals(serializer)) {
+			builder.modulesToInstall(new SimpleModule().addSerializer(Person.class, new PersonSerializer()));
+		}
+		writer = builder.build().writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		people = LongStream.range(0, rows).mapToObj(n -> {
+			Person person = BenchmarkContext.person(n);
+			person.setId(n);
+			person.setVersion(0L);
+			return person;
+		}).toList();
+	}
+
+	@Benchmark
+	public void writeList() throws Exception {
+		writer.writeValue(out, people);
+	}
+}
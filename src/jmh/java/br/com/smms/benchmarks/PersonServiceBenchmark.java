@@ -0,0 +1,87 @@
+package br.com.smms.benchmarks;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.smms.model.Person;
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.services.PersonService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonServiceBenchmark {
+
+	private static final int ROWS = 10_000;
+	private static final int HOT_IDS = 100;
+
+	private ConfigurableApplicationContext context;
+	private PersonService personService;
+	private PersonRepository personRepository;
+	private long[] ids;
+	private final AtomicLong sequence = new AtomicLong(ROWS);
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start(WebApplicationType.NONE);
+		BenchmarkContext.seed(context, ROWS);
+		personService = context.getBean(PersonService.class);
+		personRepository = context.getBean(PersonRepository.class);
+		ids = personRepository.findAll().stream().mapToLong(Person::getId).toArray();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Person create() {
+		return personService.create(BenchmarkContext.person(sequence.incrementAndGet()));
+	}
+
+	@Benchmark
+	public Person update() {
+		long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+		Person person = BenchmarkContext.person(sequence.incrementAndGet());
+		person.setId(id);
+		return personService.update(person);
+	}
+
+	// Same change as update() but one UPDATE statement instead of SELECT + UPDATE
+	@Benchmark
+	public void patch() {
+		long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+		personService.patch(id, Map.of("email", BenchmarkContext.person(sequence.incrementAndGet()).getEmail()), null);
+	}
+
+	@Benchmark
+	public Optional<Person> findByIdHot() {
+		return personService.findById(ids[ThreadLocalRandom.current().nextInt(HOT_IDS)]);
+	}
+
+	@Benchmark
+	public Person findByIdDatabase() {
+		return personRepository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]).orElseThrow();
+	}
+}
@@ -0,0 +1,138 @@
+package br.com.smms.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.smms.model.Person;
+import br.com.smms.search.PersonTextIndex;
+
+// Query latency of the text index behind /person/search/text with a million people whose
+// names, streets and e-mails come from a few thousand generated words, like real ones repeat.
+// The index is built as PersonSearchService.rebuild does, in parallel segments; build time and
+// size are printed once per fork:
+// mvn -Pjmh test-compile exec:exec -Djmh.args="PersonTextSearchBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms3g", "-Xmx3g" })
+public class PersonTextSearchBenchmark {
+
+	private static final String[] SYLLABLES = { "a", "an", "ba", "be", "ca", "da", "de", "el", "fe", "ga", "gu",
+			"il", "ja", "jo", "ka", "la", "li", "lu", "ma", "me", "mi", "na", "ne", "no", "pa", "pe", "ra", "ri",
+			"ro", "sa", "se", "si", "so", "ta", "te", "to", "va", "vi", "za", "zo" };
+	private static final String[] STREETS = { "Rua", "Avenida", "Travessa", "Alameda", "Praça" };
+	private static final String[] DOMAINS = { "mail.com", "test.com", "bench.com", "example.org" };
+
+	@Param({ "1000000" })
+	private int people;
+
+	private PersonTextIndex index;
+	private String[] names;
+	private String[] exactQueries;
+	private String[] prefixQueries;
+	private String[] fuzzyQueries;
+	private String[] twoTermQueries;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		names = new String[4000];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = word(random, 2 + i % 3);
+		}
+		int threads = 4;
+		long start = System.nanoTime();
+		List<PersonTextIndex> segments = IntStream.range(0, threads).parallel().mapToObj(segment -> {
+			PersonTextIndex part = new PersonTextIndex(50);
+			Random seeded = new Random(segment);
+			for (int n = segment; n < people; n += threads) {
+				part.index(person(seeded, n + 1L));
+			}
+			return part;
+		}).toList();
+		index = PersonTextIndex.merge(segments, 50);
+		System.out.printf("%n%d people, %d terms, built in %d ms%n", index.size(), index.termCount(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+		exactQueries = new String[256];
+		prefixQueries = new String[256];
+		fuzzyQueries = new String[256];
+		twoTermQueries = new String[256];
+		for (int i = 0; i < 256; i++) {
+			String name = names[random.nextInt(names.length)].toLowerCase();
+			exactQueries[i] = name;
+			prefixQueries[i] = name.substring(0, Math.min(name.length(), 3));
+			fuzzyQueries[i] = typo(random, name);
+			twoTermQueries[i] = names[random.nextInt(names.length)] + " " + name;
+		}
+	}
+
+	@Benchmark
+	public List<PersonTextIndex.Hit> exact() {
+		return index.search(exactQueries[next++ & 255], 20, false);
+	}
+
+	@Benchmark
+	public List<PersonTextIndex.Hit> prefix() {
+		return index.search(prefixQueries[next++ & 255], 20, false);
+	}
+
+	@Benchmark
+	public List<PersonTextIndex.Hit> fuzzy() {
+		return index.search(fuzzyQueries[next++ & 255], 20, true);
+	}
+
+	@Benchmark
+	public List<PersonTextIndex.Hit> twoTerms() {
+		return index.search(twoTermQueries[next++ & 255], 20, true);
+	}
+
+	private Person person(Random random, long id) {
+		String first = names[random.nextInt(names.length)];
+		String last = names[random.nextInt(names.length)];
+		return new Person(id, first, last,
+				STREETS[random.nextInt(STREETS.length)] + " " + names[random.nextInt(names.length)] + " "
+						+ random.nextInt(2000),
+				id % 2 == 0 ? "Male" : "Female",
+				first.toLowerCase() + "." + last.toLowerCase() + id + "@" + DOMAINS[random.nextInt(DOMAINS.length)]);
+	}
+
+	private static String word(Random random, int syllables) {
+		StringBuilder word = new StringBuilder();
+		for (int i = 0; i < syllables; i++) {
+			word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+	}
+
+	// Swaps two neighbouring letters, or replaces one in short words
+	private static String typo(Random random, String word) {
+		char[] letters = word.toCharArray();
+		int i = random.nextInt(letters.length - 1);
+		if (letters.length > 5) {
+			char swap = letters[i];
+			letters[i] = letters[i + 1];
+			letters[i + 1] = swap;
+		} else {
+			letters[i] = letters[i] == 'x' ? 'y' : 'x';
+		}
+		return new String(letters);
+	}
+}
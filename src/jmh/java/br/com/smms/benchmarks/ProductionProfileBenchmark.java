@@ -0,0 +1,108 @@
+package br.com.smms.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.com.smms.model.BatchItemResult;
+import br.com.smms.model.Person;
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.services.PersonBatchService;
+
+// The default settings versus application-production.yml on the same workload. H2 ignores the
+// MySQL driver properties (statement cache, rewriteBatchedStatements), so this measures the
+// pool, Hibernate batching/fetch size and the Flyway-managed schema, not the driver caching
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductionProfileBenchmark {
+
+	private static final int ROWS = 10_000;
+	private static final int BATCH = 500;
+
+	@Param({ "default", "production" })
+	private String profile;
+
+	private ConfigurableApplicationContext context;
+	private PersonRepository personRepository;
+	private PersonBatchService personBatchService;
+	private JdbcTemplate jdbcTemplate;
+	private long[] ids;
+	private long maxSeededId;
+	private final AtomicLong sequence = new AtomicLong(ROWS);
+
+	@Setup
+	public void setUp() {
+		if (profile.equals("production")) {
+			context = BenchmarkContext.start(WebApplicationType.NONE,
+					"spring.profiles.active=production",
+					"spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;IGNORE_UNKNOWN_SETTINGS=TRUE",
+					"spring.jpa.hibernate.ddl-auto=none");
+		} else {
+			context = BenchmarkContext.start(WebApplicationType.NONE);
+		}
+		BenchmarkContext.seed(context, ROWS);
+		personRepository = context.getBean(PersonRepository.class);
+		personBatchService = context.getBean(PersonBatchService.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		ids = personRepository.findAll().stream().mapToLong(Person::getId).toArray();
+		maxSeededId = LongStream.of(ids).max().orElseThrow();
+	}
+
+	// Keeps the lookups on the seeded table size whatever batchCreate added
+	@TearDown(Level.Iteration)
+	public void trim() {
+		jdbcTemplate.update("DELETE FROM person WHERE id > ?", maxSeededId);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Person findById() {
+		return personRepository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]).orElseThrow();
+	}
+
+	@Benchmark
+	public Page<Person> search() {
+		int n = ThreadLocalRandom.current().nextInt(ROWS);
+		return personRepository.findByLastNameStartingWithAndFirstNameStartingWith("Last " + n, "First",
+				PageRequest.of(0, 20));
+	}
+
+	@Benchmark
+	public List<BatchItemResult> batchCreate() {
+		List<Person> batch = new ArrayList<>(BATCH);
+		for (int i = 0; i < BATCH; i++) {
+			batch.add(BenchmarkContext.person(sequence.incrementAndGet()));
+		}
+		return personBatchService.createAll(batch.iterator());
+	}
+}
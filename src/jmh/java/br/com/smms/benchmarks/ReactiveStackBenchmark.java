@@ -0,0 +1,95 @@
+package br.com.smms.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// The same reads over HTTP from concurrent clients, served by Spring MVC on Tomcat with JDBC or
+// by WebFlux on Netty with R2DBC, both against the same in-memory database. findById is left
+// out: the servlet side answers it from the cache.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class ReactiveStackBenchmark {
+
+	private static final int ROWS = 10_000;
+
+	@Param({ "servlet", "reactive" })
+	private String stack;
+
+	private ConfigurableApplicationContext context;
+	private HttpClient client;
+	private String baseUrl;
+
+	@Setup
+	public void setUp() {
+		context = "reactive".equals(stack)
+				? BenchmarkContext.start(WebApplicationType.REACTIVE,
+						"spring.profiles.active=reactive",
+						"spring.r2dbc.url=r2dbc:h2:mem:///benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+						"spring.r2dbc.username=sa",
+						"spring.r2dbc.password=",
+						// r2dbc-h2 completes on the calling thread, and a pool handing connections
+						// back inline lets one event loop end up draining every waiting request
+						"spring.r2dbc.pool.enabled=false")
+				: BenchmarkContext.start(WebApplicationType.SERVLET);
+		BenchmarkContext.seed(context, ROWS);
+		baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/person";
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int keysetPage() throws Exception {
+		return get(baseUrl + "?after=" + ThreadLocalRandom.current().nextInt(ROWS) + "&limit=50", "application/json");
+	}
+
+	@Benchmark
+	public int search() throws Exception {
+		return get(baseUrl + "/search?lastName=Last%20" + ThreadLocalRandom.current().nextInt(10) + "&size=20",
+				"application/json");
+	}
+
+	@Benchmark
+	public int streamAll() throws Exception {
+		return get(baseUrl, "application/x-ndjson");
+	}
+
+	private int get(String uri, String accept) throws Exception {
+		HttpResponse<byte[]> response = client.send(
+				HttpRequest.newBuilder(URI.create(uri)).header("Accept", accept).build(),
+				HttpResponse.BodyHandlers.ofByteArray());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException(uri + " returned " + response.statusCode());
+		}
+		return response.body().length;
+	}
+}
@@ -0,0 +1,83 @@
+package br.com.smms.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.com.smms.warmup.WarmUpRunner;
+
+// The first requests a fresh instance serves, cold or after WarmUpRunner: one single shot per
+// forked JVM, so every fork starts with interpreted code, empty caches and an idle pool
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class WarmUpBenchmark {
+
+	private static final int ROWS = 10_000;
+	private static final int REQUESTS = 500;
+
+	@Param({ "false", "true" })
+	private boolean warmUp;
+
+	private ConfigurableApplicationContext context;
+	private HttpClient client;
+	private List<URI> uris;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start(WebApplicationType.SERVLET, "person.warm-up.enabled=" + warmUp);
+		BenchmarkContext.seed(context, ROWS);
+		if (warmUp) {
+			// Once more now that there are rows, as on a deploy against a populated database
+			context.getBean(WarmUpRunner.class).run(null);
+		}
+		int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+		// The newest ids, the ones the warm-up loads into the cache; plain JDBC so the cold case
+		// does not warm the JPA path here
+		List<Long> ids = context.getBean(JdbcTemplate.class)
+				.queryForList("SELECT id FROM person ORDER BY id DESC LIMIT " + REQUESTS, Long.class);
+		uris = ids.stream().map(id -> URI.create("http://localhost:" + port + "/person/" + id)).toList();
+		client = HttpClient.newHttpClient();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int firstRequests() throws Exception {
+		int ok = 0;
+		for (URI uri : uris) {
+			HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).build(),
+					HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() == 200) {
+				ok++;
+			}
+		}
+		return ok;
+	}
+}
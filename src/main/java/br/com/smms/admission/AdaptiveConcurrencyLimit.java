@@ -0,0 +1,115 @@
+package br.com.smms.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// How many requests may be in flight at once, found from their latency (the gradient of
+// Netflix's concurrency-limits): once per window the average time of the window is compared
+// with its long-run average. Latency within tolerance lets the limit grow by about its square
+// root, the queue it may build; above it the limit shrinks in proportion, down to half per
+// window, so the excess waits nowhere (the connection pool included) and is turned away at
+// once instead. Acquire and release are a compare-and-set and two adders; the thread that
+// closes a window updates the limit for everyone.
+public class AdaptiveConcurrencyLimit {
+
+	private static final double SMOOTHING = 0.2;
+	private static final int LONG_WINDOWS = 60;
+	private static final int MIN_WINDOW_SAMPLES = 10;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final double tolerance;
+	private final long windowNanos;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger peakInFlight = new AtomicInteger();
+	private final LongAdder rttSum = new LongAdder();
+	private final LongAdder samples = new LongAdder();
+	private final AtomicLong windowStart;
+	private volatile double limit;
+	// Written by one window at a time, read by the next
+	private volatile double longRtt;
+
+	public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, long windowNanos,
+			long now) {
+		if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit || tolerance < 1) {
+			throw new IllegalArgumentException("Concurrency limits must be 0 < min <= initial <= max, tolerance >= 1");
+		}
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.tolerance = tolerance;
+		this.windowNanos = windowNanos;
+		this.limit = initialLimit;
+		this.windowStart = new AtomicLong(now);
+	}
+
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public boolean tryAcquire() {
+		for (;;) {
+			int current = inFlight.get();
+			if (current >= (int) limit) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				if (current + 1 > peakInFlight.get()) {
+					peakInFlight.accumulateAndGet(current + 1, Math::max);
+				}
+				return true;
+			}
+		}
+	}
+
+	// Only requests that ran to completion are timed: a failed or handed-off one says nothing
+	// about how long the work takes
+	public void release(long start, long end, boolean sample) {
+		inFlight.decrementAndGet();
+		if (!sample) {
+			return;
+		}
+		rttSum.add(end - start);
+		samples.increment();
+		long current = windowStart.get();
+		if (end - current >= windowNanos && windowStart.compareAndSet(current, end)) {
+			update();
+		}
+	}
+
+	private void update() {
+		long count = samples.sumThenReset();
+		long sum = rttSum.sumThenReset();
+		if (count < MIN_WINDOW_SAMPLES) {
+			// Too few to go by; they count towards the next window
+			rttSum.add(sum);
+			samples.add(count);
+			return;
+		}
+		int peak = peakInFlight.getAndSet(inFlight.get());
+		double shortRtt = (double) sum / count;
+		if (longRtt == 0) {
+			longRtt = shortRtt;
+		} else {
+			longRtt += (shortRtt - longRtt) / LONG_WINDOWS;
+			// After an overload the long-run average stays up; let it come down with the latency
+			if (longRtt > 2 * shortRtt) {
+				longRtt *= 0.95;
+			}
+		}
+		double current = limit;
+		if (peak < current / 2) {
+			// Not using the limit says nothing about whether more would fit
+			return;
+		}
+		double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+		double next = current * gradient + Math.sqrt(current);
+		next = current * (1 - SMOOTHING) + next * SMOOTHING;
+		limit = Math.max(minLimit, Math.min(maxLimit, next));
+	}
+}
@@ -0,0 +1,161 @@
+package br.com.smms.admission;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.smms.exceptions.ExceptionResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Admits a request to /person only if its client (a known person.admission.client-header key,
+// or else its address) has the tokens its endpoint costs, and there is room under the adaptive concurrency
+// limit. Over its rate a client gets 429 with the time until it has them again; over the limit
+// any client gets 503, before the request can queue for a database connection. Until the
+// instance first reports ready nothing is limited: the only callers then are the warm-up's
+// synthetic requests, all from one loopback address.
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+	public static final String REJECTED_COUNTER = "person.admission.rejected";
+	public static final String LIMIT_GAUGE = "person.admission.limit";
+	public static final String IN_FLIGHT_GAUGE = "person.admission.in.flight";
+
+	private final AdmissionProperties properties;
+	private final ObjectMapper objectMapper;
+	private final ApplicationAvailability availability;
+	private final ClientRateLimiter rateLimiter;
+	private final AdaptiveConcurrencyLimit concurrencyLimit;
+	private final List<Rule> rules = new ArrayList<>();
+	private final Counter rateRejected;
+	private final Counter concurrencyRejected;
+	private volatile boolean ready;
+
+	private record Rule(String method, PathPattern pattern, String parameter, int cost) {
+
+		boolean matches(HttpServletRequest request, PathContainer path) {
+			return method.equals(request.getMethod()) && pattern.matches(path)
+					&& (parameter == null || request.getParameter(parameter) != null);
+		}
+	}
+
+	public AdmissionControlFilter(AdmissionProperties properties, ObjectMapper objectMapper,
+			ApplicationAvailability availability, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.objectMapper = objectMapper;
+		this.availability = availability;
+		AdmissionProperties.Rate rate = properties.getRate();
+		this.rateLimiter = new ClientRateLimiter(rate.getCapacity(), rate.getRefillPerSecond(), rate.getMaxClients());
+		properties.getCosts().forEach((endpoint, cost) -> {
+			String[] methodAndPath = endpoint.trim().split("\\s+", 2);
+			String[] pathAndParameter = methodAndPath[1].split("\\?", 2);
+			if (cost > rateLimiter.capacity()) {
+				throw new IllegalArgumentException("Cost of " + endpoint + " is above the rate capacity");
+			}
+			rules.add(new Rule(methodAndPath[0].toUpperCase(), PathPatternParser.defaultInstance.parse(pathAndParameter[0]),
+					pathAndParameter.length > 1 ? pathAndParameter[1] : null, cost));
+		});
+		AdmissionProperties.Concurrency concurrency = properties.getConcurrency();
+		this.concurrencyLimit = concurrency.isEnabled()
+				? new AdaptiveConcurrencyLimit(concurrency.getInitialLimit(), concurrency.getMinLimit(),
+						concurrency.getMaxLimit(), concurrency.getTolerance(), concurrency.getWindow().toNanos(),
+						System.nanoTime())
+				: null;
+		this.rateRejected = Counter.builder(REJECTED_COUNTER).tag("reason", "rate").register(meterRegistry);
+		this.concurrencyRejected = Counter.builder(REJECTED_COUNTER).tag("reason", "concurrency")
+				.register(meterRegistry);
+		if (concurrencyLimit != null) {
+			Gauge.builder(LIMIT_GAUGE, concurrencyLimit, AdaptiveConcurrencyLimit::getLimit).register(meterRegistry);
+			Gauge.builder(IN_FLIGHT_GAUGE, concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+					.register(meterRegistry);
+		}
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !properties.isEnabled() || !ready();
+	}
+
+	// Stays on once ready, also while the instance refuses traffic to shut down
+	private boolean ready() {
+		if (!ready && availability.getReadinessState() == ReadinessState.ACCEPTING_TRAFFIC) {
+			ready = true;
+		}
+		return ready;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		long start = System.nanoTime();
+		long wait = rateLimiter.tryAcquire(client(request), cost(request), start);
+		if (wait > 0) {
+			rateRejected.increment();
+			reject(request, response, HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded, retry later",
+					Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+			return;
+		}
+		if (concurrencyLimit == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+		if (!concurrencyLimit.tryAcquire()) {
+			concurrencyRejected.increment();
+			reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, "Server busy, retry later", 1);
+			return;
+		}
+		boolean completed = false;
+		try {
+			chain.doFilter(request, response);
+			completed = true;
+		} finally {
+			// A long poll or a stream holds no slot once it has left the request thread
+			concurrencyLimit.release(start, System.nanoTime(),
+					completed && !request.isAsyncStarted() && response.getStatus() < 500);
+		}
+	}
+
+	// A key nobody issued names no client: sending a new one each time would get a full bucket
+	// each time, so it counts against the address like a request without one
+	private String client(HttpServletRequest request) {
+		String key = request.getHeader(properties.getClientHeader());
+		return key != null && properties.getApiKeys().contains(key) ? "key:" + key : request.getRemoteAddr();
+	}
+
+	private int cost(HttpServletRequest request) {
+		PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+		for (Rule rule : rules) {
+			if (rule.matches(request, path)) {
+				return rule.cost();
+			}
+		}
+		return properties.getDefaultCost();
+	}
+
+	private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message,
+			long retryAfterSeconds) throws IOException {
+		response.setStatus(status.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(),
+				new ExceptionResponse(LocalDateTime.now(), message, "uri=" + request.getRequestURI()));
+	}
+}
@@ -0,0 +1,179 @@
+package br.com.smms.admission;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("person.admission")
+public class AdmissionProperties {
+
+	private boolean enabled = true;
+	private String clientHeader = "X-API-Key";
+	// Keys with a bucket of their own; any other key, or none, shares the bucket of its address
+	private Set<String> apiKeys = new LinkedHashSet<>();
+	private Rate rate = new Rate();
+	private Concurrency concurrency = new Concurrency();
+	private int defaultCost = 1;
+	// "METHOD /pattern" or "METHOD /pattern?param" (only with that parameter); the first match wins
+	private Map<String, Integer> costs = new LinkedHashMap<>();
+
+	public AdmissionProperties() {
+		costs.put("GET /person?limit", 5);
+		costs.put("GET /person?modifiedSince", 5);
+		costs.put("GET /person", 100);
+		costs.put("GET /person/search/**", 10);
+		costs.put("GET /person/changes", 5);
+		costs.put("POST /person/batch", 50);
+		costs.put("PUT /person/batch", 50);
+		costs.put("DELETE /person/batch", 50);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getClientHeader() {
+		return clientHeader;
+	}
+
+	public void setClientHeader(String clientHeader) {
+		this.clientHeader = clientHeader;
+	}
+
+	public Set<String> getApiKeys() {
+		return apiKeys;
+	}
+
+	public void setApiKeys(Set<String> apiKeys) {
+		this.apiKeys = apiKeys;
+	}
+
+	public Rate getRate() {
+		return rate;
+	}
+
+	public void setRate(Rate rate) {
+		this.rate = rate;
+	}
+
+	public Concurrency getConcurrency() {
+		return concurrency;
+	}
+
+	public void setConcurrency(Concurrency concurrency) {
+		this.concurrency = concurrency;
+	}
+
+	public int getDefaultCost() {
+		return defaultCost;
+	}
+
+	public void setDefaultCost(int defaultCost) {
+		this.defaultCost = defaultCost;
+	}
+
+	public Map<String, Integer> getCosts() {
+		return costs;
+	}
+
+	public void setCosts(Map<String, Integer> costs) {
+		this.costs = costs;
+	}
+
+	public static class Rate {
+
+		private int capacity = 600;
+		private int refillPerSecond = 100;
+		private int maxClients = 100_000;
+
+		public int getCapacity() {
+			return capacity;
+		}
+
+		public void setCapacity(int capacity) {
+			this.capacity = capacity;
+		}
+
+		public int getRefillPerSecond() {
+			return refillPerSecond;
+		}
+
+		public void setRefillPerSecond(int refillPerSecond) {
+			this.refillPerSecond = refillPerSecond;
+		}
+
+		public int getMaxClients() {
+			return maxClients;
+		}
+
+		public void setMaxClients(int maxClients) {
+			this.maxClients = maxClients;
+		}
+	}
+
+	public static class Concurrency {
+
+		private boolean enabled = true;
+		private int initialLimit = 20;
+		private int minLimit = 4;
+		private int maxLimit = 200;
+		private double tolerance = 1.5;
+		private Duration window = Duration.ofMillis(500);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getInitialLimit() {
+			return initialLimit;
+		}
+
+		public void setInitialLimit(int initialLimit) {
+			this.initialLimit = initialLimit;
+		}
+
+		public int getMinLimit() {
+			return minLimit;
+		}
+
+		public void setMinLimit(int minLimit) {
+			this.minLimit = minLimit;
+		}
+
+		public int getMaxLimit() {
+			return maxLimit;
+		}
+
+		public void setMaxLimit(int maxLimit) {
+			this.maxLimit = maxLimit;
+		}
+
+		public double getTolerance() {
+			return tolerance;
+		}
+
+		public void setTolerance(double tolerance) {
+			this.tolerance = tolerance;
+		}
+
+		public Duration getWindow() {
+			return window;
+		}
+
+		public void setWindow(Duration window) {
+			this.window = window;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package br.com.smms.admission;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// One token bucket per client, kept as the time at which it will be full again (GCRA): taking
+// tokens moves that time forward by their refill time, and is refused while it would end up more
+// than a full bucket ahead of now. A single compare-and-set per request, no lock and no timer.
+public class ClientRateLimiter {
+
+	private final long nanosPerToken;
+	private final long capacityNanos;
+	private final Cache<String, AtomicLong> buckets;
+
+	public ClientRateLimiter(int capacity, int refillPerSecond, int maxClients) {
+		if (capacity <= 0 || refillPerSecond <= 0) {
+			throw new IllegalArgumentException("Rate capacity and refill must be positive");
+		}
+		this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / refillPerSecond;
+		this.capacityNanos = capacity * nanosPerToken;
+		// A client idle for longer than a refill has a full bucket, the same as a new one
+		this.buckets = Caffeine.newBuilder()
+				.expireAfterAccess(Duration.ofNanos(capacityNanos).plusSeconds(1))
+				.maximumSize(maxClients)
+				.build();
+	}
+
+	public long capacity() {
+		return capacityNanos / nanosPerToken;
+	}
+
+	// 0 when the tokens were taken, otherwise how long until they will be there
+	public long tryAcquire(String client, int cost, long now) {
+		AtomicLong full = buckets.get(client, key -> new AtomicLong(now));
+		long needed = cost * nanosPerToken;
+		for (;;) {
+			long current = full.get();
+			long next = Math.max(current, now) + needed;
+			long wait = next - now - capacityNanos;
+			if (wait > 0) {
+				return wait;
+			}
+			if (full.compareAndSet(current, next)) {
+				return 0;
+			}
+		}
+	}
+}
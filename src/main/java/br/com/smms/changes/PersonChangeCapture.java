@@ -0,0 +1,221 @@
+package br.com.smms.changes;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonChange;
+import br.com.smms.model.PersonChangeSequence;
+import jakarta.persistence.EntityManager;
+
+// Writes the person_change outbox from Hibernate's own insert, update and delete events, so
+// every path that writes a Person through the session (PersonService, the batch chunks, the
+// write-behind worker) is covered on the connection, and with sharding the shard, of the change.
+// Bulk statements bypass the events and call record themselves.
+// The changes of a transaction are written after its final flush, just before the commit: one
+// increment of the person_change_seq row reserves their sequences and keeps that row locked
+// until the commit, so sequences are handed out in commit order and a reader that has seen N
+// will never find a smaller sequence committed later.
+public class PersonChangeCapture implements Integrator, PostInsertEventListener, PostUpdateEventListener,
+		PostDeleteEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final String RESERVE = "UPDATE person_change_seq SET last_sequence = last_sequence + ? WHERE id = "
+			+ PersonChangeSequence.ROW_ID;
+	private static final String CREATE_ROW = "INSERT INTO person_change_seq (id, last_sequence) VALUES ("
+			+ PersonChangeSequence.ROW_ID + ", 0)";
+	private static final String LAST = "SELECT last_sequence FROM person_change_seq WHERE id = "
+			+ PersonChangeSequence.ROW_ID;
+	private static final String INSERT = "INSERT INTO person_change (sequence, person_id, type, version, first_name, "
+			+ "last_name, address, gender, email) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private final transient Map<SharedSessionContractImplementor, Changes> pending = new ConcurrentHashMap<>();
+	private final transient ReentrantLock lock = new ReentrantLock();
+	private final transient Condition committed = lock.newCondition();
+	private volatile long commits;
+
+	@Override
+	public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+		EventListenerRegistry listeners = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+		listeners.appendListeners(EventType.POST_INSERT, this);
+		listeners.appendListeners(EventType.POST_UPDATE, this);
+		listeners.appendListeners(EventType.POST_DELETE, this);
+	}
+
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+		pending.clear();
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if (event.getEntity() instanceof Person person) {
+			add(event.getSession(), snapshot(PersonChange.Type.CREATED, person,
+					version(event.getPersister(), event.getState())));
+		}
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if (event.getEntity() instanceof Person person) {
+			add(event.getSession(), snapshot(PersonChange.Type.UPDATED, person,
+					version(event.getPersister(), event.getState())));
+		}
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if (event.getEntity() instanceof Person) {
+			add(event.getSession(), new PersonChange(PersonChange.Type.DELETED, (Long) event.getId(),
+					version(event.getPersister(), event.getDeletedState())));
+		}
+	}
+
+	// For writes that bypass the session events: must run inside the writing transaction
+	public void record(EntityManager entityManager, PersonChange change) {
+		add(entityManager.unwrap(SessionImplementor.class), change);
+	}
+
+	// Number of transactions with changes committed through this instance so far
+	public long getCommitCount() {
+		return commits;
+	}
+
+	// Waits until the commit count passes the one seen or the timeout elapses. Changes committed
+	// by other instances do not wake anyone, readers still poll for them.
+	public boolean awaitCommit(long seen, long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		lock.lock();
+		try {
+			while (commits <= seen && nanos > 0) {
+				nanos = committed.awaitNanos(nanos);
+			}
+			return commits > seen;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void add(SessionImplementor session, PersonChange change) {
+		pending.computeIfAbsent(session, key -> {
+			Changes changes = new Changes();
+			session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) changes);
+			session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) changes);
+			return changes;
+		}).changes.add(change);
+	}
+
+	private static long reserve(Connection connection, int count) throws SQLException {
+		try (PreparedStatement reserve = connection.prepareStatement(RESERVE)) {
+			reserve.setInt(1, count);
+			if (reserve.executeUpdate() == 0) {
+				// Schemas created by ddl-auto start without the row the migration inserts
+				try (PreparedStatement create = connection.prepareStatement(CREATE_ROW)) {
+					create.executeUpdate();
+				} catch (SQLException e) {
+					// created meanwhile by another transaction
+				}
+				reserve.executeUpdate();
+			}
+		}
+		try (PreparedStatement select = connection.prepareStatement(LAST);
+				ResultSet result = select.executeQuery()) {
+			result.next();
+			return result.getLong(1);
+		}
+	}
+
+	private static PersonChange snapshot(PersonChange.Type type, Person person, Long version) {
+		PersonChange change = new PersonChange(type, person.getId(), version);
+		change.setFirstName(person.getFirstName());
+		change.setLastName(person.getLastName());
+		change.setAddress(person.getAddress());
+		change.setGender(person.getGender());
+		change.setEmail(person.getEmail());
+		return change;
+	}
+
+	private static Long version(EntityPersister persister, Object[] state) {
+		return persister.isVersioned() && state != null ? (Long) state[persister.getVersionProperty()] : null;
+	}
+
+	private final class Changes implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+		private final List<PersonChange> changes = new ArrayList<>();
+
+		@Override
+		public void doBeforeTransactionCompletion(SessionImplementor session) {
+			pending.remove(session);
+			session.doWork(connection -> {
+				long last = reserve(connection, changes.size());
+				long sequence = last - changes.size();
+				try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+					for (PersonChange change : changes) {
+						change.setSequence(++sequence);
+						insert.setLong(1, change.getSequence());
+						insert.setLong(2, change.getPersonId());
+						insert.setString(3, change.getType().name());
+						insert.setObject(4, change.getVersion(), Types.BIGINT);
+						insert.setString(5, change.getFirstName());
+						insert.setString(6, change.getLastName());
+						insert.setString(7, change.getAddress());
+						insert.setString(8, change.getGender());
+						insert.setString(9, change.getEmail());
+						insert.addBatch();
+					}
+					insert.executeBatch();
+				}
+			});
+		}
+
+		@Override
+		public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+			pending.remove(session);
+			if (!success) {
+				return;
+			}
+			lock.lock();
+			try {
+				commits++;
+				committed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
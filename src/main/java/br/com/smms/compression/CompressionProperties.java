@@ -0,0 +1,61 @@
+package br.com.smms.compression;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties("person.compression")
+public class CompressionProperties {
+
+	private boolean enabled = true;
+	private DataSize minSize = DataSize.ofKilobytes(2);
+	private int gzipLevel = 6;
+	private int zstdLevel = 3;
+	// Content codings offered per media type (parameters ignored), most preferred first
+	private Map<String, List<ContentCoding>> mimeTypes = new LinkedHashMap<>(Map.of(
+			"application/json", List.of(ContentCoding.ZSTD, ContentCoding.GZIP),
+			"application/x-ndjson", List.of(ContentCoding.ZSTD, ContentCoding.GZIP)));
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public DataSize getMinSize() {
+		return minSize;
+	}
+
+	public void setMinSize(DataSize minSize) {
+		this.minSize = minSize;
+	}
+
+	public int getGzipLevel() {
+		return gzipLevel;
+	}
+
+	public void setGzipLevel(int gzipLevel) {
+		this.gzipLevel = gzipLevel;
+	}
+
+	public int getZstdLevel() {
+		return zstdLevel;
+	}
+
+	public void setZstdLevel(int zstdLevel) {
+		this.zstdLevel = zstdLevel;
+	}
+
+	public Map<String, List<ContentCoding>> getMimeTypes() {
+		return mimeTypes;
+	}
+
+	public void setMimeTypes(Map<String, List<ContentCoding>> mimeTypes) {
+		this.mimeTypes = mimeTypes;
+	}
+}
@@ -0,0 +1,60 @@
+package br.com.smms.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.util.ClassUtils;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+// The Content-Encoding values ResponseCompressionFilter can produce. Both streams flush what
+// they hold on flush(), so a streamed response reaches the client as it is written.
+public enum ContentCoding {
+
+	ZSTD("zstd") {
+		@Override
+		public OutputStream compress(OutputStream out, int level) throws IOException {
+			return new ZstdOutputStream(out, level);
+		}
+	},
+	GZIP("gzip") {
+		@Override
+		public OutputStream compress(OutputStream out, int level) throws IOException {
+			return new GZIPOutputStream(out, 8192, true) {
+				{
+					def.setLevel(level);
+				}
+			};
+		}
+	};
+
+	private static final boolean ZSTD_PRESENT = ClassUtils.isPresent("com.github.luben.zstd.ZstdOutputStream",
+			ContentCoding.class.getClassLoader());
+
+	private final String token;
+
+	ContentCoding(String token) {
+		this.token = token;
+	}
+
+	public String getToken() {
+		return token;
+	}
+
+	public boolean isAvailable() {
+		return this != ZSTD || ZSTD_PRESENT;
+	}
+
+	// Closing the returned stream writes the trailer and closes out as well
+	public abstract OutputStream compress(OutputStream out, int level) throws IOException;
+
+	public static ContentCoding of(String token) {
+		for (ContentCoding coding : values()) {
+			if (coding.token.equalsIgnoreCase(token.trim())) {
+				return coding;
+			}
+		}
+		throw new IllegalArgumentException("Unsupported content coding: " + token);
+	}
+}
@@ -0,0 +1,481 @@
+package br.com.smms.compression;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// Compresses responses with the first content coding of their media type's rule that the client
+// accepts (person.compression.mime-types), as they are written: only the first min-size bytes
+// are held back, to send small bodies as they are. Flushes are held back with them (the message
+// converters flush every body); a response that will not be compressed, like an event stream,
+// goes out on its first flush. Body and wire bytes per coding are recorded in
+// person.response.bytes, so the ratio of each shows on the dashboards.
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+	public static final String RESPONSE_BYTES = "person.response.bytes";
+	public static final String IDENTITY = "identity";
+
+	private static final String RESPONSE_ATTRIBUTE = ResponseCompressionFilter.class.getName() + ".response";
+
+	private final CompressionProperties properties;
+	private final int minSize;
+	private final Map<String, List<ContentCoding>> rules = new HashMap<>();
+	private final Map<String, DistributionSummary> bodyBytes = new HashMap<>();
+	private final Map<String, DistributionSummary> wireBytes = new HashMap<>();
+
+	public ResponseCompressionFilter(CompressionProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.minSize = (int) Math.min(properties.getMinSize().toBytes(), Integer.MAX_VALUE - 8);
+		properties.getMimeTypes().forEach((type, codings) -> {
+			MediaType mediaType = MediaType.parseMediaType(type);
+			rules.put(key(mediaType), List.copyOf(codings));
+		});
+		for (String coding : new String[] { IDENTITY, ContentCoding.GZIP.getToken(), ContentCoding.ZSTD.getToken() }) {
+			bodyBytes.put(coding, DistributionSummary.builder(RESPONSE_BYTES).baseUnit("bytes")
+					.tag("encoding", coding).tag("stage", "body").register(meterRegistry));
+			wireBytes.put(coding, DistributionSummary.builder(RESPONSE_BYTES).baseUnit("bytes")
+					.tag("encoding", coding).tag("stage", "wire").register(meterRegistry));
+		}
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !properties.isEnabled();
+	}
+
+	// Async responses (NDJSON streams, long polls) are finished by the dispatch that ends them
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		return false;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		CompressingResponse compressing = request.getAttribute(RESPONSE_ATTRIBUTE) instanceof CompressingResponse started
+				? started : new CompressingResponse(request, response);
+		request.setAttribute(RESPONSE_ATTRIBUTE, compressing);
+		try {
+			chain.doFilter(request, compressing);
+		} catch (IOException | ServletException | RuntimeException | Error e) {
+			compressing.abort();
+			throw e;
+		}
+		if (!request.isAsyncStarted()) {
+			compressing.finish();
+		}
+	}
+
+	private static String key(MediaType mediaType) {
+		return (mediaType.getType() + "/" + mediaType.getSubtype()).toLowerCase(Locale.ROOT);
+	}
+
+	// q of the coding in Accept-Encoding, falling back to the one of *
+	private static double quality(String acceptEncoding, ContentCoding coding) {
+		double wildcard = 0;
+		for (String entry : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+			String[] parts = StringUtils.tokenizeToStringArray(entry, ";");
+			if (parts.length == 0) {
+				continue;
+			}
+			double quality = 1;
+			for (int i = 1; i < parts.length; i++) {
+				if (parts[i].startsWith("q=")) {
+					try {
+						quality = Double.parseDouble(parts[i].substring(2));
+					} catch (NumberFormatException e) {
+						quality = 0;
+					}
+				}
+			}
+			if (parts[0].equalsIgnoreCase(coding.getToken())) {
+				return quality;
+			}
+			if (parts[0].equals("*")) {
+				wildcard = quality;
+			}
+		}
+		return wildcard;
+	}
+
+	private final class CompressingResponse extends HttpServletResponseWrapper {
+
+		private final HttpServletRequest request;
+		private CompressingOutputStream stream;
+		private PrintWriter writer;
+		private long declaredLength = -1;
+
+		CompressingResponse(HttpServletRequest request, HttpServletResponse response) {
+			super(response);
+			this.request = request;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (writer != null) {
+				throw new IllegalStateException("getWriter() has already been called for this response");
+			}
+			return stream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (writer == null) {
+				if (stream != null) {
+					throw new IllegalStateException("getOutputStream() has already been called for this response");
+				}
+				writer = new PrintWriter(new OutputStreamWriter(stream(), Charset.forName(getCharacterEncoding())));
+			}
+			return writer;
+		}
+
+		// The length is only passed on if the body goes out as it is
+		@Override
+		public void setContentLength(int length) {
+			declaredLength = length;
+		}
+
+		@Override
+		public void setContentLengthLong(long length) {
+			declaredLength = length;
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				declaredLength = value == null ? -1 : Long.parseLong(value);
+			} else {
+				super.setHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				declaredLength = Long.parseLong(value);
+			} else {
+				super.addHeader(name, value);
+			}
+		}
+
+		@Override
+		public void setIntHeader(String name, int value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				declaredLength = value;
+			} else {
+				super.setIntHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addIntHeader(String name, int value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				declaredLength = value;
+			} else {
+				super.addIntHeader(name, value);
+			}
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (writer != null) {
+				writer.flush();
+			}
+			if (stream != null) {
+				stream.flush();
+				if (!stream.isStarted()) {
+					// Committing now would send the headers before the coding is known
+					return;
+				}
+			}
+			super.flushBuffer();
+		}
+
+		@Override
+		public void resetBuffer() {
+			if (stream != null) {
+				stream.discard();
+			}
+			super.resetBuffer();
+		}
+
+		@Override
+		public void reset() {
+			if (stream != null) {
+				stream.discard();
+			}
+			declaredLength = -1;
+			super.reset();
+		}
+
+		void finish() throws IOException {
+			if (writer != null) {
+				writer.flush();
+			}
+			if (stream != null) {
+				stream.finish();
+			} else if (declaredLength >= 0) {
+				super.setContentLengthLong(declaredLength);
+			}
+		}
+
+		// Nothing buffered is sent, so the error handling after it can still reset the response
+		void abort() {
+			if (stream != null) {
+				stream.abort();
+			}
+		}
+
+		private CompressingOutputStream stream() throws IOException {
+			if (stream == null) {
+				stream = new CompressingOutputStream(this, super.getOutputStream());
+			}
+			return stream;
+		}
+
+		// null when the body goes out as it is
+		ContentCoding negotiate() {
+			String contentType = getContentType();
+			int status = getStatus();
+			if (contentType == null || status < 200 || status == HttpServletResponse.SC_NO_CONTENT
+					|| status == HttpServletResponse.SC_NOT_MODIFIED || "HEAD".equals(request.getMethod())
+					|| containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+				return null;
+			}
+			List<ContentCoding> codings;
+			try {
+				codings = rules.get(key(MediaType.parseMediaType(contentType)));
+			} catch (InvalidMediaTypeException e) {
+				return null;
+			}
+			if (codings == null) {
+				return null;
+			}
+			if (getHeaders(HttpHeaders.VARY).stream().noneMatch(vary -> vary.contains(HttpHeaders.ACCEPT_ENCODING))) {
+				super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			}
+			String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+			if (acceptEncoding == null || (declaredLength >= 0 && declaredLength < minSize)) {
+				return null;
+			}
+			for (ContentCoding coding : codings) {
+				if (coding.isAvailable() && quality(acceptEncoding, coding) > 0) {
+					return coding;
+				}
+			}
+			return null;
+		}
+
+		void sendAsIs(long length) {
+			if (length >= 0) {
+				super.setContentLengthLong(length);
+			}
+		}
+
+		void sendCompressed(ContentCoding coding) {
+			super.setHeader(HttpHeaders.CONTENT_ENCODING, coding.getToken());
+		}
+	}
+
+	private final class CompressingOutputStream extends ServletOutputStream {
+
+		private final CompressingResponse response;
+		private final ServletOutputStream raw;
+		private final CountingOutputStream wire;
+		private byte[] buffer;
+		private int buffered;
+		private long body;
+		private OutputStream target;
+		private String coding;
+		private boolean done;
+
+		CompressingOutputStream(CompressingResponse response, ServletOutputStream raw) {
+			this.response = response;
+			this.raw = raw;
+			this.wire = new CountingOutputStream(raw);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			if (done) {
+				throw new IOException("Response already finished");
+			}
+			body += length;
+			if (target == null) {
+				if (buffered + length <= minSize) {
+					if (buffer == null) {
+						buffer = new byte[Math.max(Math.min(minSize, 8192), length)];
+					} else if (buffered + length > buffer.length) {
+						buffer = Arrays.copyOf(buffer, Math.min(minSize, Math.max(buffer.length * 2,
+								buffered + length)));
+					}
+					System.arraycopy(bytes, offset, buffer, buffered, length);
+					buffered += length;
+					return;
+				}
+				start();
+			}
+			target.write(bytes, offset, length);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (done) {
+				return;
+			}
+			if (target == null) {
+				if (response.negotiate() != null) {
+					return;
+				}
+				start();
+			}
+			target.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			finish();
+		}
+
+		@Override
+		public boolean isReady() {
+			return raw.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			raw.setWriteListener(writeListener);
+		}
+
+		boolean isStarted() {
+			return target != null;
+		}
+
+		void discard() {
+			if (target == null) {
+				body -= buffered;
+				buffered = 0;
+			}
+		}
+
+		void finish() throws IOException {
+			if (done) {
+				return;
+			}
+			if (target == null) {
+				// All of it fit below min-size: sent as it is, with its length (and the Vary of its type)
+				response.negotiate();
+				coding = IDENTITY;
+				response.sendAsIs(response.declaredLength >= 0 ? response.declaredLength : buffered);
+				target = wire;
+				target.write(buffer == null ? new byte[0] : buffer, 0, buffered);
+			}
+			done = true;
+			if (target != wire) {
+				// Writes the trailer; the raw stream is left open for the container
+				target.close();
+			}
+			wire.flush();
+			bodyBytes.get(coding).record(body);
+			wireBytes.get(coding).record(wire.count);
+		}
+
+		void abort() {
+			if (target != null && target != wire && !done) {
+				try {
+					target.close();
+				} catch (IOException e) {
+					// the client is gone or the stream is broken; the original error wins
+				}
+			}
+			done = true;
+			buffered = 0;
+		}
+
+		private void start() throws IOException {
+			ContentCoding negotiated = response.negotiate();
+			if (negotiated == null) {
+				coding = IDENTITY;
+				response.sendAsIs(response.declaredLength);
+				target = wire;
+			} else {
+				coding = negotiated.getToken();
+				response.sendCompressed(negotiated);
+				target = negotiated.compress(new NonClosingOutputStream(wire),
+						negotiated == ContentCoding.GZIP ? properties.getGzipLevel() : properties.getZstdLevel());
+			}
+			if (buffered > 0) {
+				target.write(buffer, 0, buffered);
+			}
+			buffer = null;
+			buffered = 0;
+		}
+	}
+
+	private static final class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			out.write(bytes, offset, length);
+			count += length;
+		}
+	}
+
+	private static final class NonClosingOutputStream extends FilterOutputStream {
+
+		NonClosingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			out.write(bytes, offset, length);
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.flush();
+		}
+	}
+}
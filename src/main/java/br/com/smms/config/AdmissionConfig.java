@@ -0,0 +1,35 @@
+package br.com.smms.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.smms.admission.AdmissionControlFilter;
+import br.com.smms.admission.AdmissionProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Rate and concurrency limits in front of /person, from the time the instance is ready;
+// actuator endpoints are never turned away
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig {
+
+	@Bean
+	FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(AdmissionProperties properties,
+			ObjectMapper objectMapper, ApplicationAvailability availability, MeterRegistry meterRegistry) {
+		FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+				new AdmissionControlFilter(properties, objectMapper, availability, meterRegistry));
+		registration.addUrlPatterns("/person/*");
+		// Inside the latency timer and compression, ahead of everything that does work
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+		return registration;
+	}
+
+}
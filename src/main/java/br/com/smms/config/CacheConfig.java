@@ -0,0 +1,88 @@
+package br.com.smms.config;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Caches are Caffeine (W-TinyLFU) instances configured by spring.cache.caffeine.spec;
+// hit/miss/eviction counters are published under the cache.* metrics. Ids found missing are
+// kept apart from the people, in person.missing with person.cache.missing.* (seconds, not
+// minutes): a scan of unknown ids can then neither evict people nor hide a new one for long.
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+	public static final String PERSON_CACHE = "person";
+	public static final String MISSING_PERSON_CACHE = "person.missing";
+
+	// What Spring Boot would configure from spring.cache.*, except that person is a
+	// NegativeCachingCaffeineCache over person.missing
+	@Bean
+	CaffeineCacheManager cacheManager(CacheProperties cacheProperties,
+			ObjectProvider<CacheManagerCustomizer<CaffeineCacheManager>> customizers,
+			@Value("${person.cache.missing.expire-after-write:10s}") Duration missingExpireAfterWrite,
+			@Value("${person.cache.missing.maximum-size:10000}") long missingMaximumSize) {
+		Cache<Object, Object> missing = Caffeine.newBuilder()
+				.expireAfterWrite(missingExpireAfterWrite)
+				.maximumSize(missingMaximumSize)
+				.recordStats()
+				.build();
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+
+			@Override
+			protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+				return PERSON_CACHE.equals(name) ? new NegativeCachingCaffeineCache(name, cache, missing)
+						: super.adaptCaffeineCache(name, cache);
+			}
+
+			@Override
+			protected org.springframework.cache.Cache adaptCaffeineCache(String name, AsyncCache<Object, Object> cache) {
+				return PERSON_CACHE.equals(name) ? new NegativeCachingCaffeineCache(name, cache, missing)
+						: super.adaptCaffeineCache(name, cache);
+			}
+		};
+		String spec = cacheProperties.getCaffeine().getSpec();
+		if (StringUtils.hasText(spec)) {
+			cacheManager.setCacheSpecification(spec);
+		}
+		if (!cacheProperties.getCacheNames().isEmpty()) {
+			cacheManager.setCacheNames(cacheProperties.getCacheNames());
+		}
+		customizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+		cacheManager.registerCustomCache(MISSING_PERSON_CACHE, missing);
+		return cacheManager;
+	}
+
+	// A synchronous Caffeine load runs inside ConcurrentHashMap.compute, which holds a monitor
+	// and would pin the carrier of a virtual thread for the whole database round trip. In async
+	// mode the compute only installs a future and the load runs on the virtual-thread executor.
+	@Bean
+	@ConditionalOnThreading(Threading.VIRTUAL)
+	CacheManagerCustomizer<CaffeineCacheManager> virtualThreadCacheManagerCustomizer(CacheProperties cacheProperties,
+			@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor) {
+		return cacheManager -> {
+			cacheManager.setCaffeine(Caffeine.from(cacheProperties.getCaffeine().getSpec()).executor(executor));
+			cacheManager.setAsyncCacheMode(true);
+		};
+	}
+
+}
@@ -0,0 +1,29 @@
+package br.com.smms.config;
+
+import java.util.List;
+
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.com.smms.changes.PersonChangeCapture;
+
+// Registers PersonChangeCapture with Hibernate; the same instance is the bean the bulk write
+// paths record to and the change feed waits on
+@Configuration
+public class ChangeCaptureConfig {
+
+	@Bean
+	PersonChangeCapture personChangeCapture() {
+		return new PersonChangeCapture();
+	}
+
+	@Bean
+	HibernatePropertiesCustomizer personChangeCaptureCustomizer(PersonChangeCapture personChangeCapture) {
+		return hibernateProperties -> hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER,
+				(IntegratorProvider) () -> List.of(personChangeCapture));
+	}
+
+}
@@ -0,0 +1,31 @@
+package br.com.smms.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import br.com.smms.compression.CompressionProperties;
+import br.com.smms.compression.ResponseCompressionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Takes the place of server.compression on the servlet stack, which only knows gzip and one
+// list of types; the reactive profile keeps Netty's (see application-reactive.yml)
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(CompressionProperties.class)
+public class CompressionConfig {
+
+	@Bean
+	FilterRegistrationBean<ResponseCompressionFilter> responseCompressionFilter(CompressionProperties properties,
+			MeterRegistry meterRegistry) {
+		FilterRegistrationBean<ResponseCompressionFilter> registration =
+				new FilterRegistrationBean<>(new ResponseCompressionFilter(properties, meterRegistry));
+		// Inside the latency timer, so the time spent compressing is counted
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+		return registration;
+	}
+
+}
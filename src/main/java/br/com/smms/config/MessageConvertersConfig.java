@@ -0,0 +1,45 @@
+package br.com.smms.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import br.com.smms.serialization.ColumnarPersonHttpMessageConverter;
+import br.com.smms.serialization.JacksonProtobufHttpMessageConverter;
+
+// CBOR and Smile replace the converters Spring MVC would add with a plain mapper: built from
+// Boot's builder they keep the spring.jackson settings and PersonSerializer. JSON stays first
+// in every produces list, so clients that accept anything still get JSON. The columnar converter
+// goes in front of the JSON one with the other additions and only answers ;shape=columnar.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MessageConvertersConfig {
+
+	@Bean
+	MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
+	@Bean
+	MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+
+	@Bean
+	JacksonProtobufHttpMessageConverter protobufHttpMessageConverter() {
+		return new JacksonProtobufHttpMessageConverter();
+	}
+
+	@Bean
+	ColumnarPersonHttpMessageConverter columnarPersonHttpMessageConverter(ObjectMapper objectMapper) {
+		return new ColumnarPersonHttpMessageConverter(objectMapper);
+	}
+
+}
@@ -0,0 +1,23 @@
+package br.com.smms.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// http.server.requests (controllers), spring.data.repository.invocations (repositories),
+// hikaricp.* and cache.* come from Boot; this adds the @Timed service timers.
+// Histogram buckets are set per meter in management.metrics.distribution.
+@Configuration
+public class MetricsConfig {
+
+	public static final String SERVICE_TIMER = "person.service";
+	public static final String EXCEPTION_COUNTER = "person.exceptions";
+
+	@Bean
+	TimedAspect timedAspect(MeterRegistry registry) {
+		return new TimedAspect(registry);
+	}
+
+}
@@ -0,0 +1,45 @@
+package br.com.smms.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import br.com.smms.exceptions.ExceptionResponse;
+import br.com.smms.model.BatchItemResult;
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonChangePage;
+import br.com.smms.model.PersonDeltaPage;
+import br.com.smms.model.PersonPage;
+import br.com.smms.model.PersonWriteStatus;
+import br.com.smms.serialization.JacksonProtobufHttpMessageConverter;
+import br.com.smms.sharding.PersonIdGenerator;
+
+// What the AOT processing can not find on its own for the native image (-Pnative): the
+// request/response bodies Jackson binds by reflection and the mix-ins numbering the protobuf
+// fields of Spring Data's page, the id generator Hibernate creates for @PersonIdSequence and
+// the vendor specific Flyway migrations
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.PersonRuntimeHints.class)
+public class NativeHintsConfig {
+
+	static class PersonRuntimeHints implements RuntimeHintsRegistrar {
+
+		@Override
+		public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+			new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), Person.class,
+					ExceptionResponse.class, PersonPage.class, PersonDeltaPage.class, PersonChangePage.class,
+					BatchItemResult.class, PersonWriteStatus.class, JacksonProtobufHttpMessageConverter.Items.class);
+			hints.reflection().registerType(JacksonProtobufHttpMessageConverter.PagedModelFields.class,
+					MemberCategory.INTROSPECT_DECLARED_METHODS);
+			hints.reflection().registerType(JacksonProtobufHttpMessageConverter.PageMetadataFields.class,
+					MemberCategory.INTROSPECT_DECLARED_METHODS);
+			hints.reflection().registerType(PersonIdGenerator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+					MemberCategory.INVOKE_PUBLIC_METHODS);
+			hints.resources().registerPattern("db/migration/*/*.sql");
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+package br.com.smms.config;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NullValue;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+
+// A CaffeineCache of the values found, next to a second Caffeine cache of the keys whose load
+// came back null. Misses get their own (short) expiry and bound, so they neither stay around
+// as long as a value nor push values out. Storing a value drops its miss and the other way round.
+public class NegativeCachingCaffeineCache extends CaffeineCache {
+
+	private static final RuntimeException MISS = new Miss();
+
+	private final Cache<Object, Object> missing;
+
+	public NegativeCachingCaffeineCache(String name, Cache<Object, Object> found, Cache<Object, Object> missing) {
+		super(name, found, true);
+		this.missing = missing;
+	}
+
+	public NegativeCachingCaffeineCache(String name, AsyncCache<Object, Object> found, Cache<Object, Object> missing) {
+		super(name, found, true);
+		this.missing = missing;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		// A value stored since the miss wins over it, as in lookup()
+		if (missing.getIfPresent(key) != null && super.lookup(key) == null) {
+			return null;
+		}
+		try {
+			// Concurrent loads of a key still run once; a null aborts the load so nothing is stored
+			return super.get(key, () -> {
+				T value = valueLoader.call();
+				if (value == null) {
+					throw MISS;
+				}
+				return value;
+			});
+		} catch (RuntimeException e) {
+			if (!isMiss(e)) {
+				throw e;
+			}
+			recordMiss(key);
+			return null;
+		}
+	}
+
+	// A put racing the load may already have stored the key: its value is kept and no miss is recorded
+	private void recordMiss(Object key) {
+		if (super.lookup(key) != null) {
+			return;
+		}
+		missing.put(key, NullValue.INSTANCE);
+		if (super.lookup(key) != null) {
+			missing.invalidate(key);
+		}
+	}
+
+	@Override
+	protected Object lookup(Object key) {
+		Object value = super.lookup(key);
+		return value == null && missing.getIfPresent(key) != null ? NullValue.INSTANCE : value;
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		if (value == null) {
+			super.evict(key);
+			missing.put(key, NullValue.INSTANCE);
+		} else {
+			missing.invalidate(key);
+			super.put(key, value);
+		}
+	}
+
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		ValueWrapper existing = get(key);
+		if (existing != null) {
+			return existing;
+		}
+		put(key, value);
+		return null;
+	}
+
+	@Override
+	public void evict(Object key) {
+		missing.invalidate(key);
+		super.evict(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		boolean wasMissing = missing.asMap().remove(key) != null;
+		return super.evictIfPresent(key) || wasMissing;
+	}
+
+	@Override
+	public void clear() {
+		missing.invalidateAll();
+		super.clear();
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean hadMisses = !missing.asMap().isEmpty();
+		missing.invalidateAll();
+		return super.invalidate() || hadMisses;
+	}
+
+	// The async cache hands the exception back wrapped
+	private static boolean isMiss(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause == MISS) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static class Miss extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		Miss() {
+			super(null, null, false, false);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package br.com.smms.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// Fails the startup of the production profile when a setting of application-production.yml
+// was dropped or overridden (by an environment variable, another profile, ...) with a value
+// that costs throughput, instead of finding out from the latency graphs
+@Component
+@Profile("production")
+public class ProductionSettingsValidator implements InitializingBean {
+
+	private static final String HIKARI = "spring.datasource.hikari.";
+	private static final String HIBERNATE = "spring.jpa.properties.hibernate.";
+	private static final Set<String> MYSQL_STATEMENT_CACHING = Set.of("cachePrepStmts", "useServerPrepStmts",
+			"rewriteBatchedStatements");
+
+	private Logger logger = Logger.getLogger(ProductionSettingsValidator.class.getName());
+
+	@Autowired
+	private Environment environment;
+
+	@Override
+	public void afterPropertiesSet() {
+		// A CDS training run (Dockerfile.cds) stops after the refresh and has no database to migrate
+		if (environment.containsProperty("spring.context.exit")) {
+			return;
+		}
+		List<String> problems = new ArrayList<>();
+		String ddlAuto = environment.getProperty("spring.jpa.hibernate.ddl-auto", "none");
+		if (!ddlAuto.equals("none") && !ddlAuto.equals("validate")) {
+			problems.add("spring.jpa.hibernate.ddl-auto must be none or validate, the schema comes from Flyway");
+		}
+		if (ddlAuto.equals("validate")
+				&& !environment.getProperty(HIBERNATE + "boot.allow_jdbc_metadata_access", Boolean.class, true)) {
+			problems.add("spring.jpa.hibernate.ddl-auto validate needs " + HIBERNATE + "boot.allow_jdbc_metadata_access");
+		}
+		if (!environment.getProperty("spring.flyway.enabled", Boolean.class, true)) {
+			problems.add("spring.flyway.enabled must be true");
+		}
+		if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+			problems.add("spring.jpa.open-in-view must be false");
+		}
+		atLeast(problems, HIBERNATE + "jdbc.batch_size", 2);
+		atLeast(problems, HIBERNATE + "jdbc.fetch_size", 2);
+		atLeast(problems, HIBERNATE + "query.plan_cache_max_size", 2048);
+		atLeast(problems, HIKARI + "maximum-pool-size", 2);
+		if (environment.getProperty("spring.datasource.url", "").startsWith("jdbc:mysql:")) {
+			for (String property : MYSQL_STATEMENT_CACHING) {
+				if (!environment.getProperty(HIKARI + "data-source-properties." + property, Boolean.class, false)) {
+					problems.add(HIKARI + "data-source-properties." + property + " must be true");
+				}
+			}
+		}
+		if (!problems.isEmpty()) {
+			throw new IllegalStateException("Production profile misconfigured: " + String.join("; ", problems));
+		}
+		logger.info("Production settings validated");
+	}
+
+	private void atLeast(List<String> problems, String property, int minimum) {
+		Integer value = environment.getProperty(property, Integer.class);
+		if (value == null || value < minimum) {
+			problems.add(property + " must be at least " + minimum + " but is " + value);
+		}
+	}
+}
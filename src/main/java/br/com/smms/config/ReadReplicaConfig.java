@@ -0,0 +1,96 @@
+package br.com.smms.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import br.com.smms.datasource.ReadYourWritesFilter;
+import br.com.smms.datasource.ReplicaProperties;
+import br.com.smms.datasource.ReplicaRoutingDataSource;
+
+// Active only when person.datasource.replicas is configured (see application-replicas.yml);
+// without it the single spring.datasource pool is used as before
+@Configuration
+@ConditionalOnProperty(name = "person.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReadReplicaConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	@Bean(destroyMethod = "close")
+	ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, ReplicaProperties properties) {
+		List<DataSource> replicas = new ArrayList<>();
+		for (int i = 0; i < properties.getReplicas().size(); i++) {
+			ReplicaProperties.Replica replica = properties.getReplicas().get(i);
+			// Same pool sizing and timeouts as the primary
+			HikariConfig config = new HikariConfig();
+			primaryDataSource.copyStateTo(config);
+			config.setPoolName("replica-" + i);
+			config.setJdbcUrl(replica.getUrl());
+			if (replica.getUsername() != null) {
+				config.setUsername(replica.getUsername());
+				config.setPassword(replica.getPassword());
+			}
+			config.setReadOnly(true);
+			// Let the pool start even if the replica is down; the router fails over meanwhile
+			config.setInitializationFailTimeout(-1);
+			replicas.add(new HikariDataSource(config));
+		}
+		return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.getSelection(),
+				properties.getFailoverBackoff(), properties.getProbeInterval());
+	}
+
+	// The proxy hands out the physical connection on first use, when the transaction has begun.
+	// A JpaTransactionManager may not mark the connection read-only before Hibernate holds it,
+	// so the routing also asks the transaction itself whether it is read-only
+	@Bean
+	@Primary
+	DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+		AbstractRoutingDataSource byTransaction = new AbstractRoutingDataSource() {
+
+			@Override
+			protected Object determineCurrentLookupKey() {
+				return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+			}
+		};
+		byTransaction.setTargetDataSources(Map.of(Boolean.TRUE, replicaRoutingDataSource));
+		byTransaction.setDefaultTargetDataSource(primaryDataSource);
+		byTransaction.afterPropertiesSet();
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(byTransaction);
+		dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+		return dataSource;
+	}
+
+	@Bean
+	FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaProperties properties) {
+		FilterRegistrationBean<ReadYourWritesFilter> registration =
+				new FilterRegistrationBean<>(new ReadYourWritesFilter(properties.getStickiness()));
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+		return registration;
+	}
+
+}
@@ -0,0 +1,111 @@
+package br.com.smms.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.EntityManagerFactoryInfo;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import br.com.smms.sharding.PersonIdGenerator;
+import br.com.smms.sharding.PersonShardRouter;
+import br.com.smms.sharding.ShardRoutingDataSource;
+import br.com.smms.sharding.ShardingProperties;
+import br.com.smms.sharding.SnowflakeIdGenerator;
+
+// Active only when person.sharding.shards is configured (see application-sharding.yml);
+// without it the single spring.datasource pool is used as before. Not combinable with
+// person.datasource.replicas, both replace the dataSource bean.
+@Configuration
+@ConditionalOnProperty(name = "person.sharding.shards[0].url")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+	// Pool settings shared by every shard
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	HikariConfig shardPoolConfig() {
+		return new HikariConfig();
+	}
+
+	@Bean(destroyMethod = "close")
+	ShardRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, HikariConfig shardPoolConfig,
+			ShardingProperties properties) {
+		List<DataSource> shards = new ArrayList<>();
+		for (int i = 0; i < properties.getShards().size(); i++) {
+			ShardingProperties.Shard shard = properties.getShards().get(i);
+			HikariConfig config = new HikariConfig();
+			shardPoolConfig.copyStateTo(config);
+			config.setPoolName("shard-" + i);
+			config.setDriverClassName(dataSourceProperties.getDriverClassName());
+			config.setJdbcUrl(shard.getUrl());
+			config.setUsername(shard.getUsername() != null ? shard.getUsername() : dataSourceProperties.getUsername());
+			config.setPassword(shard.getPassword() != null ? shard.getPassword() : dataSourceProperties.getPassword());
+			shards.add(new HikariDataSource(config));
+		}
+		return new ShardRoutingDataSource(shards);
+	}
+
+	@Bean
+	PersonShardRouter personShardRouter(ShardingProperties properties,
+			ObjectProvider<PlatformTransactionManager> transactionManager) {
+		return new PersonShardRouter(properties.getShards().size(), transactionManager);
+	}
+
+	// Handed to PersonIdGenerator through the Hibernate settings
+	@Bean
+	HibernatePropertiesCustomizer snowflakeIdGeneratorCustomizer(ShardingProperties properties) {
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(properties.getWorkerId());
+		return hibernateProperties -> hibernateProperties.put(PersonIdGenerator.ID_GENERATOR_SETTING, generator);
+	}
+
+	// Flyway would only migrate the unpinned default, shard 0
+	@Bean
+	FlywayMigrationStrategy shardFlywayMigrationStrategy(ShardingProperties properties) {
+		return flyway -> {
+			for (int shard = 0; shard < properties.getShards().size(); shard++) {
+				ShardRoutingDataSource.callOn(shard, flyway::migrate);
+			}
+		};
+	}
+
+	// Hibernate's ddl-auto only reaches shard 0; for embedded and local setups this creates
+	// the tables on the other shards as soon as the EntityManagerFactory is built
+	@Bean
+	static BeanPostProcessor shardSchemaCreator(Environment environment, ObjectProvider<DataSource> dataSource) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof EntityManagerFactoryInfo info
+						&& environment.getProperty("person.sharding.create-schema", Boolean.class, false)) {
+					ShardRoutingDataSource shards = (ShardRoutingDataSource) dataSource.getObject();
+					SessionFactory sessionFactory = info.getNativeEntityManagerFactory().unwrap(SessionFactory.class);
+					for (int shard = 1; shard < shards.getShardCount(); shard++) {
+						ShardRoutingDataSource.callOn(shard, () -> {
+							sessionFactory.getSchemaManager().exportMappedObjects(true);
+							return null;
+						});
+					}
+				}
+				return bean;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,56 @@
+package br.com.smms.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.client.RestClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.services.PersonService;
+import br.com.smms.warmup.FirstMinuteLatencyFilter;
+import br.com.smms.warmup.WarmUpProperties;
+import br.com.smms.warmup.WarmUpRunner;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// The warm-up only runs with person.warm-up.enabled (on in the production profile); the
+// first-minute latency timer is always there, so warmed and cold starts can be compared
+@Configuration
+@EnableConfigurationProperties(WarmUpProperties.class)
+public class WarmUpConfig {
+
+	@Bean
+	WarmUpRunner warmUpRunner(WarmUpProperties properties, ApplicationContext applicationContext,
+			DataSource dataSource, PersonRepository personRepository, PersonService personService,
+			ObjectMapper objectMapper, ObjectProvider<RestClient.Builder> restClientBuilder,
+			MeterRegistry meterRegistry) {
+		return new WarmUpRunner(properties, applicationContext, dataSource, personRepository, personService,
+				objectMapper, restClientBuilder, meterRegistry);
+	}
+
+	@Bean
+	@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+	FirstMinuteLatencyFilter firstMinuteLatencyFilter(MeterRegistry meterRegistry, WarmUpProperties properties) {
+		return new FirstMinuteLatencyFilter(meterRegistry, properties.isEnabled(), properties.getObservationWindow());
+	}
+
+	@Bean
+	@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+	FilterRegistrationBean<FirstMinuteLatencyFilter> firstMinuteLatencyFilterRegistration(
+			FirstMinuteLatencyFilter firstMinuteLatencyFilter) {
+		FilterRegistrationBean<FirstMinuteLatencyFilter> registration =
+				new FilterRegistrationBean<>(firstMinuteLatencyFilter);
+		// Outermost, so the time covers every other filter as well
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+
+}
@@ -1,68 +1,357 @@
 package br.com.smms.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import br.com.smms.exceptions.PreconditionFailedException;
+import br.com.smms.exceptions.ResourceNotFoundException;
+import br.com.smms.model.BatchItemResult;
 import br.com.smms.model.Person;
+import br.com.smms.model.PersonChangePage;
+import br.com.smms.model.PersonDeltaPage;
+import br.com.smms.model.PersonPage;
+import br.com.smms.model.PersonWriteStatus;
+import br.com.smms.serialization.JacksonProtobufHttpMessageConverter;
+import br.com.smms.services.PersonBatchService;
+import br.com.smms.services.PersonChangeService;
+import br.com.smms.services.PersonSearchService;
 import br.com.smms.services.PersonService;
+import br.com.smms.services.PersonWriteBehindService;
 
+// Spring MVC stack; ReactivePersonController serves the same paths in the reactive profile.
+// Every representation can be negotiated as JSON, CBOR, Smile or Protobuf; JSON comes first
+// so a client accepting anything gets JSON.
 @RestController
-@RequestMapping("/person")
+@RequestMapping(value = "/person", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+		PersonController.APPLICATION_SMILE_VALUE, JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE })
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PersonController {
 
+	public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+	public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
 	@Autowired
 	private PersonService personService;
+	
+	@Autowired
+	private PersonBatchService personBatchService;
+	
+	@Autowired
+	private PersonWriteBehindService personWriteBehindService;
+	
+	@Autowired
+	private PersonSearchService personSearchService;
+	
+	@Autowired
+	private PersonChangeService personChangeService;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Value("${person.changes.stream-timeout:30m}")
+	private Duration changeStreamTimeout;
 
-	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	@GetMapping
 	@ResponseStatus(code = HttpStatus.OK)
 	public List<Person> findAll() {
 		return personService.findAll();
 	}
 
-	@GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+	@GetMapping(params = { "limit", "!modifiedSince" })
 	@ResponseStatus(code = HttpStatus.OK)
-	public ResponseEntity<Person> findById(@PathVariable("id") Long id) {
-		try {
-			return ResponseEntity.ok(personService.findById(id));
-		} catch (Exception e) {
-			return ResponseEntity.notFound().build();
+	public PersonPage findPage(@RequestParam(value = "after", required = false) Long after,
+			@RequestParam("limit") int limit) {
+		return personService.findPage(after, limit);
+	}
+
+	// Delta sync: only what changed since the client's last sync, deletions included; a first
+	// sync starts from modifiedSince=1970-01-01T00:00:00Z
+	@GetMapping(params = "modifiedSince")
+	@ResponseStatus(code = HttpStatus.OK)
+	public PersonDeltaPage findModifiedSince(@RequestParam("modifiedSince") Instant modifiedSince,
+			@RequestParam(value = "after", required = false) Long after,
+			@RequestParam(value = "limit", defaultValue = "100") int limit) {
+		return personService.findModifiedSince(modifiedSince, after, limit);
+	}
+
+	@GetMapping(value = "/search")
+	@ResponseStatus(code = HttpStatus.OK)
+	public PagedModel<Person> search(@RequestParam("lastName") String lastName,
+			@RequestParam(value = "firstName", required = false) String firstName,
+			@RequestParam(value = "page", defaultValue = "0") int page,
+			@RequestParam(value = "size", defaultValue = "20") int size) {
+		return new PagedModel<>(personService.search(lastName, firstName, page, size));
+	}
+
+	// Any part of the names, address or e-mail, as a prefix or (fuzzy) misspelled; best match first
+	@GetMapping(value = "/search/text")
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<Person> searchText(@RequestParam("q") String query,
+			@RequestParam(value = "limit", defaultValue = "20") int limit,
+			@RequestParam(value = "fuzzy", defaultValue = "true") boolean fuzzy) {
+		return personSearchService.search(query, limit, fuzzy);
+	}
+
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAll() {
+		// Let the servlet buffer decide when to flush instead of flushing on every row
+		ObjectWriter writer = objectMapper.writerFor(Person.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		StreamingResponseBody body = outputStream -> {
+			try (JsonGenerator generator = objectMapper.createGenerator(outputStream)
+					.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+				generator.setRootValueSeparator(null);
+				personService.streamAll(person -> {
+					try {
+						writer.writeValue(generator, person);
+						generator.writeRaw('\n');
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.body(body);
+	}
+
+	// Changes after the since sequence, oldest first; nextSince is the since of the next call.
+	// Prefer: wait=<seconds> holds the request until a change arrives or the wait is over.
+	@GetMapping(value = "/changes")
+	@ResponseStatus(code = HttpStatus.OK)
+	public CompletableFuture<PersonChangePage> findChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+			@RequestParam(value = "limit", defaultValue = "100") int limit,
+			@RequestHeader(value = "Prefer", required = false) String prefer) {
+		Duration wait = preferredWait(prefer);
+		if (wait.isZero()) {
+			return CompletableFuture.completedFuture(personChangeService.findSince(since, limit));
 		}
+		return personChangeService.awaitSince(since, limit, wait);
+	}
 
+	// One event per change with the sequence as its id, so a reconnecting EventSource resumes
+	// from Last-Event-ID by itself
+	@GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+			@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+		SseEmitter emitter = new SseEmitter(changeStreamTimeout.toMillis());
+		Future<?> following = personChangeService.follow(lastEventId != null ? lastEventId : since, change -> {
+			try {
+				emitter.send(SseEmitter.event()
+						.id(String.valueOf(change.getSequence()))
+						.name(change.getType().name())
+						.data(change, MediaType.APPLICATION_JSON));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		Runnable stop = () -> following.cancel(true);
+		emitter.onCompletion(stop);
+		emitter.onTimeout(stop);
+		emitter.onError(e -> stop.run());
+		return emitter;
 	}
 
-	@PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+	@GetMapping(value = "/{id}")
+	@ResponseStatus(code = HttpStatus.OK)
+	public ResponseEntity<Person> findById(@PathVariable("id") Long id) {
+		// A matching If-None-Match turns this into a 304 before the body is written
+		return personService.findById(id)
+				.map(person -> ResponseEntity.ok().eTag(eTag(person)).body(person))
+				.orElseGet(() -> ResponseEntity.notFound().build());
+	}
+
+	// Prefer: respond-async queues the person for the write-behind worker instead of waiting on the INSERT.
+	// It is only a preference: with write-behind disabled the person is created right away
+	@PostMapping(consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+			APPLICATION_SMILE_VALUE, JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE })
 	@ResponseStatus(code = HttpStatus.CREATED)
-	public Person create(@RequestBody Person person) {
-		return personService.create(person);
+	public ResponseEntity<?> create(@RequestBody Person person,
+			@RequestHeader(value = "Prefer", required = false) String prefer) {
+		if (!prefersRespondAsync(prefer) || !personWriteBehindService.isEnabled()) {
+			return ResponseEntity.status(HttpStatus.CREATED).body(personService.create(person));
+		}
+		PersonWriteStatus status = personWriteBehindService.submit(person);
+		return ResponseEntity.accepted()
+				.location(ServletUriComponentsBuilder.fromCurrentRequest()
+						.path("/requests/{trackingId}").buildAndExpand(status.getTrackingId()).toUri())
+				.body(status);
+	}
+
+	@GetMapping(value = "/requests/{trackingId}")
+	@ResponseStatus(code = HttpStatus.OK)
+	public ResponseEntity<PersonWriteStatus> findWriteStatus(@PathVariable("trackingId") String trackingId) {
+		return ResponseEntity.of(personWriteBehindService.findStatus(trackingId));
 	}
 
-	@PutMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+	@PutMapping(consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+			APPLICATION_SMILE_VALUE, JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE })
 	@ResponseStatus(code = HttpStatus.OK)
-	public ResponseEntity<Person> update(@RequestBody Person person) {
+	public ResponseEntity<Person> update(@RequestBody Person person,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 		try {
-			return ResponseEntity.ok(personService.update(person));
-		} catch (Exception e) {
+			// Only If-Match asks for a version check, a version sent in the body is ignored
+			person.setVersion(version(ifMatch));
+			Person updated = personService.update(person);
+			return ResponseEntity.ok().eTag(eTag(updated)).body(updated);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().build();
+		} catch (PreconditionFailedException | OptimisticLockingFailureException e) {
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+		} catch (ResourceNotFoundException e) {
 			return ResponseEntity.notFound().build();
 		}
 	}
 
+	@PatchMapping(value = "/{id}", consumes = MERGE_PATCH_JSON_VALUE)
+	@ResponseStatus(code = HttpStatus.NO_CONTENT)
+	public ResponseEntity<Void> patch(@PathVariable("id") Long id, @RequestBody Map<String, Object> changes,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		Long expectedVersion = version(ifMatch);
+		try {
+			personService.patch(id, changes, expectedVersion);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().build();
+		} catch (PreconditionFailedException | OptimisticLockingFailureException e) {
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+		} catch (ResourceNotFoundException e) {
+			return ResponseEntity.notFound().build();
+		}
+		// The new version is only known without a read when the old one was given
+		return expectedVersion == null ? ResponseEntity.noContent().build()
+				: ResponseEntity.noContent().eTag("\"" + (expectedVersion + 1) + "\"").build();
+	}
+
 	@DeleteMapping(value = "/{id}")
 	@ResponseStatus(code = HttpStatus.NO_CONTENT)
-	public void delete(@PathVariable("id") Long id) {
-		personService.delete(id);
+	public void delete(@PathVariable("id") Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		personService.delete(id, version(ifMatch));
+	}
+
+	@PostMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+			APPLICATION_SMILE_VALUE, JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE })
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<BatchItemResult> createBatch(@RequestBody List<Person> people) {
+		return personBatchService.createAll(people.iterator());
+	}
+
+	@PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<BatchItemResult> createBatchStream(InputStream body) throws IOException {
+		return personBatchService.createAll(objectMapper.readerFor(Person.class).readValues(body));
+	}
+
+	@PutMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+			APPLICATION_SMILE_VALUE, JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE })
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<BatchItemResult> updateBatch(@RequestBody List<Person> people) {
+		return personBatchService.updateAll(people.iterator());
+	}
+
+	@PutMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<BatchItemResult> updateBatchStream(InputStream body) throws IOException {
+		return personBatchService.updateAll(objectMapper.readerFor(Person.class).readValues(body));
+	}
+
+	@DeleteMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+			APPLICATION_SMILE_VALUE, JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE })
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<BatchItemResult> deleteBatch(@RequestBody List<Long> ids) {
+		return personBatchService.deleteAll(ids.iterator());
+	}
+
+	@DeleteMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	@ResponseStatus(code = HttpStatus.OK)
+	public List<BatchItemResult> deleteBatchStream(InputStream body) throws IOException {
+		return personBatchService.deleteAll(objectMapper.readerFor(Long.class).readValues(body));
+	}
+
+	// Prefer is a list (RFC 7240): respond-async may come with others, such as wait=5
+	static boolean prefersRespondAsync(String prefer) {
+		if (prefer != null) {
+			for (String preference : prefer.split(",")) {
+				if (preference.split("[=;]", 2)[0].trim().equalsIgnoreCase("respond-async")) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	static Duration preferredWait(String prefer) {
+		if (prefer != null) {
+			for (String preference : prefer.split(",")) {
+				String[] pair = preference.trim().split("=", 2);
+				if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("wait")) {
+					try {
+						return Duration.ofSeconds(Math.max(Long.parseLong(pair[1].trim()), 0));
+					} catch (NumberFormatException e) {
+						// ignored like any preference the server does not understand
+					}
+				}
+			}
+		}
+		return Duration.ZERO;
+	}
+
+	static String eTag(Person person) {
+		return person == null || person.getVersion() == null ? null : "\"" + person.getVersion() + "\"";
+	}
+
+	// Strong comparison only: weak or unparseable tags never match an existing version
+	static Long version(String ifMatch) {
+		if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+			return null;
+		}
+		String tag = ifMatch.trim();
+		if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+			try {
+				return Long.valueOf(tag.substring(1, tag.length() - 1));
+			} catch (NumberFormatException e) {
+				// fall through
+			}
+		}
+		return -1L;
 	}
 
 }
@@ -0,0 +1,137 @@
+package br.com.smms.controllers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.com.smms.exceptions.PreconditionFailedException;
+import br.com.smms.exceptions.ResourceNotFoundException;
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonDeltaPage;
+import br.com.smms.model.PersonPage;
+import br.com.smms.services.ReactivePersonService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// WebFlux version of PersonController for the reactive profile, same paths and status codes.
+// The batch and write-behind endpoints stay on the servlet stack.
+@RestController
+@RequestMapping("/person")
+@Profile("reactive")
+public class ReactivePersonController {
+
+	@Autowired
+	private ReactivePersonService personService;
+
+	// As application/x-ndjson one line per person, written as the client reads: a slow client
+	// slows the database reads down through the demand it signals instead of the table being
+	// buffered in memory
+	@GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public Flux<Person> findAll() {
+		return personService.findAll();
+	}
+
+	@GetMapping(params = { "limit", "!modifiedSince" }, produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<PersonPage> findPage(@RequestParam(value = "after", required = false) Long after,
+			@RequestParam("limit") int limit) {
+		return personService.findPage(after, limit);
+	}
+
+	@GetMapping(params = "modifiedSince", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<PersonDeltaPage> findModifiedSince(@RequestParam("modifiedSince") Instant modifiedSince,
+			@RequestParam(value = "after", required = false) Long after,
+			@RequestParam(value = "limit", defaultValue = "100") int limit) {
+		return personService.findModifiedSince(modifiedSince, after, limit);
+	}
+
+	@GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<PagedModel<Person>> search(@RequestParam("lastName") String lastName,
+			@RequestParam(value = "firstName", required = false) String firstName,
+			@RequestParam(value = "page", defaultValue = "0") int page,
+			@RequestParam(value = "size", defaultValue = "20") int size) {
+		return personService.search(lastName, firstName, page, size).map(PagedModel::new);
+	}
+
+	@GetMapping(value = "/search/text", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<List<Person>> searchText(@RequestParam("q") String query,
+			@RequestParam(value = "limit", defaultValue = "20") int limit,
+			@RequestParam(value = "fuzzy", defaultValue = "true") boolean fuzzy) {
+		return personService.searchText(query, limit, fuzzy);
+	}
+
+	@GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<Person>> findById(@PathVariable("id") Long id) {
+		return personService.findById(id)
+				.map(person -> ResponseEntity.ok().eTag(PersonController.eTag(person)).body(person))
+				.defaultIfEmpty(ResponseEntity.notFound().build());
+	}
+
+	@PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseStatus(code = HttpStatus.CREATED)
+	public Mono<Person> create(@RequestBody Person person) {
+		return personService.create(person);
+	}
+
+	@PutMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<Person>> update(@RequestBody Person person,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		// Only If-Match asks for a version check, a version sent in the body is ignored
+		person.setVersion(PersonController.version(ifMatch));
+		return personService.update(person)
+				.map(updated -> ResponseEntity.ok().eTag(PersonController.eTag(updated)).body(updated))
+				.onErrorResume(e -> Mono.just(ResponseEntity.status(failureStatus(e)).build()));
+	}
+
+	@PatchMapping(value = "/{id}", consumes = PersonController.MERGE_PATCH_JSON_VALUE)
+	public Mono<ResponseEntity<Void>> patch(@PathVariable("id") Long id, @RequestBody Map<String, Object> changes,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		Long expectedVersion = PersonController.version(ifMatch);
+		// The new version is only known without a read when the old one was given
+		ResponseEntity<Void> noContent = expectedVersion == null ? ResponseEntity.noContent().build()
+				: ResponseEntity.noContent().eTag("\"" + (expectedVersion + 1) + "\"").build();
+		return personService.patch(id, changes, expectedVersion)
+				.thenReturn(noContent)
+				.onErrorResume(e -> Mono.just(ResponseEntity.status(failureStatus(e)).build()));
+	}
+
+	@DeleteMapping(value = "/{id}")
+	@ResponseStatus(code = HttpStatus.NO_CONTENT)
+	public Mono<Void> delete(@PathVariable("id") Long id,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return personService.delete(id, PersonController.version(ifMatch));
+	}
+
+	private static HttpStatus failureStatus(Throwable e) {
+		if (e instanceof IllegalArgumentException) {
+			return HttpStatus.BAD_REQUEST;
+		}
+		if (e instanceof PreconditionFailedException || e instanceof OptimisticLockingFailureException) {
+			return HttpStatus.PRECONDITION_FAILED;
+		}
+		if (e instanceof ResourceNotFoundException) {
+			return HttpStatus.NOT_FOUND;
+		}
+		throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+	}
+}
@@ -0,0 +1,53 @@
+package br.com.smms.datasource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// A client that wrote through this instance reads from the primary for the stickiness
+// window, so it sees its own create/update even while the replicas lag behind.
+// Clients are told apart by the X-Client-Id header, or by address when it is missing.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	public static final String CLIENT_HEADER = "X-Client-Id";
+
+	private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+	private final Cache<String, Boolean> recentWriters;
+
+	public ReadYourWritesFilter(Duration stickiness) {
+		this.recentWriters = Caffeine.newBuilder()
+				.expireAfterWrite(stickiness)
+				.maximumSize(100_000)
+				.build();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String client = request.getHeader(CLIENT_HEADER) != null ? request.getHeader(CLIENT_HEADER)
+				: request.getRemoteAddr();
+		boolean write = !SAFE_METHODS.contains(request.getMethod());
+		if (write || recentWriters.getIfPresent(client) != null) {
+			ReplicaRoutingDataSource.forcePrimaryOnly();
+		}
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ReplicaRoutingDataSource.clearPrimaryOnly();
+			if (write && response.getStatus() < 400) {
+				recentWriters.put(client, Boolean.TRUE);
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package br.com.smms.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("person.datasource")
+public class ReplicaProperties {
+
+	private List<Replica> replicas = new ArrayList<>();
+	private ReplicaRoutingDataSource.Selection selection = ReplicaRoutingDataSource.Selection.ROUND_ROBIN;
+	private Duration stickiness = Duration.ofSeconds(5);
+	private Duration failoverBackoff = Duration.ofSeconds(30);
+	private Duration probeInterval = Duration.ofSeconds(5);
+
+	public List<Replica> getReplicas() {
+		return replicas;
+	}
+
+	public void setReplicas(List<Replica> replicas) {
+		this.replicas = replicas;
+	}
+
+	public ReplicaRoutingDataSource.Selection getSelection() {
+		return selection;
+	}
+
+	public void setSelection(ReplicaRoutingDataSource.Selection selection) {
+		this.selection = selection;
+	}
+
+	public Duration getStickiness() {
+		return stickiness;
+	}
+
+	public void setStickiness(Duration stickiness) {
+		this.stickiness = stickiness;
+	}
+
+	public Duration getFailoverBackoff() {
+		return failoverBackoff;
+	}
+
+	public void setFailoverBackoff(Duration failoverBackoff) {
+		this.failoverBackoff = failoverBackoff;
+	}
+
+	public Duration getProbeInterval() {
+		return probeInterval;
+	}
+
+	public void setProbeInterval(Duration probeInterval) {
+		this.probeInterval = probeInterval;
+	}
+
+	public static class Replica {
+
+		private String url;
+		private String username;
+		private String password;
+
+		public String getUrl() {
+			return url;
+		}
+
+		public void setUrl(String url) {
+			this.url = url;
+		}
+
+		public String getUsername() {
+			return username;
+		}
+
+		public void setUsername(String username) {
+			this.username = username;
+		}
+
+		public String getPassword() {
+			return password;
+		}
+
+		public void setPassword(String password) {
+			this.password = password;
+		}
+	}
+}
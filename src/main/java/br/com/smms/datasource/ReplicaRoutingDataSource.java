@@ -0,0 +1,182 @@
+package br.com.smms.datasource;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+// Read-only DataSource of a LazyConnectionDataSourceProxy: connections of read-only transactions
+// come from here and are spread over the replicas, everything else uses the primary. A replica
+// that fails to connect or to answer the periodic probe is skipped for the failover backoff;
+// with no replica left (or a read-your-writes client) the primary serves the read.
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+	public enum Selection { ROUND_ROBIN, LEAST_LATENCY }
+
+	private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+	private Logger logger = Logger.getLogger(ReplicaRoutingDataSource.class.getName());
+
+	private final DataSource primary;
+	private final List<Replica> replicas = new ArrayList<>();
+	private final Selection selection;
+	private final long backoffNanos;
+	private final AtomicInteger next = new AtomicInteger();
+	private final ScheduledExecutorService prober;
+
+	public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Selection selection,
+			Duration failoverBackoff, Duration probeInterval) {
+		this.primary = primary;
+		for (int i = 0; i < replicas.size(); i++) {
+			this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+		}
+		this.selection = selection;
+		this.backoffNanos = failoverBackoff.toNanos();
+		this.prober = Executors.newSingleThreadScheduledExecutor(
+				Thread.ofPlatform().name("replica-probe").daemon().factory());
+		if (!probeInterval.isZero()) {
+			this.prober.scheduleWithFixedDelay(this::probe, 0, probeInterval.toMillis(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	// Read-your-writes: pins the current thread to the primary until clearPrimaryOnly()
+	public static void forcePrimaryOnly() {
+		PRIMARY_ONLY.set(Boolean.TRUE);
+	}
+
+	public static void clearPrimaryOnly() {
+		PRIMARY_ONLY.remove();
+	}
+
+	public static boolean isPrimaryOnly() {
+		return PRIMARY_ONLY.get() != null;
+	}
+
+	// Runs read on the primary, leaving the thread as pinned as it was before
+	public static <T> T onPrimary(Supplier<T> read) {
+		if (isPrimaryOnly()) {
+			return read.get();
+		}
+		forcePrimaryOnly();
+		try {
+			return read.get();
+		} finally {
+			clearPrimaryOnly();
+		}
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (PRIMARY_ONLY.get() != null) {
+			return primary.getConnection();
+		}
+		long now = System.nanoTime();
+		for (Replica replica : candidates(now)) {
+			try {
+				return replica.dataSource.getConnection();
+			} catch (SQLException e) {
+				replica.markDown(System.nanoTime() + backoffNanos);
+				logger.warning(replica.name + " unavailable, failing over: " + e.getMessage());
+			}
+		}
+		return primary.getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return primary.getConnection(username, password);
+	}
+
+	// The primary belongs to the caller
+	@Override
+	public void close() {
+		prober.shutdownNow();
+		replicas.forEach(replica -> closeQuietly(replica.dataSource));
+	}
+
+	void probe() {
+		for (Replica replica : replicas) {
+			long start = System.nanoTime();
+			try (Connection connection = replica.dataSource.getConnection()) {
+				if (!connection.isValid(1)) {
+					throw new SQLException("Connection is not valid");
+				}
+				replica.recordLatency(System.nanoTime() - start);
+			} catch (SQLException e) {
+				replica.markDown(System.nanoTime() + backoffNanos);
+			}
+		}
+	}
+
+	private List<Replica> candidates(long now) {
+		List<Replica> available = new ArrayList<>(replicas.size());
+		for (Replica replica : replicas) {
+			if (replica.isAvailable(now)) {
+				available.add(replica);
+			}
+		}
+		if (available.size() < 2) {
+			return available;
+		}
+		if (selection == Selection.LEAST_LATENCY) {
+			available.sort(Comparator.comparingLong(replica -> replica.latencyNanos));
+			return available;
+		}
+		// Rotate so the others remain as failover candidates in order
+		int start = Math.floorMod(next.getAndIncrement(), available.size());
+		List<Replica> rotated = new ArrayList<>(available.size());
+		rotated.addAll(available.subList(start, available.size()));
+		rotated.addAll(available.subList(0, start));
+		return rotated;
+	}
+
+	private static void closeQuietly(DataSource dataSource) {
+		if (dataSource instanceof AutoCloseable closeable) {
+			try {
+				closeable.close();
+			} catch (Exception e) {
+				// shutting down anyway
+			}
+		}
+	}
+
+	private static final class Replica {
+
+		private final String name;
+		private final DataSource dataSource;
+		private volatile long downUntil;
+		private volatile long latencyNanos;
+
+		private Replica(String name, DataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+
+		private boolean isAvailable(long now) {
+			return downUntil == 0 || now - downUntil >= 0;
+		}
+
+		private void markDown(long until) {
+			downUntil = until;
+		}
+
+		// Exponentially weighted so one slow probe does not flip the order
+		private void recordLatency(long nanos) {
+			downUntil = 0;
+			latencyNanos = latencyNanos == 0 ? nanos : (latencyNanos * 7 + nanos) / 8;
+		}
+	}
+}
@@ -3,12 +3,17 @@ package br.com.smms.exceptions;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class ExceptionResponse implements Serializable {
 
 	private static final long serialVersionUID = 3637455825837838560L;
 
+	@JsonProperty(index = 1)
 	private LocalDateTime localDateTime;
+	@JsonProperty(index = 2)
 	private String message;
+	@JsonProperty(index = 3)
 	private String details;
 	
 	public ExceptionResponse(LocalDateTime localDateTime, String message, String details) {
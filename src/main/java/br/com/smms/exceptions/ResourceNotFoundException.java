@@ -8,8 +8,9 @@ public class ResourceNotFoundException extends RuntimeException {
 	
 	private static final long serialVersionUID = 1L;
 
+	// A miss is an expected outcome, not a bug: skip the stack trace capture
 	public ResourceNotFoundException(String message) {
-		super(message);
+		super(message, null, false, false);
 	}
 
 }
@@ -2,6 +2,11 @@ package br.com.smms.handler;
 
 import java.time.LocalDateTime;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -10,24 +15,57 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
+import br.com.smms.config.MetricsConfig;
 import br.com.smms.exceptions.ExceptionResponse;
+import br.com.smms.exceptions.NotImplementedException;
+import br.com.smms.exceptions.PreconditionFailedException;
 import br.com.smms.exceptions.ResourceNotFoundException;
+import br.com.smms.exceptions.TooManyRequestsException;
 
 @RestController
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomizedResponseEntityExceptionHandler extends ResponseEntityExceptionHandler {
 
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+
 	@ExceptionHandler(Exception.class)
 	public final ResponseEntity<ExceptionResponse> handleAllExceptions(Exception ex, WebRequest request) {
-		ExceptionResponse exceptionResponse = new ExceptionResponse(LocalDateTime.now(),
-				ex.getMessage(), request.getDescription(false));
-		return new ResponseEntity<>(exceptionResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+		return exceptionResponse(ex, request, HttpStatus.INTERNAL_SERVER_ERROR);
 	}
 	
 	@ExceptionHandler(ResourceNotFoundException .class)
 	public final ResponseEntity<ExceptionResponse> handleNotFoundExceptions(Exception ex, WebRequest request) {
+		return exceptionResponse(ex, request, HttpStatus.NOT_FOUND);
+	}
+	
+	@ExceptionHandler({ PreconditionFailedException.class, OptimisticLockingFailureException.class })
+	public final ResponseEntity<ExceptionResponse> handlePreconditionFailedExceptions(Exception ex, WebRequest request) {
+		return exceptionResponse(ex, request, HttpStatus.PRECONDITION_FAILED);
+	}
+	
+	@ExceptionHandler(NotImplementedException.class)
+	public final ResponseEntity<ExceptionResponse> handleNotImplementedExceptions(Exception ex, WebRequest request) {
+		return exceptionResponse(ex, request, HttpStatus.NOT_IMPLEMENTED);
+	}
+	
+	@ExceptionHandler(TooManyRequestsException.class)
+	public final ResponseEntity<ExceptionResponse> handleTooManyRequestsExceptions(Exception ex, WebRequest request) {
+		ResponseEntity<ExceptionResponse> response = exceptionResponse(ex, request, HttpStatus.TOO_MANY_REQUESTS);
+		return ResponseEntity.status(response.getStatusCode())
+				.header(HttpHeaders.RETRY_AFTER, "1")
+				.body(response.getBody());
+	}
+	
+	private ResponseEntity<ExceptionResponse> exceptionResponse(Exception ex, WebRequest request, HttpStatus status) {
+		meterRegistry.ifAvailable(registry -> registry.counter(MetricsConfig.EXCEPTION_COUNTER,
+				"exception", ex.getClass().getSimpleName(),
+				"status", String.valueOf(status.value())).increment());
 		ExceptionResponse exceptionResponse = new ExceptionResponse(LocalDateTime.now(),
 				ex.getMessage(), request.getDescription(false));
-		return new ResponseEntity<>(exceptionResponse, HttpStatus.NOT_FOUND);
+		return new ResponseEntity<>(exceptionResponse, status);
 	}
 }
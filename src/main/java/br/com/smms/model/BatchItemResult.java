@@ -0,0 +1,45 @@
+package br.com.smms.model;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BatchItemResult implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@JsonProperty(index = 1)
+	private int index;
+	@JsonProperty(index = 2)
+	private Long id;
+	@JsonProperty(index = 3)
+	private int status;
+	@JsonProperty(index = 4)
+	private String message;
+
+	public BatchItemResult() {}
+
+	public BatchItemResult(int index, Long id, int status, String message) {
+		this.index = index;
+		this.id = id;
+		this.status = status;
+		this.message = message;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+}
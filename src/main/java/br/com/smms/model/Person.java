@@ -1,40 +1,88 @@
 package br.com.smms.model;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Objects;
 
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import br.com.smms.sharding.PersonIdSequence;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
+// Deleting keeps the row as a tombstone (active NULL) for delta sync, hidden from every
+// entity load and JPQL query; native queries have to filter it themselves
 @Entity
-@Table(name = "person")
+@Table(name = "person", indexes = {
+		@Index(name = Person.EMAIL_UNIQUE_INDEX, columnList = "email, active", unique = true),
+		@Index(name = Person.NAME_INDEX, columnList = "last_name, first_name"),
+		@Index(name = Person.UPDATED_AT_INDEX, columnList = "updated_at, id")
+})
+@SQLDelete(sql = "UPDATE person SET active = NULL, version = version + 1 WHERE id = ? AND version = ?")
+@SQLRestriction("active = TRUE")
 public class Person implements Serializable {
 
 	private static final long serialVersionUID = 1L;
-
+	
+	public static final String EMAIL_UNIQUE_INDEX = "uk_person_email";
+	public static final String NAME_INDEX = "idx_person_last_first";
+	public static final String UPDATED_AT_INDEX = "idx_person_updated_at";
+
+	// A pooled sequence (a table on MySQL) hands out ids in blocks of 50, which keeps
+	// Hibernate JDBC insert batching enabled; IDENTITY would force one INSERT per row.
+	// With sharding the id is a snowflake id carrying the shard instead (see PersonIdGenerator)
+	@JsonProperty(index = 1)
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@PersonIdSequence(name = "person_seq", allocationSize = 50)
 	private Long id;
 	
+	@JsonProperty(index = 2)
 	@Column(name = "first_name", nullable = false, length = 80)
 	private String firstName;
 	
+	@JsonProperty(index = 3)
 	@Column(name = "last_name",  nullable = false, length = 80)
 	private String lastName;
 	
+	@JsonProperty(index = 4)
 	@Column(nullable = false, length = 100)
 	private String address;
 	
+	@JsonProperty(index = 5)
 	@Column(nullable = false, length = 6)
 	private String gender;
 	
+	@JsonProperty(index = 6)
 	@Column(nullable = false, length = 100)
 	private String email;
 	
+	// Incremented on every update; exposed as the strong ETag of /person/{id}
+	@JsonProperty(index = 7)
+	@Version
+	@Column(nullable = false)
+	private Long version;
+	
+	// Set by the database on insert and on every update, tombstoning included, so bulk
+	// statements and other writers move it too; not read back after a write
+	@JsonIgnore
+	@Column(name = "updated_at", nullable = false, insertable = false, updatable = false,
+			columnDefinition = "timestamp(6) default current_timestamp(6) on update current_timestamp(6) not null")
+	private Instant updatedAt;
+	
+	// TRUE while the person exists and NULL once deleted rather than FALSE: NULLs never collide
+	// in the unique (email, active) index, so a deleted e-mail can be used again
+	@JsonIgnore
+	@Column(columnDefinition = "boolean default true")
+	private Boolean active = Boolean.TRUE;
+	
 	public Person() {}
 	
 	public Person(Long id, String firstName, String lastName, String address, String gender, String email) {
@@ -103,6 +151,27 @@ public class Person implements Serializable {
 		this.email = email;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Instant updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	@JsonIgnore
+	public boolean isDeleted() {
+		return active == null;
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(id);
@@ -0,0 +1,146 @@
+package br.com.smms.model;
+
+import java.io.Serializable;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// One row of the person_change outbox, written in the transaction of the change it records.
+// Sequences follow commit order. A patch only carries the fields it sent (the others are
+// null and unchanged) and its version only when If-Match gave the previous one; a delete
+// carries no fields.
+@Entity
+@Table(name = "person_change")
+public class PersonChange implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	// Protobuf sends the ordinal: add new types at the end only
+	public enum Type { CREATED, UPDATED, DELETED }
+
+	@JsonProperty(index = 1)
+	@Id
+	private Long sequence;
+
+	@JsonProperty(index = 2)
+	@Column(name = "person_id", nullable = false)
+	private Long personId;
+
+	@JsonProperty(index = 3)
+	@Enumerated(EnumType.STRING)
+	@JdbcTypeCode(SqlTypes.VARCHAR)
+	@Column(nullable = false, length = 7)
+	private Type type;
+
+	@JsonProperty(index = 4)
+	private Long version;
+
+	@JsonProperty(index = 5)
+	@Column(name = "first_name", length = 80)
+	private String firstName;
+
+	@JsonProperty(index = 6)
+	@Column(name = "last_name", length = 80)
+	private String lastName;
+
+	@JsonProperty(index = 7)
+	@Column(length = 100)
+	private String address;
+
+	@JsonProperty(index = 8)
+	@Column(length = 6)
+	private String gender;
+
+	@JsonProperty(index = 9)
+	@Column(length = 100)
+	private String email;
+
+	public PersonChange() {}
+
+	public PersonChange(Type type, Long personId, Long version) {
+		this.type = type;
+		this.personId = personId;
+		this.version = version;
+	}
+
+	public Long getSequence() {
+		return sequence;
+	}
+
+	public void setSequence(Long sequence) {
+		this.sequence = sequence;
+	}
+
+	public Long getPersonId() {
+		return personId;
+	}
+
+	public void setPersonId(Long personId) {
+		this.personId = personId;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public void setFirstName(String firstName) {
+		this.firstName = firstName;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public void setLastName(String lastName) {
+		this.lastName = lastName;
+	}
+
+	public String getAddress() {
+		return address;
+	}
+
+	public void setAddress(String address) {
+		this.address = address;
+	}
+
+	public String getGender() {
+		return gender;
+	}
+
+	public void setGender(String gender) {
+		this.gender = gender;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public void setEmail(String email) {
+		this.email = email;
+	}
+}
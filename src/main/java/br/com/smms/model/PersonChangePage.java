@@ -0,0 +1,32 @@
+package br.com.smms.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class PersonChangePage implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@JsonProperty(index = 1)
+	private List<PersonChange> changes;
+	@JsonProperty(index = 2)
+	private Long nextSince;
+
+	public PersonChangePage() {}
+
+	public PersonChangePage(List<PersonChange> changes, Long nextSince) {
+		this.changes = changes;
+		this.nextSince = nextSince;
+	}
+
+	public List<PersonChange> getChanges() {
+		return changes;
+	}
+
+	public Long getNextSince() {
+		return nextSince;
+	}
+
+}
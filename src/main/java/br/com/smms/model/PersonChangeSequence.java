@@ -0,0 +1,29 @@
+package br.com.smms.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Single row holding the last sequence handed to person_change. Incrementing it is the last
+// statement of a writing transaction, so its row lock orders the sequences by commit.
+@Entity
+@Table(name = "person_change_seq")
+public class PersonChangeSequence {
+
+	public static final int ROW_ID = 1;
+
+	@Id
+	private Integer id;
+
+	@Column(name = "last_sequence", nullable = false)
+	private Long lastSequence;
+
+	public Integer getId() {
+		return id;
+	}
+
+	public Long getLastSequence() {
+		return lastSequence;
+	}
+}
@@ -0,0 +1,58 @@
+package br.com.smms.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// One page of GET /person?modifiedSince=: people created or updated and ids deleted since the
+// cursor. The client sends nextModifiedSince and nextAfter back, right away while more is true
+// and on its next sync otherwise.
+public class PersonDeltaPage implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@JsonProperty(index = 1)
+	private List<Person> changed;
+	@JsonProperty(index = 2)
+	private List<Long> deleted;
+	@JsonProperty(index = 3)
+	private Instant nextModifiedSince;
+	@JsonProperty(index = 4)
+	private Long nextAfter;
+	@JsonProperty(index = 5)
+	private boolean more;
+
+	public PersonDeltaPage() {}
+
+	public PersonDeltaPage(List<Person> changed, List<Long> deleted, Instant nextModifiedSince, Long nextAfter,
+			boolean more) {
+		this.changed = changed;
+		this.deleted = deleted;
+		this.nextModifiedSince = nextModifiedSince;
+		this.nextAfter = nextAfter;
+		this.more = more;
+	}
+
+	public List<Person> getChanged() {
+		return changed;
+	}
+
+	public List<Long> getDeleted() {
+		return deleted;
+	}
+
+	public Instant getNextModifiedSince() {
+		return nextModifiedSince;
+	}
+
+	public Long getNextAfter() {
+		return nextAfter;
+	}
+
+	public boolean isMore() {
+		return more;
+	}
+
+}
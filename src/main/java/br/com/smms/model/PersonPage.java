@@ -0,0 +1,32 @@
+package br.com.smms.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class PersonPage implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@JsonProperty(index = 1)
+	private List<Person> content;
+	@JsonProperty(index = 2)
+	private Long nextCursor;
+
+	public PersonPage() {}
+
+	public PersonPage(List<Person> content, Long nextCursor) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<Person> getContent() {
+		return content;
+	}
+
+	public Long getNextCursor() {
+		return nextCursor;
+	}
+
+}
@@ -0,0 +1,55 @@
+package br.com.smms.model;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class PersonWriteStatus implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	// Sent as its ordinal in protobuf, so new states go last
+	public enum State { PENDING, DONE, FAILED }
+
+	@JsonProperty(index = 1)
+	private String trackingId;
+	@JsonProperty(index = 2)
+	private State state;
+	@JsonProperty(index = 3)
+	private Long id;
+	@JsonProperty(index = 4)
+	private int status;
+	@JsonProperty(index = 5)
+	private String message;
+
+	public PersonWriteStatus() {}
+
+	public PersonWriteStatus(String trackingId, State state, Long id, int status, String message) {
+		this.trackingId = trackingId;
+		this.state = state;
+		this.id = id;
+		this.status = status;
+		this.message = message;
+	}
+
+	public String getTrackingId() {
+		return trackingId;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+}
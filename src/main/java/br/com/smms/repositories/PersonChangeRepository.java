@@ -0,0 +1,21 @@
+package br.com.smms.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import br.com.smms.model.PersonChange;
+
+@Repository
+public interface PersonChangeRepository extends JpaRepository<PersonChange, Long> {
+
+	// Primary key range scan: WHERE sequence > ?1 ORDER BY sequence LIMIT ?2
+	List<PersonChange> findBySequenceGreaterThanOrderBySequenceAsc(Long sequence, Limit limit);
+
+	// Read from the end of the primary key; 0 while the outbox is empty
+	@Query("SELECT COALESCE(MAX(c.sequence), 0) FROM PersonChange c")
+	long findLastSequence();
+}
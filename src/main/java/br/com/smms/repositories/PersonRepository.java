@@ -1,32 +1,74 @@
 package br.com.smms.repositories;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import br.com.smms.model.Person;
 
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
+public interface PersonRepository extends JpaRepository<Person, Long>, PersonRepositoryCustom {
 
 	Optional<Person> findByEmail(String email);
 
+	List<Person> findByEmailIn(Collection<String> emails);
+
+	@Query("SELECT p.id FROM Person p WHERE p.id IN :ids")
+	List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+	// Prefix search served by idx_person_last_first: last_name LIKE 'x%' AND first_name LIKE 'y%'
+	Page<Person> findByLastNameStartingWithAndFirstNameStartingWith(String lastName, String firstName, Pageable pageable);
+
+	@Query("SELECT p.email FROM Person p")
+	Stream<String> streamAllEmails();
+
+	// Keyset (seek) pagination on the primary key: WHERE id > ?1 ORDER BY id LIMIT ?2
+	List<Person> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+	// Delta sync keyset on (updated_at, id), tombstones included: a range scan of
+	// idx_person_updated_at from (since, after) on. Native, as JPQL always hides tombstones
+	@Query(value = "SELECT * FROM person p WHERE p.updated_at >= :since AND (p.updated_at > :since OR p.id > :after) "
+			+ "ORDER BY p.updated_at, p.id", nativeQuery = true)
+	List<Person> findModifiedSince(@Param("since") Instant since, @Param("after") Long after, Limit limit);
+
+	// Batch counterpart of the entity delete (@SQLDelete on Person): the rows stay as tombstones
+	@Modifying
+	@Query("UPDATE Person p SET p.active = NULL, p.version = p.version + 1 WHERE p.id IN :ids AND p.active = TRUE")
+	int tombstoneAllById(@Param("ids") Collection<Long> ids);
+
+	// Streams every row ordered by id; must be consumed inside a transaction
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("FROM Person p ORDER BY p.id")
+	Stream<Person> streamAll();
+
 	// Define custom query using JPQL with index parameters
 	@Query("FROM Person p WHERE p.firstName =?1 AND p.lastName =?2")
-	Person findByJPQL(String firstName, String lastName);
+	List<Person> findByJPQL(String firstName, String lastName);
 
 	// Define custom query using JPQL with named parameters
 	@Query("FROM Person p WHERE p.firstName =:firstName AND p.lastName =:lastName")
-	Person findByJPQLNamedParameters(@Param("firstName") String firstName, @Param("lastName") String lastName);
+	List<Person> findByJPQLNamedParameters(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
 	// Define custom query using Native SQL with index parameters
-	@Query(value = "SELECT * FROM person p WHERE p.first_name =?1 AND p.last_name =?2", nativeQuery = true)
-	Person findByNativeSQL(String firstName, String lastName);
+	@Query(value = "SELECT * FROM person p WHERE p.first_name =?1 AND p.last_name =?2 AND p.active = TRUE", nativeQuery = true)
+	List<Person> findByNativeSQL(String firstName, String lastName);
 	
 	// Define custom query using Native SQL with named parameters
-	@Query(value = "SELECT * FROM person p WHERE p.first_name =:firstName AND p.last_name =:lastName", nativeQuery = true)
-	Person findByNativeSQLNamedParameters(@Param("firstName") String firstName, @Param("lastName") String lastName);
+	@Query(value = "SELECT * FROM person p WHERE p.first_name =:firstName AND p.last_name =:lastName AND p.active = TRUE", nativeQuery = true)
+	List<Person> findByNativeSQLNamedParameters(@Param("firstName") String firstName, @Param("lastName") String lastName);
 }
@@ -0,0 +1,9 @@
+package br.com.smms.repositories;
+
+import java.util.Map;
+
+public interface PersonRepositoryCustom {
+
+	// Single UPDATE of the given columns that also bumps the version; returns the affected row count
+	int patch(Long id, Map<String, Object> changes, Long expectedVersion);
+}
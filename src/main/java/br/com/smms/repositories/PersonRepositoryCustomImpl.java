@@ -0,0 +1,67 @@
+package br.com.smms.repositories;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import br.com.smms.changes.PersonChangeCapture;
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonChange;
+
+public class PersonRepositoryCustomImpl implements PersonRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private ObjectProvider<PersonChangeCapture> changeCapture;
+
+	@Override
+	@Transactional
+	public int patch(Long id, Map<String, Object> changes, Long expectedVersion) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Person> update = builder.createCriteriaUpdate(Person.class);
+		Root<Person> root = update.from(Person.class);
+		changes.forEach(update::set);
+		// Bulk updates skip Hibernate's own @Version handling, so bump it here
+		update.set(root.<Long>get("version"), builder.sum(root.<Long>get("version"), 1L));
+		Predicate where = builder.equal(root.get("id"), id);
+		if (expectedVersion != null) {
+			where = builder.and(where, builder.equal(root.get("version"), expectedVersion));
+		}
+		update.where(where);
+		int updated = entityManager.createQuery(update).executeUpdate();
+		if (updated > 0) {
+			// A bulk update fires no entity events: the change carries the sent fields only
+			changeCapture.ifAvailable(capture -> capture.record(entityManager,
+					patchChange(id, changes, expectedVersion == null ? currentVersion(id) : expectedVersion + 1)));
+		}
+		return updated;
+	}
+
+	// Without If-Match the version the UPDATE left is unknown until read back
+	private Long currentVersion(Long id) {
+		return entityManager.createQuery("SELECT p.version FROM Person p WHERE p.id = :id", Long.class)
+				.setParameter("id", id)
+				.getSingleResult();
+	}
+
+	private static PersonChange patchChange(Long id, Map<String, Object> changes, Long version) {
+		PersonChange change = new PersonChange(PersonChange.Type.UPDATED, id, version);
+		change.setFirstName((String) changes.get("firstName"));
+		change.setLastName((String) changes.get("lastName"));
+		change.setAddress((String) changes.get("address"));
+		change.setGender((String) changes.get("gender"));
+		change.setEmail((String) changes.get("email"));
+		return change;
+	}
+}
@@ -0,0 +1,75 @@
+package br.com.smms.repositories;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import br.com.smms.model.Person;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// R2DBC reads of the person table for the reactive profile. Tombstones (active NULL) are
+// filtered here, Hibernate's @SQLRestriction does not apply. A class over R2dbcEntityTemplate
+// instead of a Spring Data interface: the generated repositories are @Transactional, which
+// would start a JPA transaction around every call (the JPA manager is the only one registered)
+@Repository
+@Profile("reactive")
+public class ReactivePersonRepository {
+
+	@Autowired
+	private R2dbcEntityTemplate template;
+
+	public Mono<Person> findById(Long id) {
+		return template.selectOne(query(where("id").is(id).and(active())), Person.class);
+	}
+
+	// Rows are requested from the driver as the subscriber asks for them
+	public Flux<Person> findAll() {
+		return template.select(query(active()).sort(Sort.by("id")), Person.class);
+	}
+
+	public Flux<Person> findByIdGreaterThanOrderByIdAsc(Long id, int limit) {
+		return template.select(query(where("id").greaterThan(id).and(active())).sort(Sort.by("id")).limit(limit),
+				Person.class);
+	}
+
+	// Same keyset as PersonRepository.findModifiedSince, tombstones included
+	public Flux<Person> findModifiedSince(Instant since, Long after, int limit) {
+		return template.select(query(where("updatedAt").greaterThanOrEquals(since)
+				.and(where("updatedAt").greaterThan(since).or("id").greaterThan(after)))
+				.sort(Sort.by("updatedAt", "id")).limit(limit), Person.class);
+	}
+
+	public Flux<Person> findByLastNameStartingWithAndFirstNameStartingWith(String lastName, String firstName,
+			Pageable pageable) {
+		return template.select(query(startingWith(lastName, firstName)).with(pageable), Person.class);
+	}
+
+	public Mono<Long> countByLastNameStartingWithAndFirstNameStartingWith(String lastName, String firstName) {
+		return template.count(query(startingWith(lastName, firstName)), Person.class);
+	}
+
+	private static Criteria startingWith(String lastName, String firstName) {
+		return where("lastName").like(escape(lastName) + "%").and("firstName").like(escape(firstName) + "%")
+				.and(active());
+	}
+
+	private static Criteria active() {
+		return where("active").isTrue();
+	}
+
+	// Same as Spring Data JPA's StartingWith: wildcards typed by the client match literally
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+}
@@ -0,0 +1,390 @@
+package br.com.smms.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import br.com.smms.model.Person;
+
+// Inverted index over the searchable text of Person: first name, last name, address and e-mail.
+// Every person is a dense doc number; a term's postings are ints packing the doc with a mask of
+// the fields it appears in. Updates and deletes only mark the old doc as deleted (a new doc is
+// appended for the new values) and the postings are compacted once a quarter of the docs are
+// dead, so no write has to search a long postings list.
+public class PersonTextIndex {
+
+	public static final int FIRST_NAME = 1;
+	public static final int LAST_NAME = 2;
+	public static final int ADDRESS = 4;
+	public static final int EMAIL = 8;
+
+	private static final int FIELD_BITS = 4;
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	// A name match outranks the same term in an e-mail, which outranks the address
+	private static final float[] FIELD_BOOSTS = { 0f, 3f, 3f, 3f, 1f, 3f, 3f, 3f, 2f, 3f, 3f, 3f, 2f, 3f, 3f, 3f };
+
+	private static final float EXACT = 1f;
+	private static final float PREFIX = 0.8f;
+	private static final float ONE_EDIT = 0.6f;
+	private static final float TWO_EDITS = 0.4f;
+
+	public record Hit(long personId, float score) {}
+
+	private static final class Postings {
+
+		private int[] entries = new int[2];
+		private int size;
+
+		void add(int entry) {
+			if (size == entries.length) {
+				entries = Arrays.copyOf(entries, size + (size >> 1) + 1);
+			}
+			entries[size++] = entry;
+		}
+	}
+
+	private record Expansion(Postings postings, float weight) {}
+
+	private final NavigableMap<String, Postings> terms = new TreeMap<>();
+	// Fuzzy candidates by length; words only, house numbers and e-mail parts such as
+	// ana.souza42 are matched as typed or by prefix
+	private final Map<Integer, Set<String>> words = new HashMap<>();
+	private final Map<Long, Integer> docsByPersonId = new HashMap<>();
+	private final BitSet deleted = new BitSet();
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final int maxExpansions;
+	private long[] personIds = new long[16];
+	private int maxDoc;
+
+	public PersonTextIndex(int maxExpansions) {
+		this.maxExpansions = maxExpansions;
+	}
+
+	public void index(Person person) {
+		if (person == null || person.getId() == null) {
+			return;
+		}
+		Map<String, Integer> fields = fields(person);
+		lock.writeLock().lock();
+		try {
+			remove(person.getId());
+			int doc = maxDoc++;
+			if (doc == personIds.length) {
+				personIds = Arrays.copyOf(personIds, doc * 2);
+			}
+			personIds[doc] = person.getId();
+			docsByPersonId.put(person.getId(), doc);
+			fields.forEach((term, mask) -> postings(term).add(doc << FIELD_BITS | mask));
+			compactIfMostlyDeleted();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void delete(Long personId) {
+		lock.writeLock().lock();
+		try {
+			remove(personId);
+			compactIfMostlyDeleted();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return docsByPersonId.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int termCount() {
+		lock.readLock().lock();
+		try {
+			return terms.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Every query term has to match, as itself, as a prefix of an indexed term or (fuzzy) within
+	// one edit for five letters or less and two edits above that. Scores are BM25 idf weighted by
+	// how the term matched and the best field it matched in.
+	public List<Hit> search(String query, int limit, boolean fuzzy) {
+		Set<String> tokens = new LinkedHashSet<>(tokenize(query));
+		if (tokens.isEmpty() || limit <= 0) {
+			return List.of();
+		}
+		lock.readLock().lock();
+		try {
+			int live = docsByPersonId.size();
+			List<List<Expansion>> expansions = new ArrayList<>();
+			for (String token : tokens) {
+				List<Expansion> expansion = expand(token, fuzzy);
+				if (expansion.isEmpty()) {
+					return List.of();
+				}
+				expansions.add(expansion);
+			}
+			// The rarest token first keeps the candidate set small from the start
+			expansions.sort(Comparator.comparingLong(PersonTextIndex::postingCount));
+			Map<Integer, Float> scores = null;
+			for (List<Expansion> expansion : expansions) {
+				Map<Integer, Float> tokenScores = new HashMap<>();
+				for (Expansion candidate : expansion) {
+					Postings postings = candidate.postings();
+					float weight = candidate.weight() * idf(postings.size, live);
+					for (int i = 0; i < postings.size; i++) {
+						int entry = postings.entries[i];
+						int doc = entry >>> FIELD_BITS;
+						if (deleted.get(doc) || scores != null && !scores.containsKey(doc)) {
+							continue;
+						}
+						tokenScores.merge(doc, weight * FIELD_BOOSTS[entry & 0xF], Math::max);
+					}
+				}
+				if (scores != null) {
+					Map<Integer, Float> previous = scores;
+					tokenScores.replaceAll((doc, score) -> score + previous.get(doc));
+				}
+				scores = tokenScores;
+				if (scores.isEmpty()) {
+					return List.of();
+				}
+			}
+			return top(scores, limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Segments built in parallel from disjoint sets of people become one index
+	public static PersonTextIndex merge(List<PersonTextIndex> segments, int maxExpansions) {
+		PersonTextIndex merged = new PersonTextIndex(maxExpansions);
+		for (PersonTextIndex segment : segments) {
+			segment.compactIfAnyDeleted();
+			int offset = merged.maxDoc;
+			if (merged.personIds.length < offset + segment.maxDoc) {
+				merged.personIds = Arrays.copyOf(merged.personIds, Math.max(16, offset + segment.maxDoc));
+			}
+			System.arraycopy(segment.personIds, 0, merged.personIds, offset, segment.maxDoc);
+			segment.docsByPersonId.forEach((personId, doc) -> merged.docsByPersonId.put(personId, doc + offset));
+			segment.terms.forEach((term, postings) -> {
+				Postings target = merged.postings(term);
+				for (int i = 0; i < postings.size; i++) {
+					target.add(postings.entries[i] + (offset << FIELD_BITS));
+				}
+			});
+			merged.maxDoc += segment.maxDoc;
+		}
+		return merged;
+	}
+
+	public static List<String> tokenize(String text) {
+		if (text == null || text.isBlank()) {
+			return List.of();
+		}
+		String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+				.toLowerCase(Locale.ROOT);
+		List<String> tokens = new ArrayList<>();
+		for (String token : SEPARATORS.split(folded)) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	private static Map<String, Integer> fields(Person person) {
+		Map<String, Integer> fields = new HashMap<>();
+		addField(fields, person.getFirstName(), FIRST_NAME);
+		addField(fields, person.getLastName(), LAST_NAME);
+		addField(fields, person.getAddress(), ADDRESS);
+		addField(fields, person.getEmail(), EMAIL);
+		return fields;
+	}
+
+	private static void addField(Map<String, Integer> fields, String value, int field) {
+		for (String token : tokenize(value)) {
+			fields.merge(token, field, (a, b) -> a | b);
+		}
+	}
+
+	private Postings postings(String term) {
+		return terms.computeIfAbsent(term, key -> {
+			if (key.chars().allMatch(Character::isLetter)) {
+				words.computeIfAbsent(key.length(), length -> new HashSet<>()).add(key);
+			}
+			return new Postings();
+		});
+	}
+
+	private void remove(Long personId) {
+		Integer doc = docsByPersonId.remove(personId);
+		if (doc != null) {
+			deleted.set(doc);
+		}
+	}
+
+	private void compactIfMostlyDeleted() {
+		int deletedDocs = maxDoc - docsByPersonId.size();
+		if (deletedDocs > 1024 && deletedDocs > maxDoc / 4) {
+			compact();
+		}
+	}
+
+	private void compactIfAnyDeleted() {
+		if (!deleted.isEmpty()) {
+			compact();
+		}
+	}
+
+	// Renumbers the live docs densely and drops the postings of deleted ones
+	private void compact() {
+		int[] newDocs = new int[maxDoc];
+		int next = 0;
+		for (int doc = 0; doc < maxDoc; doc++) {
+			if (deleted.get(doc)) {
+				newDocs[doc] = -1;
+			} else {
+				newDocs[doc] = next;
+				personIds[next++] = personIds[doc];
+			}
+		}
+		terms.entrySet().removeIf(term -> {
+			Postings postings = term.getValue();
+			int size = 0;
+			for (int i = 0; i < postings.size; i++) {
+				int doc = newDocs[postings.entries[i] >>> FIELD_BITS];
+				if (doc >= 0) {
+					postings.entries[size++] = doc << FIELD_BITS | postings.entries[i] & 0xF;
+				}
+			}
+			postings.size = size;
+			if (size == 0) {
+				Set<String> sameLength = words.get(term.getKey().length());
+				if (sameLength != null) {
+					sameLength.remove(term.getKey());
+				}
+			}
+			return size == 0;
+		});
+		docsByPersonId.replaceAll((personId, doc) -> newDocs[doc]);
+		deleted.clear();
+		maxDoc = next;
+	}
+
+	private List<Expansion> expand(String token, boolean fuzzy) {
+		List<Expansion> expansions = new ArrayList<>();
+		Postings exact = terms.get(token);
+		if (exact != null) {
+			expansions.add(new Expansion(exact, EXACT));
+		}
+		// One letter would expand to a good part of the dictionary
+		if (token.length() > 1) {
+			for (Postings postings : terms.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+				if (expansions.size() > maxExpansions) {
+					break;
+				}
+				expansions.add(new Expansion(postings, PREFIX));
+			}
+		}
+		if (fuzzy && token.length() > 2) {
+			int maxEdits = token.length() <= 5 ? 1 : 2;
+			List<Expansion> fuzzyExpansions = new ArrayList<>();
+			for (int length = token.length() - maxEdits; length <= token.length() + maxEdits; length++) {
+				for (String candidate : words.getOrDefault(length, Set.of())) {
+					if (candidate.startsWith(token)) {
+						continue;
+					}
+					int edits = editDistance(token, candidate, maxEdits);
+					if (edits > 0 && edits <= maxEdits) {
+						fuzzyExpansions.add(new Expansion(terms.get(candidate), edits == 1 ? ONE_EDIT : TWO_EDITS));
+					}
+				}
+			}
+			// Closest terms first, then the most common ones
+			fuzzyExpansions.sort(Comparator.comparing(Expansion::weight).reversed()
+					.thenComparing(expansion -> -expansion.postings().size));
+			expansions.addAll(fuzzyExpansions.subList(0, Math.min(fuzzyExpansions.size(), maxExpansions)));
+		}
+		return expansions;
+	}
+
+	private static long postingCount(List<Expansion> expansions) {
+		long count = 0;
+		for (Expansion expansion : expansions) {
+			count += expansion.postings().size;
+		}
+		return count;
+	}
+
+	private static float idf(int docFrequency, int docCount) {
+		return (float) Math.log(1 + (docCount - docFrequency + 0.5) / (docFrequency + 0.5));
+	}
+
+	private List<Hit> top(Map<Integer, Float> scores, int limit) {
+		Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score).reversed()
+				.thenComparingLong(Hit::personId);
+		PriorityQueue<Hit> best = new PriorityQueue<>(ranking.reversed());
+		scores.forEach((doc, score) -> {
+			Hit hit = new Hit(personIds[doc], score);
+			if (best.size() < limit) {
+				best.add(hit);
+			} else if (ranking.compare(hit, best.peek()) < 0) {
+				best.poll();
+				best.add(hit);
+			}
+		});
+		List<Hit> hits = new ArrayList<>(best);
+		hits.sort(ranking);
+		return hits;
+	}
+
+	// Damerau-free Levenshtein limited to a band of maxEdits around the diagonal; returns
+	// maxEdits + 1 as soon as every cell of a row is beyond the limit
+	static int editDistance(String a, String b, int maxEdits) {
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			Arrays.fill(current, maxEdits + 1);
+			current[0] = i;
+			int from = Math.max(1, i - maxEdits);
+			int to = Math.min(b.length(), i + maxEdits);
+			int rowMin = current[0];
+			for (int j = from; j <= to; j++) {
+				int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+				current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+				rowMin = Math.min(rowMin, current[j]);
+			}
+			if (rowMin > maxEdits) {
+				return maxEdits + 1;
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return Math.min(previous[b.length()], maxEdits + 1);
+	}
+}
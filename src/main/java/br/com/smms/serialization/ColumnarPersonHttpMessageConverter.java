@@ -0,0 +1,132 @@
+package br.com.smms.serialization;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.smms.model.Person;
+
+// Accept: application/json;shape=columnar turns a list of people into one array per field,
+// {"ids":[...],"firstNames":[...],...}: the keys are written once instead of once per person,
+// and values of the same kind sit next to each other, which compresses better as well.
+// Any other body asked for in that shape is left to the JSON converter (see ColumnarShapeAdvice).
+public class ColumnarPersonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	public static final String SHAPE_PARAMETER = "shape";
+	public static final MediaType APPLICATION_JSON_COLUMNAR = new MediaType(MediaType.APPLICATION_JSON,
+			Map.of(SHAPE_PARAMETER, "columnar"));
+
+	private static final List<Column> COLUMNS = List.of(
+			new Column("ids", Person::getId),
+			new Column("firstNames", Person::getFirstName),
+			new Column("lastNames", Person::getLastName),
+			new Column("addresses", Person::getAddress),
+			new Column("genders", Person::getGender),
+			new Column("emails", Person::getEmail),
+			new Column("versions", Person::getVersion));
+
+	private final ObjectMapper objectMapper;
+
+	public ColumnarPersonHttpMessageConverter(ObjectMapper objectMapper) {
+		super(APPLICATION_JSON_COLUMNAR);
+		this.objectMapper = objectMapper;
+	}
+
+	private record Column(SerializableString name, Function<Person, Object> value) {
+
+		Column(String name, Function<Person, Object> value) {
+			this(new SerializedString(name), value);
+		}
+	}
+
+	public static void writeColumns(JsonGenerator generator, List<Person> people) throws IOException {
+		generator.writeStartObject(people, COLUMNS.size());
+		for (Column column : COLUMNS) {
+			generator.writeFieldName(column.name());
+			generator.writeStartArray(people, people.size());
+			for (Person person : people) {
+				Object value = column.value().apply(person);
+				if (value == null) {
+					generator.writeNull();
+				} else if (value instanceof Long number) {
+					generator.writeNumber(number.longValue());
+				} else {
+					generator.writeString((String) value);
+				}
+			}
+			generator.writeEndArray();
+		}
+		generator.writeEndObject();
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return List.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected boolean canRead(MediaType mediaType) {
+		return false;
+	}
+
+	// Only when the shape is asked for by name: application/json alone stays with the JSON converter
+	@Override
+	protected boolean canWrite(MediaType mediaType) {
+		return mediaType != null && "columnar".equalsIgnoreCase(mediaType.getParameter(SHAPE_PARAMETER))
+				&& MediaType.APPLICATION_JSON.isCompatibleWith(mediaType);
+	}
+
+	@Override
+	public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+		return canWrite(mediaType) && isPersonList(type != null ? type : clazz);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void writeInternal(Object people, Type type, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputMessage.getBody(),
+				JsonEncoding.UTF8).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+			writeColumns(generator, (List<Person>) people);
+		}
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		throw new HttpMessageNotReadableException("The columnar shape is only written", inputMessage);
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		throw new HttpMessageNotReadableException("The columnar shape is only written", inputMessage);
+	}
+
+	private static boolean isPersonList(Type type) {
+		ResolvableType resolved = ResolvableType.forType(type);
+		return List.class.isAssignableFrom(resolved.toClass())
+				&& Person.class.isAssignableFrom(resolved.asCollection().getGeneric(0).toClass());
+	}
+}
@@ -0,0 +1,37 @@
+package br.com.smms.serialization;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// A body other than a list of people, asked for with ;shape=columnar, is written by the JSON
+// converter as it always is: label it plain application/json instead of the shape it is not in
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ColumnarShapeAdvice implements ResponseBodyAdvice<Object> {
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return !ColumnarPersonHttpMessageConverter.class.equals(converterType);
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+		if (selectedContentType.getParameter(ColumnarPersonHttpMessageConverter.SHAPE_PARAMETER) != null) {
+			Map<String, String> parameters = new LinkedHashMap<>(selectedContentType.getParameters());
+			parameters.remove(ColumnarPersonHttpMessageConverter.SHAPE_PARAMETER);
+			response.getHeaders().setContentType(new MediaType(selectedContentType, parameters));
+		}
+		return body;
+	}
+}
@@ -0,0 +1,183 @@
+package br.com.smms.serialization;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+// application/x-protobuf for the same classes the JSON converter handles, without generated
+// message classes: the schema of each type is derived from its Jackson properties once and
+// cached. Field numbers are the @JsonProperty indexes of those properties, never their order,
+// and are published in /proto/person.proto (SCHEMA_LOCATION): a new property takes the next
+// free number and a removed one's number is never reused. Protobuf has no top-level repeated
+// value, so collections travel as a message with one repeated field, items = 1.
+public class JacksonProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+	public static final MediaType APPLICATION_PROTOBUF = MediaType.valueOf(APPLICATION_PROTOBUF_VALUE);
+	public static final String SCHEMA_LOCATION = "/proto/person.proto";
+
+	private final ProtobufMapper mapper;
+
+	private final Map<JavaType, Optional<ProtobufSchema>> schemas = new ConcurrentHashMap<>();
+
+	public JacksonProtobufHttpMessageConverter() {
+		// Bean introspection rather than PersonSerializer: the schema generator needs the property types
+		this(ProtobufMapper.builder()
+				.addModule(new JavaTimeModule())
+				.addMixIn(PagedModel.class, PagedModelFields.class)
+				.addMixIn(PagedModel.PageMetadata.class, PageMetadataFields.class)
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+				.build());
+	}
+
+	public JacksonProtobufHttpMessageConverter(ProtobufMapper mapper) {
+		super(APPLICATION_PROTOBUF);
+		this.mapper = mapper;
+	}
+
+	public static class Items<T> {
+
+		@JsonProperty(index = 1)
+		private List<T> items;
+
+		public Items() {}
+
+		public Items(List<T> items) {
+			this.items = items;
+		}
+
+		public List<T> getItems() {
+			return items;
+		}
+
+		public void setItems(List<T> items) {
+			this.items = items;
+		}
+	}
+
+	// Spring Data's page of GET /person/search
+	public abstract static class PagedModelFields {
+
+		@JsonProperty(index = 1)
+		abstract List<?> getContent();
+
+		@JsonProperty(value = "page", index = 2)
+		abstract PagedModel.PageMetadata getMetadata();
+	}
+
+	public abstract static class PageMetadataFields {
+
+		@JsonProperty(index = 1)
+		abstract long size();
+
+		@JsonProperty(index = 2)
+		abstract long number();
+
+		@JsonProperty(index = 3)
+		abstract long totalElements();
+
+		@JsonProperty(index = 4)
+		abstract long totalPages();
+	}
+
+	public Optional<ProtobufSchema> schemaFor(Type type) {
+		return schema(mapper.constructType(type));
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return true;
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+		return canRead(mediaType) && schema(javaType(type, contextClass)).isPresent();
+	}
+
+	@Override
+	public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+		return canWrite(mediaType) && schema(javaType(type != null ? type : clazz, null)).isPresent();
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		return read(javaType(type, contextClass), inputMessage);
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		return read(mapper.constructType(clazz), inputMessage);
+	}
+
+	@Override
+	protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+		JavaType javaType = javaType(type != null ? type : object.getClass(), null);
+		ProtobufSchema schema = schema(javaType).orElseThrow(
+				() -> new HttpMessageNotWritableException("No protobuf schema for " + javaType));
+		Object message = javaType.isCollectionLikeType() ? new Items<>(new ArrayList<>((Collection<?>) object))
+				: object;
+		mapper.writer(schema).writeValue(outputMessage.getBody(), message);
+	}
+
+	private Object read(JavaType javaType, HttpInputMessage inputMessage) throws IOException {
+		ProtobufSchema schema = schema(javaType).orElseThrow(
+				() -> new HttpMessageNotReadableException("No protobuf schema for " + javaType, inputMessage));
+		try {
+			Object message = mapper.readerFor(messageType(javaType)).with(schema).readValue(inputMessage.getBody());
+			return javaType.isCollectionLikeType() ? ((Items<?>) message).getItems() : message;
+		} catch (IOException e) {
+			throw new HttpMessageNotReadableException("Invalid protobuf message: " + e.getMessage(), e, inputMessage);
+		}
+	}
+
+	private JavaType javaType(Type type, Class<?> contextClass) {
+		return mapper.constructType(GenericTypeResolver.resolveType(type, contextClass));
+	}
+
+	private JavaType messageType(JavaType javaType) {
+		return javaType.isCollectionLikeType()
+				? mapper.getTypeFactory().constructParametricType(Items.class, javaType.getContentType())
+				: javaType;
+	}
+
+	// Types without a message shape (maps, scalars, streams) are left to the other converters
+	private Optional<ProtobufSchema> schema(JavaType javaType) {
+		return schemas.computeIfAbsent(javaType, key -> {
+			if (key.isMapLikeType() || key.isContainerType() && !key.isCollectionLikeType()) {
+				return Optional.empty();
+			}
+			try {
+				return Optional.of(mapper.generateSchemaFor(messageType(key)));
+			} catch (JsonMappingException | RuntimeException e) {
+				return Optional.empty();
+			}
+		});
+	}
+}
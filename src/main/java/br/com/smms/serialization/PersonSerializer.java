@@ -0,0 +1,64 @@
+package br.com.smms.serialization;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import br.com.smms.model.Person;
+
+// Writes Person straight to the generator in the same shape as the bean serializer, without
+// property introspection or per-field accessor calls; the field names are encoded once here
+@JsonComponent
+public class PersonSerializer extends StdSerializer<Person> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final SerializableString ID = new SerializedString("id");
+	private static final SerializableString FIRST_NAME = new SerializedString("firstName");
+	private static final SerializableString LAST_NAME = new SerializedString("lastName");
+	private static final SerializableString ADDRESS = new SerializedString("address");
+	private static final SerializableString GENDER = new SerializedString("gender");
+	private static final SerializableString EMAIL = new SerializedString("email");
+	private static final SerializableString VERSION = new SerializedString("version");
+
+	public PersonSerializer() {
+		super(Person.class);
+	}
+
+	@Override
+	public void serialize(Person person, JsonGenerator generator, SerializerProvider provider) throws IOException {
+		generator.writeStartObject(person, 7);
+		writeNumber(generator, ID, person.getId());
+		writeString(generator, FIRST_NAME, person.getFirstName());
+		writeString(generator, LAST_NAME, person.getLastName());
+		writeString(generator, ADDRESS, person.getAddress());
+		writeString(generator, GENDER, person.getGender());
+		writeString(generator, EMAIL, person.getEmail());
+		writeNumber(generator, VERSION, person.getVersion());
+		generator.writeEndObject();
+	}
+
+	private static void writeNumber(JsonGenerator generator, SerializableString name, Long value) throws IOException {
+		generator.writeFieldName(name);
+		if (value == null) {
+			generator.writeNull();
+		} else {
+			generator.writeNumber(value.longValue());
+		}
+	}
+
+	private static void writeString(JsonGenerator generator, SerializableString name, String value) throws IOException {
+		generator.writeFieldName(name);
+		if (value == null) {
+			generator.writeNull();
+		} else {
+			generator.writeString(value);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package br.com.smms.services;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Lock-free Bloom filter over the e-mails stored in the person table. A negative answer is
+// definitive, so creates can skip the findByEmail lookup; a positive answer (or any answer
+// before the filter is loaded) falls back to the database. Removals are not supported:
+// a deleted e-mail only costs one extra lookup.
+@Component
+public class EmailBloomFilter {
+
+	private final AtomicLongArray words;
+	private final long numBits;
+	private final int numHashes;
+	private volatile boolean ready;
+
+	public EmailBloomFilter(@Value("${person.email-filter.expected-insertions:1000000}") long expectedInsertions,
+			@Value("${person.email-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+		long bits = (long) (-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+		int wordCount = (int) Math.max(1, (bits + 63) / 64);
+		this.words = new AtomicLongArray(wordCount);
+		this.numBits = wordCount * 64L;
+		this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+	}
+
+	public void load(Stream<String> emails) {
+		emails.forEach(this::put);
+		ready = true;
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	public void put(String email) {
+		if (email == null) {
+			return;
+		}
+		long hash = hash(email);
+		int hash1 = (int) hash;
+		int hash2 = (int) (hash >>> 32);
+		for (int i = 1; i <= numHashes; i++) {
+			long bit = index(hash1 + i * hash2);
+			long mask = 1L << bit;
+			int word = (int) (bit >>> 6);
+			if ((words.get(word) & mask) == 0) {
+				words.getAndAccumulate(word, mask, (current, update) -> current | update);
+			}
+		}
+	}
+
+	public boolean mightContain(String email) {
+		if (!ready || email == null) {
+			return true;
+		}
+		long hash = hash(email);
+		int hash1 = (int) hash;
+		int hash2 = (int) (hash >>> 32);
+		for (int i = 1; i <= numHashes; i++) {
+			long bit = index(hash1 + i * hash2);
+			if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private long index(int combinedHash) {
+		return (combinedHash < 0 ? ~combinedHash : combinedHash) % numBits;
+	}
+
+	// MySQL compares e-mails with a case-insensitive collation, so the filter must too
+	private static long hash(String email) {
+		String normalized = email.toLowerCase(Locale.ROOT);
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < normalized.length(); i++) {
+			hash ^= normalized.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -0,0 +1,362 @@
+package br.com.smms.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.smms.changes.PersonChangeCapture;
+import br.com.smms.config.CacheConfig;
+import br.com.smms.model.BatchItemResult;
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonChange;
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.sharding.PersonShardRouter;
+import br.com.smms.sharding.ShardRoutingDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Processes bulk requests in chunks of person.batch.chunk-size, one transaction per chunk,
+// so Hibernate can send each chunk as JDBC batches. A chunk that fails as a whole is
+// retried item by item to report which entries were rejected. With sharding each chunk is
+// split per shard and every part runs pinned to its shard.
+@Service
+public class PersonBatchService {
+
+	private Logger logger = Logger.getLogger(PersonBatchService.class.getName());
+
+	@Value("${person.batch.chunk-size:500}")
+	private int chunkSize;
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private EmailBloomFilter emailFilter;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectProvider<PersonShardRouter> shardRouter;
+
+	@Autowired
+	private ObjectProvider<PersonChangeCapture> changeCapture;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	public List<BatchItemResult> createAll(Iterator<Person> people) {
+		List<BatchItemResult> results = new ArrayList<>();
+		createAll(people, results::addAll);
+		return results;
+	}
+
+	// Hands over the results of each chunk once it is done, so they are kept even if a later
+	// chunk throws; people the database was unreachable for come back as 503, not written
+	public void createAll(Iterator<Person> people, Consumer<List<BatchItemResult>> chunkResults) {
+		logger.info("Creating people in batch!");
+		inChunks(people, perShard((router, person) -> router.shardOf(person.getEmail()), this::createChunk),
+				chunkResults);
+	}
+
+	public List<BatchItemResult> updateAll(Iterator<Person> people) {
+		logger.info("Updating people in batch!");
+		return inChunks(people, perShard((router, person) -> router.shardOf(person), this::updateChunk));
+	}
+
+	public List<BatchItemResult> deleteAll(Iterator<Long> ids) {
+		logger.info("Deleting people in batch!");
+		return inChunks(ids, perShard((router, id) -> router.shardOf(id), this::deleteChunk));
+	}
+
+	private <T> List<BatchItemResult> inChunks(Iterator<T> items,
+			BiFunction<Integer, List<T>, List<BatchItemResult>> processor) {
+		List<BatchItemResult> results = new ArrayList<>();
+		inChunks(items, processor, results::addAll);
+		return results;
+	}
+
+	private <T> void inChunks(Iterator<T> items, BiFunction<Integer, List<T>, List<BatchItemResult>> processor,
+			Consumer<List<BatchItemResult>> chunkResults) {
+		int offset = 0;
+		List<T> chunk = new ArrayList<>(chunkSize);
+		while (items.hasNext()) {
+			chunk.add(items.next());
+			if (chunk.size() == chunkSize) {
+				chunkResults.accept(processor.apply(offset, chunk));
+				offset += chunk.size();
+				chunk = new ArrayList<>(chunkSize);
+			}
+		}
+		if (!chunk.isEmpty()) {
+			chunkResults.accept(processor.apply(offset, chunk));
+		}
+	}
+
+	// Results of the parts are put back at the positions of their items in the chunk;
+	// an item the router refuses (an e-mail owned by another shard) is rejected alone
+	private <T> BiFunction<Integer, List<T>, List<BatchItemResult>> perShard(
+			BiFunction<PersonShardRouter, T, Integer> shardOf, BiFunction<Integer, List<T>, List<BatchItemResult>> processor) {
+		PersonShardRouter router = shardRouter.getIfAvailable();
+		if (router == null) {
+			return processor;
+		}
+		return (offset, chunk) -> {
+			BatchItemResult[] results = new BatchItemResult[chunk.size()];
+			Map<Integer, List<Integer>> positions = new TreeMap<>();
+			for (int i = 0; i < chunk.size(); i++) {
+				try {
+					positions.computeIfAbsent(shardOf.apply(router, chunk.get(i)), shard -> new ArrayList<>()).add(i);
+				} catch (IllegalArgumentException e) {
+					results[i] = new BatchItemResult(offset + i, null, HttpStatus.BAD_REQUEST.value(), e.getMessage());
+				}
+			}
+			positions.forEach((shard, indexes) -> {
+				List<T> part = indexes.stream().map(chunk::get).toList();
+				List<BatchItemResult> partResults = ShardRoutingDataSource.callOn(shard, () -> processor.apply(0, part));
+				for (int j = 0; j < indexes.size(); j++) {
+					BatchItemResult result = partResults.get(j);
+					int i = indexes.get(j);
+					results[i] = new BatchItemResult(offset + i, result.getId(), result.getStatus(), result.getMessage());
+				}
+			});
+			return Arrays.asList(results);
+		};
+	}
+
+	private List<BatchItemResult> createChunk(int offset, List<Person> chunk) {
+		BatchItemResult[] results = new BatchItemResult[chunk.size()];
+		Set<String> seen = new HashSet<>();
+		List<String> maybeExisting = new ArrayList<>();
+		for (int i = 0; i < chunk.size(); i++) {
+			Person person = chunk.get(i);
+			person.setId(null);
+			person.setVersion(null);
+			if (!seen.add(normalize(person.getEmail()))) {
+				results[i] = duplicateEmail(offset + i, person);
+			} else if (emailFilter.mightContain(person.getEmail())) {
+				maybeExisting.add(person.getEmail());
+			}
+		}
+		// One IN query per chunk instead of one findByEmail per person
+		Set<String> existing = maybeExisting.isEmpty() ? Set.of()
+				: personRepository.findByEmailIn(maybeExisting).stream()
+						.map(person -> normalize(person.getEmail()))
+						.collect(Collectors.toSet());
+		List<Person> pending = new ArrayList<>();
+		for (int i = 0; i < chunk.size(); i++) {
+			Person person = chunk.get(i);
+			if (results[i] == null && existing.contains(normalize(person.getEmail()))) {
+				results[i] = duplicateEmail(offset + i, person);
+			} else if (results[i] == null) {
+				pending.add(person);
+			}
+		}
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				personRepository.saveAll(pending);
+				personRepository.flush();
+				entityManager.clear();
+			});
+		} catch (DataIntegrityViolationException e) {
+			// A concurrent writer took one of the e-mails: retry one by one to find it. The failed
+			// flush left ids and versions behind, and with a version save would merge, not persist
+			pending.forEach(person -> {
+				person.setId(null);
+				person.setVersion(null);
+			});
+			for (int i = 0; i < chunk.size(); i++) {
+				if (results[i] == null) {
+					results[i] = createOne(offset + i, chunk.get(i));
+				}
+			}
+			return Arrays.asList(results);
+		} catch (RuntimeException e) {
+			if (!isUnavailable(e)) {
+				throw e;
+			}
+			// Nothing of the chunk was committed
+			for (int i = 0; i < chunk.size(); i++) {
+				if (results[i] == null) {
+					results[i] = unavailable(offset + i, chunk.get(i));
+				}
+			}
+			return Arrays.asList(results);
+		}
+		// New ids may have been looked up (and cached as missing) before they were assigned
+		Cache cache = cacheManager.getCache(CacheConfig.PERSON_CACHE);
+		for (int i = 0; i < chunk.size(); i++) {
+			if (results[i] == null) {
+				Person person = chunk.get(i);
+				emailFilter.put(person.getEmail());
+				cache.evict(person.getId());
+				results[i] = new BatchItemResult(offset + i, person.getId(), HttpStatus.CREATED.value(), null);
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	private BatchItemResult createOne(int index, Person person) {
+		Person saved;
+		try {
+			saved = transactionTemplate.execute(status -> personRepository.saveAndFlush(person));
+		} catch (DataIntegrityViolationException e) {
+			return rejected(index, person, e);
+		} catch (RuntimeException e) {
+			if (!isUnavailable(e)) {
+				throw e;
+			}
+			return unavailable(index, person);
+		}
+		emailFilter.put(saved.getEmail());
+		cacheManager.getCache(CacheConfig.PERSON_CACHE).evict(saved.getId());
+		return new BatchItemResult(index, saved.getId(), HttpStatus.CREATED.value(), null);
+	}
+
+	private List<BatchItemResult> updateChunk(int offset, List<Person> chunk) {
+		BatchItemResult[] results = new BatchItemResult[chunk.size()];
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				Map<Long, Person> entities = new HashMap<>();
+				personRepository.findAllById(chunk.stream().map(Person::getId).filter(Objects::nonNull).toList())
+						.forEach(entity -> entities.put(entity.getId(), entity));
+				for (int i = 0; i < chunk.size(); i++) {
+					Person person = chunk.get(i);
+					Person entity = person.getId() == null ? null : entities.get(person.getId());
+					results[i] = entity == null ? notFound(offset + i, person.getId())
+							: new BatchItemResult(offset + i, entity.getId(), HttpStatus.OK.value(), null);
+					if (entity != null) {
+						copy(person, entity);
+					}
+				}
+				personRepository.flush();
+				entityManager.clear();
+			});
+		} catch (DataIntegrityViolationException e) {
+			Arrays.fill(results, null);
+			for (int i = 0; i < chunk.size(); i++) {
+				results[i] = updateOne(offset + i, chunk.get(i));
+			}
+		}
+		Cache cache = cacheManager.getCache(CacheConfig.PERSON_CACHE);
+		for (int i = 0; i < chunk.size(); i++) {
+			if (results[i].getStatus() == HttpStatus.OK.value()) {
+				emailFilter.put(chunk.get(i).getEmail());
+				cache.evict(results[i].getId());
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	private BatchItemResult updateOne(int index, Person person) {
+		if (person.getId() == null) {
+			return notFound(index, null);
+		}
+		try {
+			boolean found = transactionTemplate.execute(status -> personRepository.findById(person.getId())
+					.map(entity -> {
+						copy(person, entity);
+						personRepository.flush();
+						return true;
+					})
+					.orElse(false));
+			return found ? new BatchItemResult(index, person.getId(), HttpStatus.OK.value(), null)
+					: notFound(index, person.getId());
+		} catch (DataIntegrityViolationException e) {
+			return rejected(index, person, e);
+		}
+	}
+
+	private List<BatchItemResult> deleteChunk(int offset, List<Long> chunk) {
+		List<Long> ids = chunk.stream().filter(Objects::nonNull).toList();
+		Set<Long> existing = transactionTemplate.execute(status -> {
+			Set<Long> found = new HashSet<>(personRepository.findExistingIds(ids));
+			personRepository.tombstoneAllById(found);
+			// The bulk update fires no entity events
+			changeCapture.ifAvailable(capture -> found.forEach(id -> capture.record(entityManager,
+					new PersonChange(PersonChange.Type.DELETED, id, null))));
+			return found;
+		});
+		Cache cache = cacheManager.getCache(CacheConfig.PERSON_CACHE);
+		List<BatchItemResult> results = new ArrayList<>(chunk.size());
+		for (int i = 0; i < chunk.size(); i++) {
+			Long id = chunk.get(i);
+			if (id != null && existing.contains(id)) {
+				cache.evict(id);
+				results.add(new BatchItemResult(offset + i, id, HttpStatus.NO_CONTENT.value(), null));
+			} else {
+				results.add(notFound(offset + i, id));
+			}
+		}
+		return results;
+	}
+
+	private static void copy(Person source, Person target) {
+		target.setFirstName(source.getFirstName());
+		target.setLastName(source.getLastName());
+		target.setAddress(source.getAddress());
+		target.setGender(source.getGender());
+		target.setEmail(source.getEmail());
+	}
+
+	private static String normalize(String email) {
+		return email == null ? null : email.toLowerCase(Locale.ROOT);
+	}
+
+	private static BatchItemResult duplicateEmail(int index, Person person) {
+		return new BatchItemResult(index, person.getId(), HttpStatus.CONFLICT.value(),
+				"Person already exist with given e-mail: " + person.getEmail());
+	}
+
+	private static BatchItemResult rejected(int index, Person person, DataIntegrityViolationException e) {
+		if (PersonService.isDuplicateEmail(e)) {
+			return duplicateEmail(index, person);
+		}
+		return new BatchItemResult(index, person.getId(), HttpStatus.BAD_REQUEST.value(),
+				e.getMostSpecificCause().getMessage());
+	}
+
+	// The database could not be reached (no connection, or the connection broke), as opposed
+	// to a statement it refused
+	private static boolean isUnavailable(RuntimeException e) {
+		return e instanceof CannotCreateTransactionException || e instanceof DataAccessResourceFailureException
+				|| e instanceof TransientDataAccessResourceException;
+	}
+
+	private static BatchItemResult unavailable(int index, Person person) {
+		return new BatchItemResult(index, person.getId(), HttpStatus.SERVICE_UNAVAILABLE.value(),
+				"Database unavailable, retry later");
+	}
+
+	private static BatchItemResult notFound(int index, Long id) {
+		return new BatchItemResult(index, id, HttpStatus.NOT_FOUND.value(), "No records found this ID!");
+	}
+}
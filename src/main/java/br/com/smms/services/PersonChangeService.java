@@ -0,0 +1,231 @@
+package br.com.smms.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import br.com.smms.changes.PersonChangeCapture;
+import br.com.smms.exceptions.NotImplementedException;
+import br.com.smms.model.PersonChange;
+import br.com.smms.model.PersonChangePage;
+import br.com.smms.repositories.PersonChangeRepository;
+import br.com.smms.sharding.PersonShardRouter;
+import br.com.smms.sharding.ShardRoutingDataSource;
+
+// Reads the person_change outbox from a sequence on. Waiting readers (long polls and event
+// streams) sit on virtual threads and wait for one poller per outbox, which looks up the newest
+// sequence when this instance commits a change and every person.changes.poll-interval for
+// changes of other instances; a reader only queries the outbox once there is something after
+// its cursor. With sharding every shard numbers its changes on its own, so there is no single
+// feed to hand out: the readers of /person/changes are refused and only followShard is left.
+@Service
+public class PersonChangeService implements DisposableBean {
+
+	public static final int MAX_PAGE_SIZE = 1000;
+
+	private Logger logger = Logger.getLogger(PersonChangeService.class.getName());
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	private final Map<Integer, Outbox> outboxes = new ConcurrentHashMap<>();
+
+	@Value("${person.changes.poll-interval:1s}")
+	private Duration pollInterval;
+
+	@Value("${person.changes.max-wait:20s}")
+	private Duration maxWait;
+
+	@Autowired
+	private PersonChangeRepository personChangeRepository;
+
+	@Autowired
+	private PersonChangeCapture changeCapture;
+
+	@Autowired
+	private ObjectProvider<PersonShardRouter> shardRouter;
+
+	public PersonChangePage findSince(long since, int limit) {
+		logger.info("Finding person changes");
+
+		requireSingleOutbox();
+		return read(0, since, limit);
+	}
+
+	// Long poll: answers as soon as there is a change after since, or empty once wait is over
+	public CompletableFuture<PersonChangePage> awaitSince(long since, int limit, Duration wait) {
+		logger.info("Waiting for person changes");
+
+		requireSingleOutbox();
+		Outbox outbox = outbox(0);
+		long deadline = System.nanoTime() + Math.min(Math.max(wait.toNanos(), 0), maxWait.toNanos());
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				while (true) {
+					long newest = outbox.newest();
+					PersonChangePage page = read(0, since, limit);
+					long remaining = deadline - System.nanoTime();
+					if (!page.getChanges().isEmpty() || remaining <= 0) {
+						return page;
+					}
+					outbox.awaitAfter(since, newest, remaining);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return new PersonChangePage(List.of(), since);
+			}
+		}, executor);
+	}
+
+	// Hands every change after since to the consumer, then keeps following new ones until the
+	// returned future is cancelled or the consumer throws
+	public Future<?> follow(long since, Consumer<PersonChange> consumer) {
+		logger.info("Following person changes");
+
+		requireSingleOutbox();
+		return follow(0, since, consumer);
+	}
+
+	// Without sharding shard 0 is the only one
+	public Future<?> followShard(int shard, long since, Consumer<PersonChange> consumer) {
+		logger.info("Following person changes of shard " + shard);
+
+		return follow(shard, since, consumer);
+	}
+
+	public long lastSequence(int shard) {
+		return ShardRoutingDataSource.callOn(shard, personChangeRepository::findLastSequence);
+	}
+
+	private Future<?> follow(int shard, long since, Consumer<PersonChange> consumer) {
+		Outbox outbox = outbox(shard);
+		return executor.submit(() -> {
+			long cursor = since;
+			try {
+				while (!Thread.currentThread().isInterrupted()) {
+					long newest = outbox.newest();
+					PersonChangePage page;
+					try {
+						page = read(shard, cursor, MAX_PAGE_SIZE);
+					} catch (RuntimeException e) {
+						// The database is away: keep the cursor and try again
+						logger.warning("Could not read person changes: " + e.getMessage());
+						Thread.sleep(pollInterval.toMillis());
+						continue;
+					}
+					page.getChanges().forEach(consumer);
+					cursor = page.getNextSince();
+					if (page.getChanges().size() < MAX_PAGE_SIZE) {
+						outbox.awaitAfter(cursor, newest, Long.MAX_VALUE);
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+	}
+
+	private PersonChangePage read(int shard, long since, int limit) {
+		List<PersonChange> changes = ShardRoutingDataSource.callOn(shard, () -> personChangeRepository
+				.findBySequenceGreaterThanOrderBySequenceAsc(since, Limit.of(Math.min(Math.max(limit, 1), MAX_PAGE_SIZE))));
+		return new PersonChangePage(changes, changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence());
+	}
+
+	private void requireSingleOutbox() {
+		if (shardRouter.getIfAvailable() != null) {
+			throw new NotImplementedException("Person changes are not available with sharding");
+		}
+	}
+
+	private Outbox outbox(int shard) {
+		return outboxes.computeIfAbsent(shard, key -> {
+			Outbox outbox = new Outbox(key);
+			executor.submit(outbox::poll);
+			return outbox;
+		});
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	// The newest sequence of one outbox as its poller last saw it
+	private final class Outbox {
+
+		private final int shard;
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition moved = lock.newCondition();
+		private long newest;
+
+		private Outbox(int shard) {
+			this.shard = shard;
+		}
+
+		private long newest() {
+			lock.lock();
+			try {
+				return newest;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		// Returns once the outbox has a change after the cursor, or the timeout is over. A read
+		// that came back short of the newest sequence seen before it (a lagging replica) is
+		// retried after poll-interval instead of right away.
+		private void awaitAfter(long cursor, long newestBeforeRead, long timeoutNanos) throws InterruptedException {
+			long after = Math.max(cursor, newestBeforeRead);
+			long nanos = cursor < newestBeforeRead ? Math.min(timeoutNanos, pollInterval.toNanos()) : timeoutNanos;
+			lock.lock();
+			try {
+				while (newest <= after && nanos > 0) {
+					nanos = moved.awaitNanos(nanos);
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void poll() {
+			try {
+				while (!Thread.currentThread().isInterrupted()) {
+					long commits = changeCapture.getCommitCount();
+					try {
+						long last = lastSequence(shard);
+						lock.lock();
+						try {
+							if (last > newest) {
+								newest = last;
+								moved.signalAll();
+							}
+						} finally {
+							lock.unlock();
+						}
+					} catch (RuntimeException e) {
+						logger.warning("Could not look up the newest person change: " + e.getMessage());
+					}
+					changeCapture.awaitCommit(commits, pollInterval.toNanos(), TimeUnit.NANOSECONDS);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package br.com.smms.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import br.com.smms.datasource.ReplicaRoutingDataSource;
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonChange;
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.search.PersonTextIndex;
+import br.com.smms.sharding.PersonShardRouter;
+
+// Text search over people without LIKE '%x%' scans: the index lives in memory, is rebuilt from
+// the database at startup and from then on follows the person_change outbox (of every shard), so
+// it also learns of people written by other instances. Only the ranked ids come from the index,
+// the people are read by id.
+@Service
+public class PersonSearchService implements DisposableBean {
+
+	public static final int MAX_RESULTS = 100;
+
+	private Logger logger = Logger.getLogger(PersonSearchService.class.getName());
+
+	// Serializes rebuilds only: the index has a lock of its own and each outbox one follower
+	private final ReentrantLock rebuildLock = new ReentrantLock();
+
+	@Value("${person.search.rebuild-threads:4}")
+	private int rebuildThreads;
+
+	@Value("${person.search.rebuild-page-size:1000}")
+	private int rebuildPageSize;
+
+	@Value("${person.search.max-expansions:50}")
+	private int maxExpansions;
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private PersonChangeService changeService;
+
+	@Autowired
+	private ObjectProvider<PersonShardRouter> shardRouter;
+
+	private volatile PersonTextIndex index;
+
+	// The followers feeding the current index, one per shard
+	private List<Future<?>> followers = List.of();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUpIndex() {
+		rebuild();
+	}
+
+	public List<Person> search(String query, int limit, boolean fuzzy) {
+		logger.info("Searching people by text");
+
+		PersonTextIndex current = index;
+		List<PersonTextIndex.Hit> hits = current == null ? List.of()
+				: current.search(query, Math.min(Math.max(limit, 1), MAX_RESULTS), fuzzy);
+		if (hits.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, Person> people = new HashMap<>();
+		personRepository.findAllById(hits.stream().map(PersonTextIndex.Hit::personId).toList())
+				.forEach(person -> people.put(person.getId(), person));
+		// Keep the ranking; a person deleted since the hit was found is left out
+		List<Person> result = new ArrayList<>(hits.size());
+		for (PersonTextIndex.Hit hit : hits) {
+			Person person = people.get(hit.personId());
+			if (person != null) {
+				result.add(person);
+			}
+		}
+		return result;
+	}
+
+	// The outbox positions are taken first: whatever commits while the table is read is
+	// replayed on the new index by its followers, which start from there
+	public void rebuild() {
+		logger.info("Rebuilding person text index");
+
+		rebuildLock.lock();
+		try {
+			int shards = shardRouter.getIfAvailable() == null ? 1 : shardRouter.getObject().getShardCount();
+			long[] since = new long[shards];
+			for (int shard = 0; shard < shards; shard++) {
+				since[shard] = changeService.lastSequence(shard);
+			}
+			PersonTextIndex rebuilt = build();
+			followers.forEach(follower -> follower.cancel(true));
+			List<Future<?>> following = new ArrayList<>();
+			for (int shard = 0; shard < shards; shard++) {
+				following.add(changeService.followShard(shard, since[shard], change -> apply(rebuilt, change)));
+			}
+			followers = following;
+			index = rebuilt;
+			logger.info("Person text index rebuilt with " + rebuilt.size() + " people and " + rebuilt.termCount()
+					+ " terms");
+		} finally {
+			rebuildLock.unlock();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		followers.forEach(follower -> follower.cancel(true));
+	}
+
+	// Each follower writes to the index it was started for, so one still busy with a change
+	// when a rebuild cancels it can not put that change on the new index. A patch only carries
+	// the fields it sent: the person is read again, unless it sent none of the indexed ones.
+	void apply(PersonTextIndex target, PersonChange change) {
+		if (change.getType() == PersonChange.Type.DELETED) {
+			target.delete(change.getPersonId());
+			return;
+		}
+		if (change.getFirstName() != null && change.getLastName() != null && change.getAddress() != null
+				&& change.getEmail() != null) {
+			target.index(new Person(change.getPersonId(), change.getFirstName(), change.getLastName(),
+					change.getAddress(), change.getGender(), change.getEmail()));
+		} else if (change.getFirstName() != null || change.getLastName() != null || change.getAddress() != null
+				|| change.getEmail() != null) {
+			try {
+				ReplicaRoutingDataSource.onPrimary(() -> personRepository.findById(change.getPersonId()))
+						.ifPresentOrElse(target::index, () -> target.delete(change.getPersonId()));
+			} catch (RuntimeException e) {
+				// Stays as it was until the next change of the person or the next rebuild
+				logger.warning("Could not reindex person " + change.getPersonId() + ": " + e.getMessage());
+			}
+		}
+	}
+
+	// One thread reads the table in keyset pages (each shard in parallel when sharded) while
+	// the workers tokenize the pages into segments of their own, merged at the end
+	private PersonTextIndex build() {
+		int threads = Math.max(rebuildThreads, 1);
+		BlockingQueue<List<Person>> pages = new ArrayBlockingQueue<>(threads * 2);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<PersonTextIndex>> segments = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				segments.add(executor.submit(() -> {
+					PersonTextIndex segment = new PersonTextIndex(maxExpansions);
+					for (List<Person> page = pages.take(); !page.isEmpty(); page = pages.take()) {
+						page.forEach(segment::index);
+					}
+					return segment;
+				}));
+			}
+			try {
+				long after = 0L;
+				List<Person> page;
+				do {
+					page = personRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(rebuildPageSize));
+					if (!page.isEmpty()) {
+						pages.put(page);
+						after = page.get(page.size() - 1).getId();
+					}
+				} while (page.size() == rebuildPageSize);
+			} finally {
+				// An empty page tells each worker the table has been read
+				for (int i = 0; i < threads; i++) {
+					pages.put(List.of());
+				}
+			}
+			List<PersonTextIndex> built = new ArrayList<>();
+			for (Future<PersonTextIndex> segment : segments) {
+				built.add(segment.get());
+			}
+			return PersonTextIndex.merge(built, maxExpansions);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Person text index rebuild interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Person text index rebuild failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
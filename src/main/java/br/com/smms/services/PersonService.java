@@ -1,62 +1,274 @@
 package br.com.smms.services;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import br.com.smms.config.CacheConfig;
+import br.com.smms.config.MetricsConfig;
+import br.com.smms.datasource.ReplicaRoutingDataSource;
+import br.com.smms.exceptions.PreconditionFailedException;
 import br.com.smms.exceptions.ResourceNotFoundException;
 import br.com.smms.model.Person;
+import br.com.smms.model.PersonDeltaPage;
+import br.com.smms.model.PersonPage;
 import br.com.smms.repositories.PersonRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class PersonService {
 
+	public static final int MAX_PAGE_SIZE = 1000;
+	
+	public static final Set<String> PATCHABLE_FIELDS = Set.of("firstName", "lastName", "address", "gender", "email");
+
 	private Logger logger = Logger.getLogger(PersonService.class.getName());
 	
 	@Autowired
 	private PersonRepository personRepository;
 	
+	@Autowired
+	private EmailBloomFilter emailFilter;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Value("${person.sync.overlap:2s}")
+	private Duration syncOverlap;
+	
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void warmUpEmailFilter() {
+		logger.info("Loading e-mail filter");
+		
+		try (Stream<String> emails = personRepository.streamAllEmails()) {
+			emailFilter.load(emails);
+		}
+	}
+	
+	@Transactional(readOnly = true)
 	public List<Person> findAll() {
 		logger.info("Finding all people");
 
 		return personRepository.findAll();
 	}
 
-	public Person findById(Long id) {
+	@Transactional(readOnly = true)
+	public PersonPage findPage(Long after, int limit) {
+		logger.info("Finding a page of people");
+		
+		int size = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+		// Fetch one extra row to know whether there is a next page
+		List<Person> people = personRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(size + 1));
+		if (people.size() <= size) {
+			return new PersonPage(people, null);
+		}
+		List<Person> content = people.subList(0, size);
+		return new PersonPage(List.copyOf(content), content.get(size - 1).getId());
+	}
+
+	@Transactional(readOnly = true)
+	public PersonDeltaPage findModifiedSince(Instant since, Long after, int limit) {
+		logger.info("Finding people modified since a sync");
+		
+		int size = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+		Long afterId = after == null ? 0L : after;
+		List<Person> rows = personRepository.findModifiedSince(since, afterId, Limit.of(size + 1));
+		return deltaPage(rows, size, since, afterId, syncOverlap);
+	}
+
+	// updated_at is taken when a row is written, not when it commits: a transaction still open
+	// can commit a row older than the last one returned. The cursor that ends a sync therefore
+	// steps back by the overlap, and the next sync sees those rows again (applying them twice
+	// is harmless) along with any that committed late.
+	public static PersonDeltaPage deltaPage(List<Person> rows, int size, Instant since, Long after, Duration overlap) {
+		boolean more = rows.size() > size;
+		List<Person> page = more ? rows.subList(0, size) : rows;
+		List<Person> changed = new ArrayList<>(page.size());
+		List<Long> deleted = new ArrayList<>();
+		for (Person person : page) {
+			if (person.isDeleted()) {
+				deleted.add(person.getId());
+			} else {
+				changed.add(person);
+			}
+		}
+		if (page.isEmpty()) {
+			return new PersonDeltaPage(changed, deleted, since, after, false);
+		}
+		Person last = page.get(page.size() - 1);
+		if (more) {
+			return new PersonDeltaPage(changed, deleted, last.getUpdatedAt(), last.getId(), true);
+		}
+		Instant settled = last.getUpdatedAt().minus(overlap);
+		return settled.isAfter(since) ? new PersonDeltaPage(changed, deleted, settled, 0L, false)
+				: new PersonDeltaPage(changed, deleted, since, after, false);
+	}
+
+	@Transactional(readOnly = true)
+	public Page<Person> search(String lastName, String firstName, int page, int size) {
+		logger.info("Searching people by name");
+		
+		// Sorting in index order lets the database read the range without a filesort
+		PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+				Sort.by("lastName", "firstName", "id"));
+		return personRepository.findByLastNameStartingWithAndFirstNameStartingWith(lastName,
+				firstName == null ? "" : firstName, pageRequest);
+	}
+
+	@Transactional(readOnly = true)
+	public void streamAll(Consumer<Person> consumer) {
+		logger.info("Streaming all people");
+		
+		try (Stream<Person> people = personRepository.streamAll()) {
+			people.forEach(person -> {
+				consumer.accept(person);
+				// Keep the persistence context empty so memory stays constant
+				entityManager.detach(person);
+			});
+		}
+	}
+
+	// sync = true makes concurrent misses for the same id share a single load. An empty
+	// result is cached too, for seconds in person.missing, so repeated lookups of a missing id
+	// skip the database until it expires or create, patch or a batch insert replaces the entry.
+	// The entry is shared by every client, so it is loaded from the primary: read from a lagging
+	// replica, an evicted row would come back old (or missing) for clients that just wrote it.
+	@Cacheable(value = CacheConfig.PERSON_CACHE, sync = true)
+	public Optional<Person> findById(Long id) {
 		logger.info("Finding one person");
-		return getPersonById(id);
+		return ReplicaRoutingDataSource.onPrimary(() -> personRepository.findById(id));
 	}
 	
+	@CachePut(value = CacheConfig.PERSON_CACHE, key = "#result.id")
 	public Person create(Person person) {
 		logger.info("Creating one person!");
 		
-		Optional<Person> savedPerson = personRepository.findByEmail(person.getEmail());
-		if(savedPerson.isPresent()) {
+		// Only a possible duplicate needs the lookup; the unique index settles any race
+		if (emailFilter.mightContain(person.getEmail())) {
+			Optional<Person> savedPerson = personRepository.findByEmail(person.getEmail());
+			if(savedPerson.isPresent()) {
+				throw new ResourceNotFoundException("Person already exist with given e-mail: " + person.getEmail());
+			}
+		}
+		Person savedPerson;
+		try {
+			savedPerson = personRepository.save(person);
+		} catch (DataIntegrityViolationException e) {
+			if (!isDuplicateEmail(e)) {
+				throw e;
+			}
 			throw new ResourceNotFoundException("Person already exist with given e-mail: " + person.getEmail());
 		}
-		return personRepository.save(person);
+		emailFilter.put(savedPerson.getEmail());
+		return savedPerson;
 	}
 	
+	// Evict (rather than put) after the write commits so a slower concurrent
+	// writer can never leave an older version in the cache
+	@CacheEvict(value = CacheConfig.PERSON_CACHE, key = "#person.id")
 	public Person update(Person person) {
 		logger.info("Updating one person!");
 		var entity = getPersonById(person.getId());
+		// A version on the incoming person comes from If-Match; the @Version column
+		// still guards the window between this check and the UPDATE
+		checkVersion(person.getVersion(), entity);
 		entity.setFirstName(person.getFirstName());
 		entity.setLastName(person.getLastName());
 		entity.setAddress(person.getAddress());
 		entity.setGender(person.getGender());
 		entity.setEmail(person.getEmail());
+		emailFilter.put(person.getEmail());
 		return personRepository.save(entity);
 	}
 	
+	// JSON Merge Patch applied as one UPDATE of the sent columns, no SELECT beforehand
+	@CacheEvict(value = CacheConfig.PERSON_CACHE, key = "#id")
+	public void patch(Long id, Map<String, Object> changes, Long expectedVersion) {
+		logger.info("Patching one person!");
+		changes.forEach((field, value) -> {
+			if (!PATCHABLE_FIELDS.contains(field)) {
+				throw new IllegalArgumentException("Field can not be patched: " + field);
+			}
+			if (!(value instanceof String)) {
+				throw new IllegalArgumentException("Field must be a non null string: " + field);
+			}
+		});
+		if (changes.isEmpty()) {
+			checkVersion(expectedVersion, getPersonById(id));
+			return;
+		}
+		int updated;
+		try {
+			updated = personRepository.patch(id, changes, expectedVersion);
+		} catch (DataIntegrityViolationException e) {
+			if (!isDuplicateEmail(e)) {
+				throw e;
+			}
+			throw new ResourceNotFoundException("Person already exist with given e-mail: " + changes.get("email"));
+		}
+		if (updated == 0) {
+			// Only the failure path pays for telling a missing row from a stale version
+			if (expectedVersion != null && personRepository.existsById(id)) {
+				throw new PreconditionFailedException("Person was modified, expected version " + expectedVersion);
+			}
+			throw new ResourceNotFoundException("No records found this ID!");
+		}
+		if (changes.containsKey("email")) {
+			emailFilter.put((String) changes.get("email"));
+		}
+	}
+	
+	@CacheEvict(value = CacheConfig.PERSON_CACHE, key = "#id")
 	public void delete(Long id) {
+		delete(id, null);
+	}	
+	
+	@CacheEvict(value = CacheConfig.PERSON_CACHE, key = "#id")
+	public void delete(Long id, Long expectedVersion) {
 		logger.info("Deleting one person!");
 		var entity = getPersonById(id);
+		checkVersion(expectedVersion, entity);
 		personRepository.delete(entity);
 	}	
 	
+	private void checkVersion(Long expectedVersion, Person entity) {
+		if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+			throw new PreconditionFailedException("Person was modified, current version is " + entity.getVersion());
+		}
+	}
+	
+	static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+		String message = e.getMostSpecificCause().getMessage();
+		return message != null && message.toLowerCase(Locale.ROOT).contains(Person.EMAIL_UNIQUE_INDEX);
+	}
+	
 	private Person getPersonById(Long id) {
 		return personRepository.findById(id)
 				.orElseThrow(() -> new ResourceNotFoundException("No records found this ID!"));
@@ -0,0 +1,405 @@
+package br.com.smms.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.smms.exceptions.TooManyRequestsException;
+import br.com.smms.model.BatchItemResult;
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonWriteStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Opt-in asynchronous creation (person.write-behind.enabled). An accepted person is appended to a local journal and to a
+// bounded queue (full queue = 429); one worker drains the queue in batches through
+// PersonBatchService and marks the entries done. People the database was unreachable for are
+// retried alone, every second; any other failure fails the people it left without a result.
+// Entries without a done marker are queued again at startup, so a crash can repeat a write
+// (rejected by the unique e-mail) but not lose one.
+// The journal is created by the first submit, so an instance that never queues writes none.
+// With fsync the 202 waits for the line to be on disk: a sync thread forces everything appended
+// so far in one call, so concurrent submits share an fsync instead of each taking their own.
+@Service
+public class PersonWriteBehindService {
+
+	private static final String ACCEPTED = "A";
+	private static final String DONE = "D";
+
+	private Logger logger = Logger.getLogger(PersonWriteBehindService.class.getName());
+
+	private final boolean enabled;
+	private final BlockingQueue<Pending> queue;
+	private final int batchSize;
+	private final Path journalPath;
+	private final boolean fsync;
+	private final PersonBatchService personBatchService;
+	private final ObjectMapper objectMapper;
+	private final Cache<String, PersonWriteStatus> statuses = Caffeine.newBuilder()
+			.maximumSize(100_000)
+			.expireAfterWrite(Duration.ofHours(1))
+			.build();
+	private final ReentrantLock journalLock = new ReentrantLock();
+	private final Condition appendedLines = journalLock.newCondition();
+	private final Condition syncedLines = journalLock.newCondition();
+
+	// Guarded by journalLock
+	private FileChannel journal;
+	private long appended;
+	private long synced;
+	private IOException syncFailure;
+
+	private Thread worker;
+	private Thread syncer;
+	private volatile boolean running;
+
+	public PersonWriteBehindService(@Value("${person.write-behind.enabled:false}") boolean enabled,
+			@Value("${person.write-behind.capacity:10000}") int capacity,
+			@Value("${person.write-behind.batch-size:500}") int batchSize,
+			@Value("${person.write-behind.journal:write-behind/person.journal}") String journalPath,
+			@Value("${person.write-behind.fsync:true}") boolean fsync,
+			PersonBatchService personBatchService, ObjectMapper objectMapper) {
+		this.enabled = enabled;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.batchSize = batchSize;
+		this.journalPath = Path.of(journalPath);
+		this.fsync = fsync;
+		this.personBatchService = personBatchService;
+		this.objectMapper = objectMapper;
+	}
+
+	@PostConstruct
+	public void start() throws IOException {
+		if (!enabled) {
+			return;
+		}
+		Map<String, Person> pending = Map.of();
+		if (Files.exists(journalPath)) {
+			pending = readJournal();
+			// Compact to the pending entries only; the move is atomic so a crash keeps either file
+			Path compacted = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+			try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				for (Map.Entry<String, Person> entry : pending.entrySet()) {
+					channel.write(ByteBuffer.wrap(acceptedLine(entry.getKey(), entry.getValue())));
+				}
+				channel.force(true);
+			}
+			Files.move(compacted, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			journal = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		}
+
+		running = true;
+		worker = Thread.ofPlatform().name("person-write-behind").daemon().start(this::drain);
+		if (fsync) {
+			syncer = Thread.ofPlatform().name("person-write-behind-sync").daemon().start(this::sync);
+		}
+		if (!pending.isEmpty()) {
+			logger.info("Replaying " + pending.size() + " journaled people");
+		}
+		for (Map.Entry<String, Person> entry : pending.entrySet()) {
+			statuses.put(entry.getKey(), pendingStatus(entry.getKey()));
+			try {
+				queue.put(new Pending(entry.getKey(), entry.getValue()));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	@PreDestroy
+	public void stop() throws IOException, InterruptedException {
+		// Whatever is still queued stays in the journal and is replayed on the next start
+		running = false;
+		if (worker != null) {
+			worker.join(TimeUnit.SECONDS.toMillis(30));
+		}
+		if (syncer != null) {
+			syncer.join(TimeUnit.SECONDS.toMillis(30));
+		}
+		journalLock.lock();
+		try {
+			if (journal != null) {
+				journal.close();
+			}
+		} finally {
+			journalLock.unlock();
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public PersonWriteStatus submit(Person person) {
+		if (!enabled) {
+			throw new IllegalStateException("Write-behind is disabled");
+		}
+		logger.info("Accepting one person for write-behind!");
+		person.setId(null);
+		String trackingId = UUID.randomUUID().toString();
+		byte[] line = acceptedLine(trackingId, person);
+		PersonWriteStatus status = pendingStatus(trackingId);
+		journalLock.lock();
+		try {
+			// Only the worker takes from the queue, so the capacity seen here can only grow
+			if (queue.remainingCapacity() == 0) {
+				throw new TooManyRequestsException("Write-behind queue is full, retry later");
+			}
+			if (journal == null) {
+				open();
+			}
+			append(line);
+			long position = ++appended;
+			statuses.put(trackingId, status);
+			queue.add(new Pending(trackingId, person));
+			if (fsync) {
+				appendedLines.signal();
+				// A failed sync still leaves the person queued; the caller only misses the 202
+				while (synced < position) {
+					if (syncFailure != null) {
+						throw new UncheckedIOException(syncFailure);
+					}
+					syncedLines.awaitUninterruptibly();
+				}
+			}
+		} finally {
+			journalLock.unlock();
+		}
+		return status;
+	}
+
+	public Optional<PersonWriteStatus> findStatus(String trackingId) {
+		return Optional.ofNullable(statuses.getIfPresent(trackingId));
+	}
+
+	public int queued() {
+		return queue.size();
+	}
+
+	private void drain() {
+		List<Pending> batch = new ArrayList<>(batchSize);
+		while (running) {
+			try {
+				Pending first = queue.poll(200, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				write(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				logger.log(Level.SEVERE, "Write-behind journal update failed", e);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void write(List<Pending> batch) throws InterruptedException {
+		BatchItemResult[] results = new BatchItemResult[batch.size()];
+		List<Integer> remaining = IntStream.range(0, batch.size()).boxed().toList();
+		while (true) {
+			List<Integer> attempt = remaining;
+			attempt.forEach(i -> results[i] = null);
+			try {
+				personBatchService.createAll(attempt.stream().map(i -> batch.get(i).person()).iterator(),
+						chunk -> chunk.forEach(result -> results[attempt.get(result.getIndex())] = result));
+			} catch (RuntimeException e) {
+				// Not the database being unreachable (that comes back per person): a retry would fail
+				// the same way. The chunks done before it keep their results
+				logger.log(Level.SEVERE, "Write-behind batch failed", e);
+				for (int i : attempt) {
+					if (results[i] == null) {
+						results[i] = new BatchItemResult(i, null, HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage());
+					}
+				}
+			}
+			// Only the people never written go again, so none is created twice
+			remaining = attempt.stream()
+					.filter(i -> results[i].getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value())
+					.toList();
+			if (remaining.isEmpty() || !running) {
+				break;
+			}
+			logger.warning("Database unavailable for " + remaining.size() + " write-behind people, retrying");
+			TimeUnit.SECONDS.sleep(1);
+		}
+		// Those still unwritten at shutdown stay pending in the journal
+		StringBuilder done = new StringBuilder();
+		for (int i = 0; i < batch.size(); i++) {
+			if (remaining.contains(i)) {
+				continue;
+			}
+			String trackingId = batch.get(i).trackingId();
+			BatchItemResult result = results[i];
+			PersonWriteStatus.State state = result.getStatus() == HttpStatus.CREATED.value()
+					? PersonWriteStatus.State.DONE : PersonWriteStatus.State.FAILED;
+			statuses.put(trackingId, new PersonWriteStatus(trackingId, state, result.getId(),
+					result.getStatus(), result.getMessage()));
+			done.append(DONE).append('\t').append(trackingId).append('\n');
+		}
+		journalLock.lock();
+		try {
+			if (queue.isEmpty() && remaining.isEmpty()) {
+				// Every accepted entry has been written; start the journal over
+				truncate();
+				synced = appended;
+				syncedLines.signalAll();
+			} else {
+				// Not synced: a lost done marker only replays a write the unique e-mail rejects
+				append(done.toString().getBytes(StandardCharsets.UTF_8));
+			}
+		} finally {
+			journalLock.unlock();
+		}
+	}
+
+	private void sync() {
+		while (true) {
+			long target;
+			FileChannel channel;
+			journalLock.lock();
+			try {
+				while (synced == appended) {
+					if (!running) {
+						return;
+					}
+					appendedLines.await(200, TimeUnit.MILLISECONDS);
+				}
+				target = appended;
+				channel = journal;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				journalLock.unlock();
+			}
+			// Outside the lock: lines appended meanwhile wait for the next force, all together
+			IOException failure = null;
+			try {
+				channel.force(false);
+			} catch (IOException e) {
+				failure = e;
+			}
+			journalLock.lock();
+			try {
+				if (failure == null) {
+					synced = Math.max(synced, target);
+				}
+				syncFailure = failure;
+				syncedLines.signalAll();
+			} finally {
+				journalLock.unlock();
+			}
+			if (failure != null) {
+				logger.log(Level.SEVERE, "Write-behind journal sync failed", failure);
+				try {
+					TimeUnit.MILLISECONDS.sleep(100);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	private Map<String, Person> readJournal() throws IOException {
+		Map<String, Person> pending = new LinkedHashMap<>();
+		for (String line : Files.readAllLines(journalPath, StandardCharsets.UTF_8)) {
+			String[] parts = line.split("\t", 3);
+			if (ACCEPTED.equals(parts[0]) && parts.length == 3) {
+				try {
+					pending.put(parts[1], objectMapper.readValue(parts[2], Person.class));
+				} catch (JsonProcessingException e) {
+					// A torn last line from a crash mid-append was never acknowledged
+					logger.warning("Skipping unreadable journal entry " + parts[1]);
+				}
+			} else if (DONE.equals(parts[0]) && parts.length == 2) {
+				pending.remove(parts[1]);
+			}
+		}
+		return pending;
+	}
+
+	private void open() {
+		try {
+			if (journalPath.getParent() != null) {
+				Files.createDirectories(journalPath.getParent());
+			}
+			journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private byte[] acceptedLine(String trackingId, Person person) {
+		try {
+			return (ACCEPTED + '\t' + trackingId + '\t' + objectMapper.writeValueAsString(person) + '\n')
+					.getBytes(StandardCharsets.UTF_8);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	private void append(byte[] line) {
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(line);
+			while (buffer.hasRemaining()) {
+				journal.write(buffer);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void truncate() {
+		try {
+			journal.truncate(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static PersonWriteStatus pendingStatus(String trackingId) {
+		return new PersonWriteStatus(trackingId, PersonWriteStatus.State.PENDING, null,
+				HttpStatus.ACCEPTED.value(), null);
+	}
+
+	private record Pending(String trackingId, Person person) {}
+}
@@ -0,0 +1,115 @@
+package br.com.smms.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonDeltaPage;
+import br.com.smms.model.PersonPage;
+import br.com.smms.repositories.ReactivePersonRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// Reads go through R2DBC without holding a thread while the database works. Writes are
+// handed to PersonService on the bounded elastic scheduler: id generation, the unique
+// e-mail check, optimistic locking and cache eviction stay in one place for both stacks.
+@Service
+@Profile("reactive")
+public class ReactivePersonService {
+
+	private Logger logger = Logger.getLogger(ReactivePersonService.class.getName());
+
+	@Autowired
+	private ReactivePersonRepository reactivePersonRepository;
+
+	@Value("${person.sync.overlap:2s}")
+	private Duration syncOverlap;
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private PersonSearchService personSearchService;
+
+	public Flux<Person> findAll() {
+		logger.info("Finding all people");
+
+		return reactivePersonRepository.findAll();
+	}
+
+	public Mono<PersonPage> findPage(Long after, int limit) {
+		logger.info("Finding a page of people");
+
+		int size = Math.min(Math.max(limit, 1), PersonService.MAX_PAGE_SIZE);
+		// Fetch one extra row to know whether there is a next page
+		return reactivePersonRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, size + 1)
+				.collectList()
+				.map(people -> people.size() <= size ? new PersonPage(people, null)
+						: new PersonPage(List.copyOf(people.subList(0, size)), people.get(size - 1).getId()));
+	}
+
+	public Mono<PersonDeltaPage> findModifiedSince(Instant since, Long after, int limit) {
+		logger.info("Finding people modified since a sync");
+
+		int size = Math.min(Math.max(limit, 1), PersonService.MAX_PAGE_SIZE);
+		Long afterId = after == null ? 0L : after;
+		return reactivePersonRepository.findModifiedSince(since, afterId, size + 1)
+				.collectList()
+				.map(rows -> PersonService.deltaPage(rows, size, since, afterId, syncOverlap));
+	}
+
+	public Mono<Page<Person>> search(String lastName, String firstName, int page, int size) {
+		logger.info("Searching people by name");
+
+		PageRequest pageRequest = PageRequest.of(Math.max(page, 0),
+				Math.min(Math.max(size, 1), PersonService.MAX_PAGE_SIZE), Sort.by("lastName", "firstName", "id"));
+		String first = firstName == null ? "" : firstName;
+		return Mono.zip(
+				reactivePersonRepository.findByLastNameStartingWithAndFirstNameStartingWith(lastName, first, pageRequest)
+						.collectList(),
+				reactivePersonRepository.countByLastNameStartingWithAndFirstNameStartingWith(lastName, first))
+				.map(result -> new PageImpl<>(result.getT1(), pageRequest, result.getT2()));
+	}
+
+	public Mono<List<Person>> searchText(String query, int limit, boolean fuzzy) {
+		return Mono.fromCallable(() -> personSearchService.search(query, limit, fuzzy))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	public Mono<Person> findById(Long id) {
+		logger.info("Finding one person");
+
+		return reactivePersonRepository.findById(id);
+	}
+
+	public Mono<Person> create(Person person) {
+		return Mono.fromCallable(() -> personService.create(person)).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	public Mono<Person> update(Person person) {
+		return Mono.fromCallable(() -> personService.update(person)).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	public Mono<Void> patch(Long id, Map<String, Object> changes, Long expectedVersion) {
+		return Mono.<Void>fromRunnable(() -> personService.patch(id, changes, expectedVersion))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	public Mono<Void> delete(Long id, Long expectedVersion) {
+		return Mono.<Void>fromRunnable(() -> personService.delete(id, expectedVersion))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+}
@@ -0,0 +1,51 @@
+package br.com.smms.sharding;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+// The person_seq pooled sequence, unless sharding registered a SnowflakeIdGenerator under
+// ID_GENERATOR_SETTING: then a person inserted while a shard is pinned (the router pins the
+// shard of its e-mail) gets a snowflake id carrying that shard. Created by Hibernate for an id
+// annotated with @PersonIdSequence.
+public class PersonIdGenerator extends SequenceStyleGenerator {
+
+	public static final String ID_GENERATOR_SETTING = "person.sharding.id-generator";
+
+	private static final long serialVersionUID = 1L;
+
+	private final String sequenceName;
+	private final int allocationSize;
+	private transient SnowflakeIdGenerator snowflake;
+
+	public PersonIdGenerator(PersonIdSequence config, Member member, CustomIdGeneratorCreationContext context) {
+		this.sequenceName = config.name();
+		this.allocationSize = config.allocationSize();
+	}
+
+	@Override
+	public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+		parameters.put(SEQUENCE_PARAM, sequenceName);
+		parameters.put(INCREMENT_PARAM, String.valueOf(allocationSize));
+		super.configure(type, parameters, serviceRegistry);
+		Object setting = serviceRegistry.requireService(ConfigurationService.class).getSettings()
+				.get(ID_GENERATOR_SETTING);
+		snowflake = setting instanceof SnowflakeIdGenerator generator ? generator : null;
+	}
+
+	@Override
+	public Object generate(SharedSessionContractImplementor session, Object object) {
+		Integer shard = ShardRoutingDataSource.currentShard();
+		if (snowflake != null && shard != null) {
+			return snowflake.nextId(shard);
+		}
+		return super.generate(session, object);
+	}
+}
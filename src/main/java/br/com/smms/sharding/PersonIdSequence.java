@@ -0,0 +1,22 @@
+package br.com.smms.sharding;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+// Generates the annotated id with PersonIdGenerator: a pooled sequence handing out blocks of
+// allocationSize, or a snowflake id when sharding is on
+@IdGeneratorType(PersonIdGenerator.class)
+@Retention(RUNTIME)
+@Target({ FIELD, METHOD })
+public @interface PersonIdSequence {
+
+	String name();
+
+	int allocationSize() default 50;
+}
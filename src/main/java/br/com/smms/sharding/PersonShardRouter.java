@@ -0,0 +1,334 @@
+package br.com.smms.sharding;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.com.smms.model.Person;
+
+// Sits between PersonService and PersonRepository and sends every call to the shard that owns it:
+// - by id (findById, existsById, deleteById, patch, save/delete of a stored person): the shard in the id
+// - by e-mail (findByEmail, save of a new person): a hash of the lower-cased e-mail. A new person gets
+//   a snowflake id carrying that shard (PersonIdGenerator), so both routes agree for the life of the
+//   row and the unique e-mail index of each shard is enough to keep e-mails unique overall
+// - by several keys (findAllById, findByEmailIn, ...): one call per shard with its share of the keys
+// - anything else fans out to every shard in parallel: lists are concatenated (ordered by id and cut
+//   when a Limit is given), pages are merged in their sort order, streams are read shard after shard,
+//   counts are added up
+// Calls made while a shard is pinned (ShardRoutingDataSource.callOn) run there unchanged; the batch
+// service pins each part of a chunk so its transaction stays on one shard.
+@Aspect
+public class PersonShardRouter implements DisposableBean {
+
+	private static final Set<String> BY_ID = Set.of("findById", "existsById", "deleteById", "getReferenceById",
+			"getById", "getOne", "patch");
+	private static final Set<String> BY_PERSON = Set.of("save", "saveAndFlush", "delete");
+	private static final Set<String> BY_IDS = Set.of("findAllById", "findExistingIds", "deleteAllById",
+			"deleteAllByIdInBatch", "tombstoneAllById");
+	private static final Set<String> BY_PEOPLE = Set.of("saveAll", "saveAllAndFlush", "deleteAll", "deleteAllInBatch");
+	private static final Set<String> PASS_THROUGH = Set.of("flush", "toString", "hashCode", "equals");
+
+	private static final Comparator<Object> ID_ORDER = Comparator.comparing(person -> ((Person) person).getId());
+	private static final Comparator<Object> MODIFICATION_ORDER = Comparator
+			.comparing((Object person) -> ((Person) person).getUpdatedAt()).thenComparing(ID_ORDER);
+
+	private final int shardCount;
+	private final ObjectProvider<PlatformTransactionManager> transactionManager;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	public PersonShardRouter(int shardCount, ObjectProvider<PlatformTransactionManager> transactionManager) {
+		if (shardCount < 1 || shardCount > SnowflakeIdGenerator.MAX_SHARDS) {
+			throw new IllegalArgumentException("Shard count must be between 1 and " + SnowflakeIdGenerator.MAX_SHARDS);
+		}
+		this.shardCount = shardCount;
+		this.transactionManager = transactionManager;
+	}
+
+	public int getShardCount() {
+		return shardCount;
+	}
+
+	public int shardOf(Long id) {
+		return id == null ? 0 : SnowflakeIdGenerator.shardOf(id) % shardCount;
+	}
+
+	// MySQL compares e-mails case-insensitively, so the hash must too
+	public int shardOf(String email) {
+		if (email == null) {
+			return 0;
+		}
+		int hash = email.toLowerCase(Locale.ROOT).hashCode();
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		return Math.floorMod(hash, shardCount);
+	}
+
+	// The e-mail decides the shard of a new person and is not moved afterwards: an update
+	// to an e-mail owned by another shard is rejected instead of relocating the row
+	public int shardOf(Person person) {
+		if (person.getId() == null) {
+			return shardOf(person.getEmail());
+		}
+		int shard = shardOf(person.getId());
+		checkEmail(shard, person.getEmail());
+		return shard;
+	}
+
+	@Around("this(br.com.smms.repositories.PersonRepository)")
+	public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		String name = method.getName();
+		Object[] args = joinPoint.getArgs();
+		if (ShardRoutingDataSource.currentShard() != null || PASS_THROUGH.contains(name)) {
+			return joinPoint.proceed();
+		}
+		if (BY_ID.contains(name)) {
+			int shard = shardOf((Long) args[0]);
+			if (name.equals("patch") && args[1] instanceof Map<?, ?> changes
+					&& changes.get("email") instanceof String email) {
+				checkEmail(shard, email);
+			}
+			return proceedOn(shard, joinPoint, args);
+		}
+		if (BY_PERSON.contains(name)) {
+			Person person = (Person) args[0];
+			return proceedOn(name.equals("delete") ? shardOf(person.getId()) : shardOf(person), joinPoint, args);
+		}
+		if (name.equals("findByEmail")) {
+			return proceedOn(shardOf((String) args[0]), joinPoint, args);
+		}
+		if (name.equals("findByEmailIn")) {
+			return proceedByKeys(joinPoint, method, args, key -> shardOf((String) key));
+		}
+		if (BY_IDS.contains(name)) {
+			return proceedByKeys(joinPoint, method, args, key -> shardOf((Long) key));
+		}
+		if (BY_PEOPLE.contains(name) && args.length == 1) {
+			return proceedByKeys(joinPoint, method, args, key -> shardOf((Person) key));
+		}
+		return fanOut(joinPoint, method, args);
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	private void checkEmail(int shard, String email) {
+		if (email != null && shardOf(email) != shard) {
+			throw new IllegalArgumentException("E-mail belongs to another shard and can not be moved: " + email);
+		}
+	}
+
+	private Object proceedByKeys(ProceedingJoinPoint joinPoint, Method method, Object[] args,
+			Function<Object, Integer> shardOfKey) {
+		Map<Integer, List<Object>> keysByShard = new TreeMap<>();
+		for (Object key : (Iterable<?>) args[0]) {
+			keysByShard.computeIfAbsent(shardOfKey.apply(key), shard -> new ArrayList<>()).add(key);
+		}
+		if (keysByShard.size() <= 1) {
+			return proceedOn(keysByShard.isEmpty() ? 0 : keysByShard.keySet().iterator().next(), joinPoint, args);
+		}
+		// Each shard would commit on its own, outside the caller's transaction
+		if (!method.getName().startsWith("find") && TransactionSynchronizationManager.isActualTransactionActive()) {
+			throw new IllegalStateException(method.getName() + " spans several shards inside a transaction; "
+					+ "pin one shard per transaction with ShardRoutingDataSource.callOn");
+		}
+		List<Integer> shards = new ArrayList<>(keysByShard.keySet());
+		List<Object> results = onShards(shards, shard -> {
+			Object[] shardArgs = args.clone();
+			shardArgs[0] = keysByShard.get(shard);
+			return proceedOn(shard, joinPoint, shardArgs);
+		});
+		return method.getReturnType() == void.class ? null : concat(results);
+	}
+
+	private Object fanOut(ProceedingJoinPoint joinPoint, Method method, Object[] args) {
+		Class<?> type = method.getReturnType();
+		if (Stream.class.isAssignableFrom(type)) {
+			return streamShardByShard(joinPoint, args);
+		}
+		if (Page.class.isAssignableFrom(type)) {
+			return mergePages(joinPoint, args);
+		}
+		List<Object> results = onShards(IntStream.range(0, shardCount).boxed().toList(),
+				shard -> proceedOn(shard, joinPoint, args));
+		if (List.class.isAssignableFrom(type)) {
+			List<Object> merged = concat(results);
+			for (Object arg : args) {
+				// Keyset pages (findByIdGreaterThanOrderByIdAsc, findModifiedSince): the first rows
+				// of all shards in the order of the keyset
+				if (arg instanceof Limit limit && limit.isLimited()) {
+					merged.sort(method.getName().equals("findModifiedSince") ? MODIFICATION_ORDER : ID_ORDER);
+					return new ArrayList<>(merged.subList(0, Math.min(limit.max(), merged.size())));
+				}
+			}
+			return merged;
+		}
+		if (type == long.class || type == Long.class) {
+			return results.stream().mapToLong(count -> (Long) count).sum();
+		}
+		if (type == boolean.class || type == Boolean.class) {
+			return results.stream().anyMatch(Boolean.TRUE::equals);
+		}
+		if (type == Optional.class) {
+			return results.stream().map(Optional.class::cast).filter(Optional::isPresent).findFirst()
+					.orElse(Optional.empty());
+		}
+		return type == void.class ? null : results.get(0);
+	}
+
+	// Every shard returns its first offset + size rows in the requested order; the page is
+	// cut from their merge. Deep pages cost more per shard, as with any scatter-gather.
+	private Page<Object> mergePages(ProceedingJoinPoint joinPoint, Object[] args) {
+		int position = -1;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i] instanceof Pageable) {
+				position = i;
+			}
+		}
+		Pageable pageable = position < 0 ? Pageable.unpaged() : (Pageable) args[position];
+		Object[] shardArgs = args.clone();
+		if (pageable.isPaged()) {
+			shardArgs[position] = PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(),
+					pageable.getSort());
+		}
+		List<Page<?>> pages = onShards(IntStream.range(0, shardCount).boxed().toList(),
+				shard -> (Page<?>) proceedOn(shard, joinPoint, shardArgs));
+		Stream<Object> merged = pages.stream().flatMap(page -> page.getContent().stream().map(Object.class::cast))
+				.sorted(comparator(pageable.getSort()));
+		long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+		if (pageable.isUnpaged()) {
+			return new PageImpl<>(merged.toList(), pageable, total);
+		}
+		return new PageImpl<>(merged.skip(pageable.getOffset()).limit(pageable.getPageSize()).toList(), pageable,
+				total);
+	}
+
+	// A stream holds its connection until closed, so each shard gets its own read-only
+	// transaction, begun when the previous shard is exhausted and committed on close
+	private Stream<Object> streamShardByShard(ProceedingJoinPoint joinPoint, Object[] args) {
+		DefaultTransactionDefinition definition = new DefaultTransactionDefinition(
+				TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		definition.setReadOnly(true);
+		PlatformTransactionManager transactions = transactionManager.getObject();
+		return IntStream.range(0, shardCount).boxed().flatMap(shard -> {
+			Integer previous = ShardRoutingDataSource.pin(shard);
+			try {
+				TransactionStatus status = transactions.getTransaction(definition);
+				try {
+					Stream<?> stream = (Stream<?>) proceed(joinPoint, args);
+					return stream.map(Object.class::cast).onClose(() -> transactions.commit(status));
+				} catch (RuntimeException | Error e) {
+					transactions.rollback(status);
+					throw e;
+				}
+			} finally {
+				ShardRoutingDataSource.restore(previous);
+			}
+		});
+	}
+
+	private Object proceedOn(int shard, ProceedingJoinPoint joinPoint, Object[] args) {
+		Integer previous = ShardRoutingDataSource.pin(shard);
+		try {
+			return proceed(joinPoint, args);
+		} finally {
+			ShardRoutingDataSource.restore(previous);
+		}
+	}
+
+	private <T> List<T> onShards(List<Integer> shards, IntFunction<T> call) {
+		if (shards.size() == 1) {
+			return List.of(call.apply(shards.get(0)));
+		}
+		List<Future<T>> futures = shards.stream().map(shard -> executor.submit(() -> call.apply(shard))).toList();
+		List<T> results = new ArrayList<>(shards.size());
+		try {
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+		} catch (ExecutionException e) {
+			futures.forEach(future -> future.cancel(true));
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw new UndeclaredThrowableException(e.getCause());
+		} catch (InterruptedException e) {
+			futures.forEach(future -> future.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while querying the shards", e);
+		}
+		return results;
+	}
+
+	private static Object proceed(ProceedingJoinPoint joinPoint, Object[] args) {
+		try {
+			return joinPoint.proceed(args);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new UndeclaredThrowableException(e);
+		}
+	}
+
+	private static List<Object> concat(List<?> results) {
+		List<Object> merged = new ArrayList<>();
+		for (Object result : results) {
+			((Iterable<?>) result).forEach(merged::add);
+		}
+		return merged;
+	}
+
+	// Strings compare case-insensitively and nulls sort first, like MySQL
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Comparator<Object> comparator(Sort sort) {
+		Comparator<Object> values = Comparator.nullsFirst((left, right) -> left instanceof String text
+				? text.compareToIgnoreCase((String) right) : ((Comparable) left).compareTo(right));
+		Comparator<Object> comparator = (left, right) -> 0;
+		for (Sort.Order order : sort) {
+			Comparator<Object> byProperty = Comparator.comparing(
+					entity -> new BeanWrapperImpl(entity).getPropertyValue(order.getProperty()), values);
+			comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+		}
+		return comparator;
+	}
+}
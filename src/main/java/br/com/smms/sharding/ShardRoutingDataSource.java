@@ -0,0 +1,82 @@
+package br.com.smms.sharding;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Hands out connections of the shard pinned on the current thread. The pin has to be in
+// place before a transaction starts, since the connection is kept until it ends.
+// Unpinned work (Hibernate's startup metadata and schema handling) goes to shard 0.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+	private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+	private final List<DataSource> shards;
+
+	public ShardRoutingDataSource(List<DataSource> shards) {
+		this.shards = List.copyOf(shards);
+		Map<Object, Object> targets = new HashMap<>();
+		for (int i = 0; i < shards.size(); i++) {
+			targets.put(i, shards.get(i));
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(shards.get(0));
+		setLenientFallback(false);
+		afterPropertiesSet();
+	}
+
+	public int getShardCount() {
+		return shards.size();
+	}
+
+	public static <T> T callOn(int shard, Supplier<T> action) {
+		Integer previous = pin(shard);
+		try {
+			return action.get();
+		} finally {
+			restore(previous);
+		}
+	}
+
+	public static Integer currentShard() {
+		return CURRENT_SHARD.get();
+	}
+
+	static Integer pin(int shard) {
+		Integer previous = CURRENT_SHARD.get();
+		CURRENT_SHARD.set(shard);
+		return previous;
+	}
+
+	static void restore(Integer previous) {
+		if (previous == null) {
+			CURRENT_SHARD.remove();
+		} else {
+			CURRENT_SHARD.set(previous);
+		}
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return CURRENT_SHARD.get();
+	}
+
+	@Override
+	public void close() {
+		for (DataSource shard : shards) {
+			if (shard instanceof AutoCloseable closeable) {
+				try {
+					closeable.close();
+				} catch (Exception e) {
+					// shutting down anyway
+				}
+			}
+		}
+	}
+}
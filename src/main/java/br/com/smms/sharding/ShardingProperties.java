@@ -0,0 +1,69 @@
+package br.com.smms.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("person.sharding")
+public class ShardingProperties {
+
+	private List<Shard> shards = new ArrayList<>();
+	private int workerId;
+	private boolean createSchema;
+
+	public List<Shard> getShards() {
+		return shards;
+	}
+
+	public void setShards(List<Shard> shards) {
+		this.shards = shards;
+	}
+
+	public int getWorkerId() {
+		return workerId;
+	}
+
+	public void setWorkerId(int workerId) {
+		this.workerId = workerId;
+	}
+
+	public boolean isCreateSchema() {
+		return createSchema;
+	}
+
+	public void setCreateSchema(boolean createSchema) {
+		this.createSchema = createSchema;
+	}
+
+	public static class Shard {
+
+		private String url;
+		private String username;
+		private String password;
+
+		public String getUrl() {
+			return url;
+		}
+
+		public void setUrl(String url) {
+			this.url = url;
+		}
+
+		public String getUsername() {
+			return username;
+		}
+
+		public void setUsername(String username) {
+			this.username = username;
+		}
+
+		public String getPassword() {
+			return password;
+		}
+
+		public void setPassword(String password) {
+			this.password = password;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package br.com.smms.sharding;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// 63-bit ids unique across shards and application instances without a shared sequence:
+// 41 bits of milliseconds since 2024-01-01 | 10 bits counter | 6 bits shard | 6 bits worker.
+// The shard travels inside the id, so findById/update/delete know where the row lives,
+// and ids still grow with time, which keeps inserts at the right end of the primary key.
+// The last millisecond and the counter are packed in one AtomicLong and moved together by a
+// compare-and-set, so no lock pins the virtual threads that insert.
+public class SnowflakeIdGenerator {
+
+	public static final int MAX_SHARDS = 64;
+	public static final int MAX_WORKERS = 64;
+
+	private static final long EPOCH = 1704067200000L;
+	private static final int SHARD_SHIFT = 6;
+	private static final int COUNTER_SHIFT = 12;
+	private static final int TIME_SHIFT = 22;
+	private static final int COUNTER_BITS = TIME_SHIFT - COUNTER_SHIFT;
+	private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+	private final long workerId;
+	// Milliseconds since EPOCH << COUNTER_BITS | counter, the top of the id
+	private final AtomicLong last = new AtomicLong();
+
+	public SnowflakeIdGenerator(int workerId) {
+		if (workerId < 0 || workerId >= MAX_WORKERS) {
+			throw new IllegalArgumentException("Worker id must be between 0 and " + (MAX_WORKERS - 1));
+		}
+		this.workerId = workerId;
+	}
+
+	public long nextId(int shard) {
+		if (shard < 0 || shard >= MAX_SHARDS) {
+			throw new IllegalArgumentException("Shard must be between 0 and " + (MAX_SHARDS - 1));
+		}
+		long previous;
+		long next;
+		do {
+			previous = last.get();
+			// A clock that moved back keeps counting on the last millisecond instead of
+			// repeating ids; an exhausted counter borrows the next millisecond
+			long lastMillis = previous >>> COUNTER_BITS;
+			long now = Math.max(System.currentTimeMillis() - EPOCH, lastMillis);
+			if (now == lastMillis) {
+				long counter = (previous + 1) & COUNTER_MASK;
+				next = counter == 0 ? (now + 1) << COUNTER_BITS : previous + 1;
+			} else {
+				next = now << COUNTER_BITS;
+			}
+		} while (!last.compareAndSet(previous, next));
+		return next << COUNTER_SHIFT | (long) shard << SHARD_SHIFT | workerId;
+	}
+
+	public static int shardOf(long id) {
+		return (int) (id >>> SHARD_SHIFT) & (MAX_SHARDS - 1);
+	}
+}
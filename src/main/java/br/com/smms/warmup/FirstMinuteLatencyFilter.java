@@ -0,0 +1,62 @@
+package br.com.smms.warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Times the requests of the first minute (person.warm-up.observation-window) after the instance
+// became ready, tagged with whether it warmed up, so warmed and cold deployments can be compared
+// on the same dashboard. Probes and the warm-up's own requests (sent before readiness) are left out.
+public class FirstMinuteLatencyFilter extends OncePerRequestFilter
+		implements ApplicationListener<AvailabilityChangeEvent<ReadinessState>> {
+
+	public static final String FIRST_MINUTE_TIMER = "person.first.minute.requests";
+
+	private final Timer timer;
+	private final long windowNanos;
+	private volatile boolean ready;
+	private volatile long readyAt;
+
+	public FirstMinuteLatencyFilter(MeterRegistry meterRegistry, boolean warmUp, Duration window) {
+		this.timer = Timer.builder(FIRST_MINUTE_TIMER)
+				.tag("warm-up", warmUp ? "enabled" : "disabled")
+				.register(meterRegistry);
+		this.windowNanos = window.toNanos();
+	}
+
+	@Override
+	public void onApplicationEvent(AvailabilityChangeEvent<ReadinessState> event) {
+		if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC && !ready) {
+			readyAt = System.nanoTime();
+			ready = true;
+		}
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !ready || System.nanoTime() - readyAt > windowNanos || request.getRequestURI().startsWith("/actuator");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		long start = System.nanoTime();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+}
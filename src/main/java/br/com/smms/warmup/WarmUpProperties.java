@@ -0,0 +1,64 @@
+package br.com.smms.warmup;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("person.warm-up")
+public class WarmUpProperties {
+
+	private boolean enabled;
+	private int connections = 10;
+	private int hotIds = 1000;
+	private int rounds = 200;
+	private Duration timeout = Duration.ofSeconds(60);
+	private Duration observationWindow = Duration.ofMinutes(1);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getConnections() {
+		return connections;
+	}
+
+	public void setConnections(int connections) {
+		this.connections = connections;
+	}
+
+	public int getHotIds() {
+		return hotIds;
+	}
+
+	public void setHotIds(int hotIds) {
+		this.hotIds = hotIds;
+	}
+
+	public int getRounds() {
+		return rounds;
+	}
+
+	public void setRounds(int rounds) {
+		this.rounds = rounds;
+	}
+
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	public Duration getObservationWindow() {
+		return observationWindow;
+	}
+
+	public void setObservationWindow(Duration observationWindow) {
+		this.observationWindow = observationWindow;
+	}
+}
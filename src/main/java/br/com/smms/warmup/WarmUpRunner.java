@@ -0,0 +1,184 @@
+package br.com.smms.warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.RestClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonPage;
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.services.PersonService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Spring Boot reports ReadinessState.ACCEPTING_TRAFFIC only after the ApplicationRunners
+// returned, so /actuator/health/readiness stays OUT_OF_SERVICE while this fills the connection
+// pool, loads the newest people into the person cache and sends synthetic requests through the
+// controllers (dispatch, Jackson both ways, Hibernate query plans, JIT). A failing step is
+// logged and skipped: a cold instance is better than one that never becomes ready.
+public class WarmUpRunner implements ApplicationRunner {
+
+	public static final String WARM_UP_TIMER = "person.warmup";
+
+	private Logger logger = Logger.getLogger(WarmUpRunner.class.getName());
+
+	private final WarmUpProperties properties;
+	private final ApplicationContext applicationContext;
+	private final DataSource dataSource;
+	private final PersonRepository personRepository;
+	private final PersonService personService;
+	private final ObjectMapper objectMapper;
+	private final ObjectProvider<RestClient.Builder> restClientBuilder;
+	private final MeterRegistry meterRegistry;
+
+	private List<Person> hotPeople = List.of();
+	private long deadline;
+
+	public WarmUpRunner(WarmUpProperties properties, ApplicationContext applicationContext, DataSource dataSource,
+			PersonRepository personRepository, PersonService personService, ObjectMapper objectMapper,
+			ObjectProvider<RestClient.Builder> restClientBuilder, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.applicationContext = applicationContext;
+		this.dataSource = dataSource;
+		this.personRepository = personRepository;
+		this.personService = personService;
+		this.objectMapper = objectMapper;
+		this.restClientBuilder = restClientBuilder;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		logger.info("Warming up");
+		long start = System.nanoTime();
+		deadline = start + properties.getTimeout().toNanos();
+		step("connections", this::fillConnectionPool);
+		step("caches", this::loadHotPeople);
+		step("traffic", this::sendSyntheticTraffic);
+		logger.info("Warm-up finished in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+	}
+
+	private void step(String name, WarmUpStep step) {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			step.run();
+		} catch (Exception e) {
+			logger.log(Level.WARNING, "Warm-up step " + name + " failed", e);
+		} finally {
+			sample.stop(Timer.builder(WARM_UP_TIMER).tag("step", name).register(meterRegistry));
+		}
+	}
+
+	// Opens the connections together, so the pool holds them before the first request needs one
+	private void fillConnectionPool() throws SQLException {
+		int connections = properties.getConnections();
+		if (dataSource.isWrapperFor(HikariDataSource.class)) {
+			connections = Math.min(connections, dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize());
+		}
+		List<Connection> opened = new ArrayList<>();
+		try {
+			for (int i = 0; i < connections; i++) {
+				opened.add(dataSource.getConnection());
+			}
+		} finally {
+			for (Connection connection : opened) {
+				connection.close();
+			}
+		}
+	}
+
+	// Recently created people are the ones most likely to be read next
+	private void loadHotPeople() {
+		if (properties.getHotIds() <= 0) {
+			return;
+		}
+		hotPeople = personRepository
+				.findAll(PageRequest.of(0, properties.getHotIds(), Sort.by(Sort.Direction.DESC, "id")))
+				.getContent();
+		for (Person person : hotPeople) {
+			personService.findById(person.getId());
+		}
+	}
+
+	private void sendSyntheticTraffic() throws Exception {
+		Integer port = applicationContext instanceof WebServerApplicationContext web && web.getWebServer() != null
+				? web.getWebServer().getPort() : null;
+		RestClient client = port == null || port <= 0 ? null
+				: restClientBuilder.getIfAvailable(RestClient::builder).baseUrl("http://localhost:" + port).build();
+		Map<Integer, Integer> unexpected = new TreeMap<>();
+		for (int round = 0; round < properties.getRounds() && System.nanoTime() < deadline; round++) {
+			Person hot = hotPeople.isEmpty() ? null : hotPeople.get(round % hotPeople.size());
+			Long id = hot == null ? null : hot.getId();
+			// A negative id never exists and takes the not-found path
+			long missing = -1;
+			String lastName = hot == null ? "Warm" : hot.getLastName();
+			if (client != null) {
+				if (id != null) {
+					get(client.get().uri("/person/{id}", id), Person.class, unexpected);
+				}
+				get(client.get().uri("/person/{id}", missing), Person.class, unexpected);
+				get(client.get().uri("/person?limit={limit}", 20), PersonPage.class, unexpected);
+				get(client.get().uri("/person/search?lastName={lastName}", lastName), String.class, unexpected);
+			} else {
+				// No web server (WebApplicationType.NONE): the same services, with the JSON round trip
+				if (id != null) {
+					personService.findById(id).ifPresent(this::roundTrip);
+				}
+				personService.findById(missing);
+				objectMapper.writeValueAsBytes(personService.findPage(null, 20));
+				objectMapper.writeValueAsBytes(personService.search(lastName, null, 0, 20).getContent());
+			}
+		}
+		if (!unexpected.isEmpty()) {
+			// Turned away (429, 503) or failed: those paths were not warmed
+			logger.warning("Warm-up requests answered with status (count) " + unexpected);
+		}
+	}
+
+	// Not found is expected for the missing id; any other error is counted
+	private <T> void get(RestClient.RequestHeadersSpec<?> request, Class<T> type, Map<Integer, Integer> unexpected) {
+		request.retrieve()
+				.onStatus(HttpStatusCode::isError, (req, response) -> {
+					if (response.getStatusCode().value() != 404) {
+						unexpected.merge(response.getStatusCode().value(), 1, Integer::sum);
+					}
+				})
+				.toEntity(type);
+	}
+
+	private void roundTrip(Person person) {
+		try {
+			objectMapper.readValue(objectMapper.writeValueAsBytes(person), Person.class);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@FunctionalInterface
+	private interface WarmUpStep {
+		void run() throws Exception;
+	}
+}
@@ -0,0 +1,59 @@
+-- Schema of the Person entity. Databases created by ddl-auto: update are baselined
+-- (baseline-version 0) and upgraded here instead: from the original schema (IDENTITY id,
+-- no version, no indexes) or from whatever later ddl-auto runs added. MySQL has no
+-- ADD COLUMN/INDEX IF NOT EXISTS, so each change is looked up in information_schema and
+-- run as a prepared statement, or skipped with DO 0.
+CREATE TABLE IF NOT EXISTS person (
+	id BIGINT NOT NULL,
+	first_name VARCHAR(80) NOT NULL,
+	last_name VARCHAR(80) NOT NULL,
+	address VARCHAR(100) NOT NULL,
+	gender VARCHAR(6) NOT NULL,
+	email VARCHAR(100) NOT NULL,
+	version BIGINT NOT NULL DEFAULT 0,
+	PRIMARY KEY (id),
+	UNIQUE KEY uk_person_email (email),
+	KEY idx_person_last_first (last_name, first_name)
+);
+
+-- Ids now come from person_seq; the original table generated them with AUTO_INCREMENT
+ALTER TABLE person MODIFY COLUMN id BIGINT NOT NULL;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+		WHERE table_schema = DATABASE() AND table_name = 'person' AND column_name = 'version') = 0,
+	'ALTER TABLE person ADD COLUMN version BIGINT NOT NULL DEFAULT 0',
+	'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- Fails on a table holding the same e-mail twice, which the original service let through:
+-- those rows have to be merged by hand before the migration can run
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+		WHERE table_schema = DATABASE() AND table_name = 'person' AND index_name = 'uk_person_email') = 0,
+	'ALTER TABLE person ADD UNIQUE KEY uk_person_email (email)',
+	'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+		WHERE table_schema = DATABASE() AND table_name = 'person' AND index_name = 'idx_person_last_first') = 0,
+	'ALTER TABLE person ADD KEY idx_person_last_first (last_name, first_name)',
+	'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- Pooled sequence table used by Hibernate on MySQL (allocation size 50). The first block
+-- starts past MAX(id), also when ddl-auto already created the table with next_val 1.
+CREATE TABLE IF NOT EXISTS person_seq (
+	next_val BIGINT
+);
+
+INSERT INTO person_seq (next_val)
+SELECT 1 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM person_seq);
+
+UPDATE person_seq
+SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id) + 51, 1) FROM person));
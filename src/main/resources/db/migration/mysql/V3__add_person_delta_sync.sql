@@ -0,0 +1,37 @@
+-- Delta sync for GET /person?modifiedSince=: updated_at is kept by MySQL on every write and
+-- read in (updated_at, id) order through idx_person_updated_at. A deleted person stays as a
+-- tombstone with active NULL; the unique e-mail index only holds for rows with active TRUE.
+-- Existing rows all get the time of the migration as their updated_at. Columns and indexes
+-- ddl-auto: update may already have added are looked up first, as in V1.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+		WHERE table_schema = DATABASE() AND table_name = 'person' AND column_name = 'updated_at') = 0,
+	'ALTER TABLE person ADD COLUMN updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)',
+	'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+		WHERE table_schema = DATABASE() AND table_name = 'person' AND column_name = 'active') = 0,
+	'ALTER TABLE person ADD COLUMN active BOOLEAN DEFAULT TRUE',
+	'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- Rebuilt whatever it covers: ddl-auto may have created it on (email) alone
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+		WHERE table_schema = DATABASE() AND table_name = 'person' AND index_name = 'uk_person_email') = 0,
+	'ALTER TABLE person ADD UNIQUE KEY uk_person_email (email, active)',
+	'ALTER TABLE person DROP INDEX uk_person_email, ADD UNIQUE KEY uk_person_email (email, active)');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+		WHERE table_schema = DATABASE() AND table_name = 'person' AND index_name = 'idx_person_updated_at') = 0,
+	'ALTER TABLE person ADD KEY idx_person_updated_at (updated_at, id)',
+	'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
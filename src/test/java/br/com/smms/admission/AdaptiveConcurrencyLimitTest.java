@@ -0,0 +1,99 @@
+package br.com.smms.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+	private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+	private long now;
+
+	@Test
+	@DisplayName("test Given Steady Latency At Full Use When Windows Pass then Raise Limit")
+	void testGivenSteadyLatencyAtFullUse_WhenWindowsPass_thenRaiseLimit() {
+		// Given / Arrange
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200, 1.5, WINDOW, now);
+
+		// When / Act
+		for (int window = 0; window < 10; window++) {
+			runWindow(limit, limit.getLimit(), TimeUnit.MILLISECONDS.toNanos(10));
+		}
+
+		//	Then / Assert
+		assertTrue(limit.getLimit() > 20, "limit " + limit.getLimit());
+	}
+
+	@Test
+	@DisplayName("test Given Latency Rising Past Tolerance When Windows Pass then Lower Limit Towards Min")
+	void testGivenLatencyRisingPastTolerance_WhenWindowsPass_thenLowerLimitTowardsMin() {
+		// Given / Arrange
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 4, 200, 1.5, WINDOW, now);
+		runWindow(limit, 40, TimeUnit.MILLISECONDS.toNanos(10));
+		int before = limit.getLimit();
+
+		// When / Act
+		for (int window = 0; window < 30; window++) {
+			runWindow(limit, limit.getLimit(), TimeUnit.MILLISECONDS.toNanos(100));
+		}
+
+		//	Then / Assert
+		assertTrue(limit.getLimit() < before / 2, before + " -> " + limit.getLimit());
+		assertTrue(limit.getLimit() >= 4);
+	}
+
+	@Test
+	@DisplayName("test Given Little Of Limit Used When Windows Pass then Keep Limit")
+	void testGivenLittleOfLimitUsed_WhenWindowsPass_thenKeepLimit() {
+		// Given / Arrange
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200, 1.5, WINDOW, now);
+
+		// When / Act
+		for (int window = 0; window < 10; window++) {
+			runWindow(limit, 2, TimeUnit.MILLISECONDS.toNanos(10));
+		}
+
+		//	Then / Assert
+		assertEquals(20, limit.getLimit());
+	}
+
+	@Test
+	@DisplayName("test Given Limit In Flight When Acquire then Refuse Until Released")
+	void testGivenLimitInFlight_WhenAcquire_thenRefuseUntilReleased() {
+		// Given / Arrange
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 4, 4, 1.5, WINDOW, now);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(limit.tryAcquire());
+		}
+
+		// When / Act
+		boolean over = limit.tryAcquire();
+		limit.release(now, now, false);
+
+		//	Then / Assert
+		assertFalse(over);
+		assertTrue(limit.tryAcquire());
+		assertEquals(4, limit.getInFlight());
+	}
+
+	// concurrent requests at once, each taking rtt, repeated until the window is over
+	private void runWindow(AdaptiveConcurrencyLimit limit, int concurrent, long rtt) {
+		long end = now + WINDOW;
+		while (now < end) {
+			int acquired = 0;
+			while (acquired < concurrent && limit.tryAcquire()) {
+				acquired++;
+			}
+			now += rtt;
+			for (int i = 0; i < acquired; i++) {
+				limit.release(now - rtt, now, true);
+			}
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package br.com.smms.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+class AdmissionControlFilterTest {
+
+	private MeterRegistry meterRegistry;
+	private AdmissionProperties properties;
+	private ApplicationAvailabilityBean availability;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		properties = new AdmissionProperties();
+		availability = new ApplicationAvailabilityBean();
+		availability.onApplicationEvent(new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC));
+		properties.getApiKeys().addAll(List.of("abuser", "other", "client-0", "client-1", "client-2", "client-3",
+				"client-5"));
+	}
+
+	@Test
+	@DisplayName("test Given Client Over Its Rate When Find All then Return Too Many Requests With Retry After")
+	void testGivenClientOverItsRate_WhenFindAll_thenReturnTooManyRequestsWithRetryAfter() throws Exception {
+		// Given / Arrange
+		AdmissionControlFilter filter = filter();
+		for (int i = 0; i < 6; i++) {
+			assertEquals(200, send(filter, get("/person", "abuser"), new MockFilterChain()).getStatus());
+		}
+
+		// When / Act
+		MockHttpServletResponse response = send(filter, get("/person", "abuser"), new MockFilterChain());
+
+		//	Then / Assert
+		assertEquals(429, response.getStatus());
+		assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+		assertTrue(response.getContentAsString().contains("Rate limit exceeded"));
+		assertEquals(1, meterRegistry.get(AdmissionControlFilter.REJECTED_COUNTER).tag("reason", "rate").counter().count());
+	}
+
+	@Test
+	@DisplayName("test Given Client Out Of Tokens For Lists When Find Page Or By Id then Admit Cheaper Calls Of Other Clients")
+	void testGivenClientOutOfTokensForLists_WhenFindPageOrById_thenAdmitCheaperCallsOfOtherClients() throws Exception {
+		// Given / Arrange
+		properties.getRate().setRefillPerSecond(1);
+		AdmissionControlFilter filter = filter();
+		for (int i = 0; i < 6; i++) {
+			send(filter, get("/person", "abuser"), new MockFilterChain());
+		}
+		MockHttpServletRequest page = get("/person", "other");
+		page.setParameter("limit", "50");
+
+		// When / Act
+		MockHttpServletResponse byId = send(filter, get("/person/1", "other"), new MockFilterChain());
+		MockHttpServletResponse paged = send(filter, page, new MockFilterChain());
+		MockHttpServletResponse abuser = send(filter, get("/person/1", "abuser"), new MockFilterChain());
+
+		//	Then / Assert
+		assertEquals(200, byId.getStatus());
+		assertEquals(200, paged.getStatus());
+		assertEquals(429, abuser.getStatus());
+	}
+
+	@Test
+	@DisplayName("test Given Requests Without Key When Sent then Limit By Address")
+	void testGivenRequestsWithoutKey_WhenSent_thenLimitByAddress() throws Exception {
+		// Given / Arrange
+		AdmissionControlFilter filter = filter();
+		MockHttpServletRequest other = get("/person", null);
+		other.setRemoteAddr("10.0.0.2");
+		for (int i = 0; i < 6; i++) {
+			send(filter, get("/person", null), new MockFilterChain());
+		}
+
+		// When / Act
+		MockHttpServletResponse sameAddress = send(filter, get("/person", null), new MockFilterChain());
+		MockHttpServletResponse otherAddress = send(filter, other, new MockFilterChain());
+
+		//	Then / Assert
+		assertEquals(429, sameAddress.getStatus());
+		assertEquals(200, otherAddress.getStatus());
+	}
+
+	@Test
+	@DisplayName("test Given New Unknown Key Per Request When Sent then Limit By Address")
+	void testGivenNewUnknownKeyPerRequest_WhenSent_thenLimitByAddress() throws Exception {
+		// Given / Arrange
+		AdmissionControlFilter filter = filter();
+		for (int i = 0; i < 6; i++) {
+			send(filter, get("/person", "unknown-" + i), new MockFilterChain());
+		}
+
+		// When / Act
+		MockHttpServletResponse unknownKey = send(filter, get("/person", "unknown-6"), new MockFilterChain());
+		MockHttpServletResponse knownKey = send(filter, get("/person", "other"), new MockFilterChain());
+
+		//	Then / Assert
+		assertEquals(429, unknownKey.getStatus());
+		assertEquals(200, knownKey.getStatus());
+	}
+
+	@Test
+	@DisplayName("test Given Concurrency Limit Reached When Request Sent then Return Service Unavailable")
+	void testGivenConcurrencyLimitReached_WhenRequestSent_thenReturnServiceUnavailable() throws Exception {
+		// Given / Arrange
+		properties.getConcurrency().setInitialLimit(4);
+		AdmissionControlFilter filter = filter();
+		CountDownLatch started = new CountDownLatch(4);
+		CountDownLatch release = new CountDownLatch(1);
+		FilterChain blocking = (req, res) -> {
+			started.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<?>[] running = new Future<?>[4];
+			for (int i = 0; i < 4; i++) {
+				String client = "client-" + i;
+				running[i] = executor.submit(() -> send(filter, get("/person/1", client), blocking));
+			}
+			assertTrue(started.await(10, TimeUnit.SECONDS));
+
+			// When / Act
+			MockHttpServletResponse response = send(filter, get("/person/1", "client-5"), new MockFilterChain());
+			release.countDown();
+			for (Future<?> future : running) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+
+			//	Then / Assert
+			assertEquals(503, response.getStatus());
+			assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+			assertEquals(200, send(filter, get("/person/1", "client-5"), new MockFilterChain()).getStatus());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	@DisplayName("test Given Instance Not Ready Yet When Warm-Up Requests Over Rate then Admit Them")
+	void testGivenInstanceNotReadyYet_WhenWarmUpRequestsOverRate_thenAdmitThem() throws Exception {
+		// Given / Arrange
+		availability = new ApplicationAvailabilityBean();
+		availability.onApplicationEvent(new AvailabilityChangeEvent<>(this, ReadinessState.REFUSING_TRAFFIC));
+		AdmissionControlFilter filter = filter();
+
+		// When / Act
+		List<Integer> statuses = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			statuses.add(send(filter, get("/person", null), new MockFilterChain()).getStatus());
+		}
+		availability.onApplicationEvent(new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC));
+		for (int i = 0; i < 7; i++) {
+			statuses.add(send(filter, get("/person", null), new MockFilterChain()).getStatus());
+		}
+
+		//	Then / Assert
+		assertEquals(10 + 6, statuses.stream().filter(status -> status == 200).count());
+		assertEquals(429, statuses.get(16));
+	}
+
+	@Test
+	@DisplayName("test Given Cost Above Capacity When Create Filter then Throw Illegal Argument")
+	void testGivenCostAboveCapacity_WhenCreateFilter_thenThrowIllegalArgument() {
+		// Given / Arrange
+		properties.getCosts().put("GET /person/export", 601);
+
+		// When / Act
+		IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, this::filter);
+
+		//	Then / Assert
+		assertTrue(exception.getMessage().contains("GET /person/export"));
+	}
+
+	private AdmissionControlFilter filter() {
+		return new AdmissionControlFilter(properties, new ObjectMapper().registerModule(new JavaTimeModule()),
+				availability, meterRegistry);
+	}
+
+	private static MockHttpServletRequest get(String uri, String key) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		if (key != null) {
+			request.addHeader("X-API-Key", key);
+		}
+		return request;
+	}
+
+	private static MockHttpServletResponse send(AdmissionControlFilter filter, MockHttpServletRequest request,
+			FilterChain chain) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+}
@@ -0,0 +1,136 @@
+package br.com.smms.changes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonChange;
+import br.com.smms.model.PersonChangePage;
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.services.PersonChangeService;
+import br.com.smms.services.PersonService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("embedded")
+class PersonChangeCaptureTest {
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private PersonChangeService personChangeService;
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	@DisplayName("test Given Writes When Find Changes then Return One Ordered Change Per Write")
+	void testGivenWrites_WhenFindChanges_thenReturnOneOrderedChangePerWrite() {
+		// Given / Arrange
+		long since = last(0L);
+		Person person = personService.create(new Person("Nelson", "Piquet", "Rio", "Male", "piquet@test.com"));
+		person.setAddress("Brasilia");
+		personService.update(person);
+		personService.patch(person.getId(), Map.of("lastName", "Souto Maior"), 1L);
+		personService.delete(person.getId());
+
+		// When / Act
+		PersonChangePage page = personChangeService.findSince(since, 10);
+
+		//	Then / Assert
+		List<PersonChange> changes = page.getChanges();
+		assertEquals(List.of(PersonChange.Type.CREATED, PersonChange.Type.UPDATED, PersonChange.Type.UPDATED,
+				PersonChange.Type.DELETED), changes.stream().map(PersonChange::getType).toList());
+		for (int i = 0; i < changes.size(); i++) {
+			assertEquals(person.getId(), changes.get(i).getPersonId());
+			assertEquals(since + i + 1, changes.get(i).getSequence());
+		}
+		assertEquals(0L, changes.get(0).getVersion());
+		assertEquals("Brasilia", changes.get(1).getAddress());
+		assertEquals(2L, changes.get(2).getVersion());
+		assertEquals("Souto Maior", changes.get(2).getLastName());
+		assertNull(changes.get(2).getFirstName());
+		assertEquals(changes.get(3).getSequence(), page.getNextSince());
+	}
+
+	@Test
+	@DisplayName("test Given Patch Without Expected Version When Find Changes then Carry The New Version")
+	void testGivenPatchWithoutExpectedVersion_WhenFindChanges_thenCarryTheNewVersion() {
+		// Given / Arrange
+		Person person = personService.create(new Person("Emerson", "Fittipaldi", "Sao Paulo", "Male", "fittipaldi@test.com"));
+		personService.patch(person.getId(), Map.of("address", "Miami"), 0L);
+		long since = last(0L);
+		personService.patch(person.getId(), Map.of("lastName", "Fittipaldi Jr"), null);
+
+		// When / Act
+		PersonChangePage page = personChangeService.findSince(since, 10);
+
+		//	Then / Assert
+		assertEquals(1, page.getChanges().size());
+		assertEquals(2L, page.getChanges().get(0).getVersion());
+		assertEquals(2L, personRepository.findById(person.getId()).get().getVersion());
+	}
+
+	@Test
+	@DisplayName("test Given Rolled Back Write When Find Changes then Return Nothing")
+	void testGivenRolledBackWrite_WhenFindChanges_thenReturnNothing() {
+		// Given / Arrange
+		long since = last(0L);
+		assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+			personRepository.saveAndFlush(new Person("Emerson", "Fittipaldi", "Sao Paulo", "Male", "emerson@test.com"));
+			throw new IllegalStateException("rolled back");
+		}));
+
+		// When / Act
+		PersonChangePage page = personChangeService.findSince(since, 10);
+
+		//	Then / Assert
+		assertTrue(page.getChanges().isEmpty());
+		assertEquals(since, page.getNextSince());
+	}
+
+	@Test
+	@DisplayName("test Given Waiting Reader When Person Created then Answer Before Wait Is Over")
+	void testGivenWaitingReader_WhenPersonCreated_thenAnswerBeforeWaitIsOver() throws Exception {
+		// Given / Arrange
+		long since = last(0L);
+		CompletableFuture<PersonChangePage> waiting = personChangeService.awaitSince(since, 10, Duration.ofSeconds(20));
+		long start = System.nanoTime();
+
+		// When / Act
+		personService.create(new Person("Rubens", "Barrichello", "Sao Paulo", "Male", "rubens@test.com"));
+		PersonChangePage page = waiting.get(10, TimeUnit.SECONDS);
+
+		//	Then / Assert
+		assertEquals(1, page.getChanges().size());
+		assertEquals(PersonChange.Type.CREATED, page.getChanges().get(0).getType());
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+	}
+
+	// Sequence of the newest change, so each test only looks at its own
+	private long last(long since) {
+		for (PersonChangePage page = personChangeService.findSince(since, PersonChangeService.MAX_PAGE_SIZE);
+				!page.getChanges().isEmpty(); page = personChangeService.findSince(since, PersonChangeService.MAX_PAGE_SIZE)) {
+			since = page.getNextSince();
+		}
+		return since;
+	}
+}
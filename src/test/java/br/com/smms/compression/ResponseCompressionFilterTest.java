@@ -0,0 +1,161 @@
+package br.com.smms.compression;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+class ResponseCompressionFilterTest {
+
+	private MeterRegistry meterRegistry;
+	private ResponseCompressionFilter filter;
+	private MockHttpServletRequest request;
+	private MockHttpServletResponse response;
+	private byte[] body;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		filter = new ResponseCompressionFilter(new CompressionProperties(), meterRegistry);
+		request = new MockHttpServletRequest("GET", "/person");
+		response = new MockHttpServletResponse();
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < 200; i++) {
+			json.append(i == 0 ? "" : ",").append("{\"id\":").append(i)
+				.append(",\"firstName\":\"First\",\"lastName\":\"Last\",\"email\":\"person").append(i).append("@test.com\"}");
+		}
+		body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	@DisplayName("test Given Gzip Accepted When Large JSON Written then Return Gzip Body")
+	void testGivenGzipAccepted_WhenLargeJsonWritten_thenReturnGzipBody() throws Exception {
+		// Given / Arrange
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+		// When / Act
+		filter.doFilter(request, response, write(MediaType.APPLICATION_JSON_VALUE, body));
+
+		//	Then / Assert
+		assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+		assertNull(response.getHeader(HttpHeaders.CONTENT_LENGTH));
+		assertTrue(response.getContentAsByteArray().length < body.length / 4);
+		assertArrayEquals(body, new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes());
+		assertEquals(body.length, meterRegistry.get(ResponseCompressionFilter.RESPONSE_BYTES)
+				.tags("encoding", "gzip", "stage", "body").summary().totalAmount());
+		assertEquals(response.getContentAsByteArray().length, meterRegistry.get(ResponseCompressionFilter.RESPONSE_BYTES)
+				.tags("encoding", "gzip", "stage", "wire").summary().totalAmount());
+	}
+
+	@Test
+	@DisplayName("test Given Zstd And Gzip Accepted When Large JSON Written then Prefer Zstd")
+	void testGivenZstdAndGzipAccepted_WhenLargeJsonWritten_thenPreferZstd() throws Exception {
+		// Given / Arrange
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, br, zstd");
+
+		// When / Act
+		filter.doFilter(request, response, write(MediaType.APPLICATION_JSON_VALUE, body));
+
+		//	Then / Assert
+		assertEquals("zstd", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		try (InputStream in = new ZstdInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+			assertArrayEquals(body, in.readAllBytes());
+		}
+	}
+
+	@Test
+	@DisplayName("test Given Zstd Refused When Large JSON Written then Fall Back To Gzip")
+	void testGivenZstdRefused_WhenLargeJsonWritten_thenFallBackToGzip() throws Exception {
+		// Given / Arrange
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "zstd;q=0, *");
+
+		// When / Act
+		filter.doFilter(request, response, write(MediaType.APPLICATION_JSON_VALUE, body));
+
+		//	Then / Assert
+		assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	@Test
+	@DisplayName("test Given Body Under Min Size When Written then Send As Is With Length")
+	void testGivenBodyUnderMinSize_WhenWritten_thenSendAsIsWithLength() throws Exception {
+		// Given / Arrange
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		byte[] small = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+		// When / Act
+		filter.doFilter(request, response, write(MediaType.APPLICATION_JSON_VALUE, small));
+
+		//	Then / Assert
+		assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(String.valueOf(small.length), response.getHeader(HttpHeaders.CONTENT_LENGTH));
+		assertArrayEquals(small, response.getContentAsByteArray());
+	}
+
+	@Test
+	@DisplayName("test Given Media Type Without Rule When Large Body Written then Send As Is")
+	void testGivenMediaTypeWithoutRule_WhenLargeBodyWritten_thenSendAsIs() throws Exception {
+		// Given / Arrange
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+		// When / Act
+		filter.doFilter(request, response, write("application/x-protobuf", body));
+
+		//	Then / Assert
+		assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertArrayEquals(body, response.getContentAsByteArray());
+	}
+
+	@Test
+	@DisplayName("test Given Event Stream When Flushed then Send Before Min Size")
+	void testGivenEventStream_WhenFlushed_thenSendBeforeMinSize() throws Exception {
+		// Given / Arrange
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		byte[] event = "data:{\"id\":1}\n\n".getBytes(StandardCharsets.UTF_8);
+		int[] sent = new int[1];
+
+		// When / Act
+		filter.doFilter(request, response, (req, res) -> {
+			res.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+			res.getOutputStream().write(event);
+			res.flushBuffer();
+			sent[0] = response.getContentAsByteArray().length;
+		});
+
+		//	Then / Assert
+		assertEquals(event.length, sent[0]);
+		assertTrue(response.isCommitted());
+		assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	private static FilterChain write(String contentType, byte[] content) {
+		return (req, res) -> {
+			res.setContentType(contentType);
+			// Written in pieces and flushed, as the message converters do
+			for (int offset = 0; offset < content.length; offset += 1000) {
+				res.getOutputStream().write(content, offset, Math.min(1000, content.length - offset));
+			}
+			res.getOutputStream().flush();
+		};
+	}
+}
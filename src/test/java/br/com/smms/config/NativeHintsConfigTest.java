@@ -0,0 +1,32 @@
+package br.com.smms.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import br.com.smms.exceptions.ExceptionResponse;
+import br.com.smms.model.Person;
+import br.com.smms.sharding.PersonIdGenerator;
+
+class NativeHintsConfigTest {
+
+	@Test
+	@DisplayName("test Given Person Runtime Hints When Register then Cover Reflection And Migrations")
+	void testGivenPersonRuntimeHints_WhenRegister_thenCoverReflectionAndMigrations() {
+		// Given / Arrange
+		RuntimeHints hints = new RuntimeHints();
+
+		// When / Act
+		new NativeHintsConfig.PersonRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+		// Then / Assert
+		assertTrue(RuntimeHintsPredicates.reflection().onMethod(Person.class, "setEmail").test(hints));
+		assertTrue(RuntimeHintsPredicates.reflection().onMethod(ExceptionResponse.class, "getMessage").test(hints));
+		assertTrue(RuntimeHintsPredicates.reflection().onType(PersonIdGenerator.class).test(hints));
+		assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/mysql/V1__create_person.sql")
+				.test(hints));
+	}
+}
@@ -0,0 +1,175 @@
+package br.com.smms.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+class NegativeCachingCaffeineCacheTest {
+
+	private final AtomicLong now = new AtomicLong();
+	private Cache<Object, Object> found;
+	private Cache<Object, Object> missing;
+	private NegativeCachingCaffeineCache cache;
+
+	@BeforeEach
+	void setUp() {
+		found = Caffeine.newBuilder()
+				.ticker(now::get)
+				.executor(Runnable::run)
+				.expireAfterWrite(Duration.ofMinutes(10))
+				.maximumSize(100)
+				.build();
+		missing = Caffeine.newBuilder()
+				.ticker(now::get)
+				.executor(Runnable::run)
+				.expireAfterWrite(Duration.ofSeconds(10))
+				.maximumSize(10)
+				.build();
+		cache = new NegativeCachingCaffeineCache(CacheConfig.PERSON_CACHE, found, missing);
+	}
+
+	@Test
+	@DisplayName("test Given Missing Key When Get Twice then Load Once And Keep Miss Apart")
+	void testGivenMissingKey_WhenGetTwice_thenLoadOnceAndKeepMissApart() {
+		// Given / Arrange
+		AtomicInteger loads = new AtomicInteger();
+
+		// When / Act
+		Object first = cache.get(1L, () -> {
+			loads.incrementAndGet();
+			return null;
+		});
+		Object second = cache.get(1L, () -> {
+			loads.incrementAndGet();
+			return null;
+		});
+
+		//	Then / Assert
+		assertNull(first);
+		assertNull(second);
+		assertEquals(1, loads.get());
+		assertNotNull(cache.get(1L));
+		assertEquals(0, found.estimatedSize());
+		assertEquals(1, missing.estimatedSize());
+	}
+
+	@Test
+	@DisplayName("test Given Cached Miss And Value When Miss TTL Passes then Reload Miss Only")
+	void testGivenCachedMissAndValue_WhenMissTtlPasses_thenReloadMissOnly() {
+		// Given / Arrange
+		cache.get(1L, () -> null);
+		cache.get(2L, () -> "person 2");
+
+		// When / Act
+		now.addAndGet(TimeUnit.SECONDS.toNanos(11));
+
+		//	Then / Assert
+		assertNull(cache.get(1L));
+		assertEquals("person 2", cache.get(2L).get());
+	}
+
+	@Test
+	@DisplayName("test Given More Misses Than Their Bound When Get then Keep Every Value")
+	void testGivenMoreMissesThanTheirBound_WhenGet_thenKeepEveryValue() {
+		// Given / Arrange
+		for (long id = 1; id <= 50; id++) {
+			long value = id;
+			cache.get(id, () -> "person " + value);
+		}
+
+		// When / Act
+		for (long id = 1000; id < 1100; id++) {
+			cache.get(id, () -> null);
+		}
+		found.cleanUp();
+		missing.cleanUp();
+
+		//	Then / Assert
+		assertEquals(50, found.estimatedSize());
+		assertEquals(10, missing.estimatedSize());
+	}
+
+	@Test
+	@DisplayName("test Given Cached Miss When Put Value then Return Value")
+	void testGivenCachedMiss_WhenPutValue_thenReturnValue() {
+		// Given / Arrange
+		cache.get(1L, () -> null);
+
+		// When / Act
+		cache.put(1L, "person 1");
+
+		//	Then / Assert
+		assertEquals("person 1", cache.get(1L).get());
+		assertNull(missing.getIfPresent(1L));
+	}
+
+	@Test
+	@DisplayName("test Given Async Cache When Get Missing And Found Keys then Cache Miss Apart")
+	void testGivenAsyncCache_WhenGetMissingAndFoundKeys_thenCacheMissApart() {
+		// Given / Arrange
+		AsyncCache<Object, Object> asyncFound = Caffeine.newBuilder().maximumSize(100).buildAsync();
+		cache = new NegativeCachingCaffeineCache(CacheConfig.PERSON_CACHE, asyncFound, missing);
+
+		// When / Act
+		Object absent = cache.get(1L, () -> null);
+		Object present = cache.get(2L, () -> "person 2");
+
+		//	Then / Assert
+		assertNull(absent);
+		assertEquals("person 2", present);
+		assertEquals(1, asyncFound.synchronous().estimatedSize());
+		assertNotNull(missing.getIfPresent(1L));
+	}
+
+	@Test
+	@DisplayName("test Given Stale Miss Next To Value When Get With Loader then Return Value")
+	void testGivenStaleMissNextToValue_WhenGetWithLoader_thenReturnValue() {
+		// Given / Arrange
+		found.put(1L, "person 1");
+		missing.put(1L, "stale");
+		AtomicInteger loads = new AtomicInteger();
+
+		// When / Act
+		Object value = cache.get(1L, () -> {
+			loads.incrementAndGet();
+			return null;
+		});
+
+		//	Then / Assert
+		assertEquals("person 1", value);
+		assertEquals(0, loads.get());
+	}
+
+	@Test
+	@DisplayName("test Given Put During Load When Load Misses then Keep Value And Record No Miss")
+	void testGivenPutDuringLoad_WhenLoadMisses_thenKeepValueAndRecordNoMiss() {
+		// Given / Arrange
+		// The async cache runs the load outside the map lock, so a create can store the key meanwhile
+		AsyncCache<Object, Object> asyncFound = Caffeine.newBuilder().maximumSize(100).buildAsync();
+		cache = new NegativeCachingCaffeineCache(CacheConfig.PERSON_CACHE, asyncFound, missing);
+
+		// When / Act
+		Object loaded = cache.get(1L, () -> {
+			cache.put(1L, "person 1");
+			return null;
+		});
+
+		//	Then / Assert
+		assertNull(loaded);
+		assertNull(missing.getIfPresent(1L));
+		assertEquals("person 1", cache.get(1L, () -> null));
+	}
+}
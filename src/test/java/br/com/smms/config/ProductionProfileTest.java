@@ -0,0 +1,78 @@
+package br.com.smms.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.smms.model.Person;
+import br.com.smms.repositories.PersonRepository;
+
+// H2 ignores the MySQL driver properties of application-production.yml; ddl-auto validate
+// (with the JDBC metadata access it needs) makes Hibernate check the Flyway schema against
+// the entity mapping
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"spring.datasource.url=jdbc:h2:mem:production;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORE_UNKNOWN_SETTINGS=TRUE",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true" })
+@ActiveProfiles({ "embedded", "production" })
+class ProductionProfileTest {
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private Environment environment;
+
+	@Test
+	@DisplayName("test Given Production Profile When Start then Schema Comes From Migrations And Matches The Mapping")
+	void testGivenProductionProfile_WhenStart_thenSchemaComesFromMigrationsAndMatchesTheMapping() {
+		// When / Act
+		Person person = personRepository.save(new Person("Ayrton", "Senna", "Sao Paulo", "Male", "senna@test.com"));
+
+		// Then / Assert
+		assertEquals(1, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"version\" = '1' AND \"success\"", Integer.class));
+		assertEquals(person.getId(), personRepository.findByEmail("senna@test.com").orElseThrow().getId());
+	}
+
+	@Test
+	@DisplayName("test Given Slower Override When Validate Production Settings then Refuse To Start")
+	void testGivenSlowerOverride_WhenValidateProductionSettings_thenRefuseToStart() {
+		// Given / Arrange
+		MockEnvironment overridden = new MockEnvironment();
+		for (String property : new String[] { "spring.jpa.open-in-view", "spring.flyway.enabled",
+				"spring.datasource.hikari.maximum-pool-size", "spring.jpa.properties.hibernate.jdbc.fetch_size",
+				"spring.jpa.properties.hibernate.query.plan_cache_max_size",
+				"spring.datasource.hikari.data-source-properties.cachePrepStmts",
+				"spring.datasource.hikari.data-source-properties.useServerPrepStmts",
+				"spring.datasource.hikari.data-source-properties.rewriteBatchedStatements" }) {
+			overridden.setProperty(property, environment.getProperty(property));
+		}
+		overridden.setProperty("spring.datasource.url", "jdbc:mysql://localhost:3306/rest_with_spring_boot");
+		overridden.setProperty("spring.jpa.hibernate.ddl-auto", "update");
+		overridden.setProperty("spring.jpa.properties.hibernate.jdbc.batch_size", "1");
+		ProductionSettingsValidator validator = new ProductionSettingsValidator();
+		ReflectionTestUtils.setField(validator, "environment", overridden);
+
+		// When / Act
+		IllegalStateException exception = assertThrows(IllegalStateException.class, validator::afterPropertiesSet);
+
+		// Then / Assert
+		assertTrue(exception.getMessage().contains("spring.jpa.hibernate.ddl-auto"));
+		assertTrue(exception.getMessage().contains("hibernate.jdbc.batch_size must be at least 2 but is 1"));
+		assertTrue(!exception.getMessage().contains("cachePrepStmts"));
+	}
+}
@@ -0,0 +1,41 @@
+package br.com.smms.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import br.com.smms.sharding.ShardRoutingDataSource;
+import br.com.smms.sharding.ShardingProperties;
+
+class ShardingConfigTest {
+
+	@Test
+	@DisplayName("test Given Shard With Password Only When Create Data Source then Use The Shard Password")
+	void testGivenShardWithPasswordOnly_WhenCreateDataSource_thenUseTheShardPassword() {
+		// Given / Arrange
+		DataSourceProperties dataSourceProperties = new DataSourceProperties();
+		dataSourceProperties.setDriverClassName("org.h2.Driver");
+		dataSourceProperties.setUsername("sa");
+		dataSourceProperties.setPassword("default");
+		ShardingProperties properties = new ShardingProperties();
+		ShardingProperties.Shard shard = new ShardingProperties.Shard();
+		shard.setUrl("jdbc:h2:mem:password-only;MODE=MySQL");
+		shard.setPassword("shard-secret");
+		properties.getShards().add(shard);
+
+		// When / Act
+		try (ShardRoutingDataSource dataSource = new ShardingConfig().dataSource(dataSourceProperties,
+				new HikariConfig(), properties)) {
+
+			//	Then / Assert
+			HikariDataSource pool = (HikariDataSource) dataSource.getResolvedDefaultDataSource();
+			assertEquals("sa", pool.getUsername());
+			assertEquals("shard-secret", pool.getPassword());
+		}
+	}
+}
@@ -1,18 +1,37 @@
 package br.com.smms.controllers;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -20,17 +39,49 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import br.com.smms.config.MessageConvertersConfig;
+import br.com.smms.config.MetricsConfig;
+import br.com.smms.exceptions.NotImplementedException;
+import br.com.smms.exceptions.PreconditionFailedException;
 import br.com.smms.exceptions.ResourceNotFoundException;
+import br.com.smms.exceptions.TooManyRequestsException;
+import br.com.smms.model.BatchItemResult;
 import br.com.smms.model.Person;
+import br.com.smms.model.PersonChange;
+import br.com.smms.model.PersonChangePage;
+import br.com.smms.model.PersonDeltaPage;
+import br.com.smms.model.PersonPage;
+import br.com.smms.model.PersonWriteStatus;
+import br.com.smms.serialization.ColumnarPersonHttpMessageConverter;
+import br.com.smms.serialization.JacksonProtobufHttpMessageConverter;
+import br.com.smms.serialization.JacksonProtobufHttpMessageConverter.Items;
+import br.com.smms.services.PersonBatchService;
+import br.com.smms.services.PersonChangeService;
+import br.com.smms.services.PersonSearchService;
 import br.com.smms.services.PersonService;
+import br.com.smms.services.PersonWriteBehindService;
 
 @WebMvcTest
+@Import({ SimpleMeterRegistry.class, MessageConvertersConfig.class })
 class PersonControllerTest {
 
 	private static final long  PERSON_ID = 1L;
@@ -41,9 +92,26 @@ class PersonControllerTest {
 	@Autowired
 	private ObjectMapper objectMapper;
 	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	private final ProtobufMapper protobufMapper = new ProtobufMapper();
+	
 	@MockBean
 	private PersonService personService;
 	
+	@MockBean
+	private PersonBatchService personBatchService;
+	
+	@MockBean
+	private PersonWriteBehindService personWriteBehindService;
+	
+	@MockBean
+	private PersonSearchService personSearchService;
+	
+	@MockBean
+	private PersonChangeService personChangeService;
+	
 	private Person person, person2;
 	private List<Person> people;
 	
@@ -101,12 +169,181 @@ class PersonControllerTest {
 
 	}
 	
+	@Test
+	@DisplayName("test Given Cursor And Limit When FindAll Person then Return People Page")
+	void testGivenCursorAndLimit_WhenFindAllPerson_thenReturnPeoplePage() throws Exception {
+		// Given / Arrange
+		given(personService.findPage(PERSON_ID, 2)).willReturn(new PersonPage(people, 3L));
+		// When / Act
+		ResultActions response = mockMvc.perform(get("/person")
+				.param("after", String.valueOf(PERSON_ID))
+				.param("limit", "2"));
+		
+		//	Then / Assert
+		response
+			.andExpect(status().isOk())
+			.andDo(print())
+			.andExpect(jsonPath("$.content.size()", is(people.size())))
+			.andExpect(jsonPath("$.nextCursor", is(3)));
+
+	}
+	
+	@Test
+	@DisplayName("test Given Name Prefixes When Search Person then Return Paged People")
+	void testGivenNamePrefixes_WhenSearchPerson_thenReturnPagedPeople() throws Exception {
+		// Given / Arrange
+		given(personService.search("Last", "First", 0, 20))
+			.willReturn(new PageImpl<>(people, PageRequest.of(0, 20), people.size()));
+		// When / Act
+		ResultActions response = mockMvc.perform(get("/person/search")
+				.param("lastName", "Last")
+				.param("firstName", "First"));
+		
+		//	Then / Assert
+		response
+			.andExpect(status().isOk())
+			.andDo(print())
+			.andExpect(jsonPath("$.content.size()", is(people.size())))
+			.andExpect(jsonPath("$.page.totalElements", is(people.size())));
+
+	}
+	
+	@Test
+	@DisplayName("test Given Modified Since When Find All Person then Return Delta Page")
+	void testGivenModifiedSince_WhenFindAllPerson_thenReturnDeltaPage() throws Exception {
+		// Given / Arrange
+		Instant since = Instant.parse("2024-01-01T00:00:00Z");
+		given(personService.findModifiedSince(since, 5L, 50)).willReturn(
+				new PersonDeltaPage(List.of(person), List.of(9L), since.plusSeconds(1), 0L, false));
+		// When / Act
+		ResultActions response = mockMvc.perform(get("/person")
+				.param("modifiedSince", "2024-01-01T00:00:00Z")
+				.param("after", "5")
+				.param("limit", "50"));
+		
+		//	Then / Assert
+		response
+			.andExpect(status().isOk())
+			.andDo(print())
+			.andExpect(jsonPath("$.changed[0].firstName", is(person.getFirstName())))
+			.andExpect(jsonPath("$.deleted[0]", is(9)))
+			.andExpect(jsonPath("$.nextModifiedSince", is("2024-01-01T00:00:01Z")))
+			.andExpect(jsonPath("$.more", is(false)));
+		verify(personService, never()).findPage(any(), any(Integer.class));
+	}
+	
+	@Test
+	@DisplayName("test Given Text Query When Search Person Text then Return Ranked People")
+	void testGivenTextQuery_WhenSearchPersonText_thenReturnRankedPeople() throws Exception {
+		// Given / Arrange
+		given(personSearchService.search("firts tes", 5, true)).willReturn(List.of(person2, person));
+		// When / Act
+		ResultActions response = mockMvc.perform(get("/person/search/text")
+				.param("q", "firts tes")
+				.param("limit", "5"));
+		
+		//	Then / Assert
+		response
+			.andExpect(status().isOk())
+			.andDo(print())
+			.andExpect(jsonPath("$.size()", is(people.size())))
+			.andExpect(jsonPath("$[0].firstName", is(person2.getFirstName())));
+	}
+	
+	@Test
+	@DisplayName("test Given Since When Find Changes then Return Page Without Waiting")
+	void testGivenSince_WhenFindChanges_thenReturnPageWithoutWaiting() throws Exception {
+		// Given / Arrange
+		PersonChange change = new PersonChange(PersonChange.Type.DELETED, 1L, null);
+		change.setSequence(8L);
+		given(personChangeService.findSince(7L, 100)).willReturn(new PersonChangePage(List.of(change), 8L));
+		// When / Act
+		MvcResult result = mockMvc.perform(get("/person/changes").param("since", "7"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		ResultActions response = mockMvc.perform(asyncDispatch(result));
+		
+		//	Then / Assert
+		response
+			.andExpect(status().isOk())
+			.andDo(print())
+			.andExpect(jsonPath("$.changes[0].type", is("DELETED")))
+			.andExpect(jsonPath("$.changes[0].personId", is(1)))
+			.andExpect(jsonPath("$.nextSince", is(8)));
+		verify(personChangeService, never()).awaitSince(any(Long.class), any(Integer.class), any());
+	}
+	
+	@Test
+	@DisplayName("test Given Prefer Wait When Find Changes then Long Poll")
+	void testGivenPreferWait_WhenFindChanges_thenLongPoll() throws Exception {
+		// Given / Arrange
+		given(personChangeService.awaitSince(7L, 10, Duration.ofSeconds(15)))
+				.willReturn(CompletableFuture.completedFuture(new PersonChangePage(List.of(), 7L)));
+		// When / Act
+		MvcResult result = mockMvc.perform(get("/person/changes")
+				.param("since", "7")
+				.param("limit", "10")
+				.header("Prefer", "respond-async, wait=15"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		ResultActions response = mockMvc.perform(asyncDispatch(result));
+		
+		//	Then / Assert
+		response
+			.andExpect(status().isOk())
+			.andDo(print())
+			.andExpect(jsonPath("$.changes.size()", is(0)))
+			.andExpect(jsonPath("$.nextSince", is(7)));
+	}
+	
+	@Test
+	@DisplayName("test Given Sharded Tables When Find Changes then Return Not Implemented")
+	void testGivenShardedTables_WhenFindChanges_thenReturnNotImplemented() throws Exception {
+		// Given / Arrange
+		given(personChangeService.findSince(0L, 100))
+				.willThrow(new NotImplementedException("Person changes are not available with sharding"));
+		// When / Act
+		ResultActions response = mockMvc.perform(get("/person/changes").accept(MediaType.APPLICATION_JSON));
+		
+		//	Then / Assert
+		response
+			.andExpect(status().isNotImplemented())
+			.andDo(print())
+			.andExpect(jsonPath("$.message", is("Person changes are not available with sharding")));
+	}
+	
+	@Test
+	@DisplayName("test Given People List When Stream All Person then Return NDJSON Lines")
+	@SuppressWarnings("unchecked")
+	void testGivenPeopleList_WhenStreamAllPerson_thenReturnNdjsonLines() throws Exception {
+		// Given / Arrange
+		willAnswer((invocation) -> {
+			Consumer<Person> consumer = invocation.getArgument(0);
+			people.forEach(consumer);
+			return null;
+		}).given(personService).streamAll(any(Consumer.class));
+		// When / Act
+		MvcResult result = mockMvc.perform(get("/person").accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		ResultActions response = mockMvc.perform(asyncDispatch(result));
+		
+		//	Then / Assert
+		response
+			.andExpect(status().isOk())
+			.andDo(print())
+			.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+			.andExpect(content().string(
+					objectMapper.writeValueAsString(person) + "\n" + objectMapper.writeValueAsString(person2) + "\n"));
+
+	}
+	
 	@Test
 	@DisplayName("test Given Person Id When FindById then Return Person Object")
 	void testGivenPersonId_WhenFindById_thenReturnPersonObject() throws Exception {
 		// Given / Arrange
 
-		given(personService.findById(PERSON_ID)).willReturn(person);
+		given(personService.findById(PERSON_ID)).willReturn(Optional.of(person));
 		
 		// When / Act
 		ResultActions response = mockMvc.perform(get("/person/{id}", PERSON_ID));
@@ -125,7 +362,7 @@ class PersonControllerTest {
 	void testGivenInvalidPersonId_WhenFindById_thenReturnNotFound() throws Exception {
 		// Given / Arrange
 
-		given(personService.findById(PERSON_ID)).willThrow(ResourceNotFoundException.class);
+		given(personService.findById(PERSON_ID)).willReturn(Optional.empty());
 		
 		// When / Act
 		ResultActions response = mockMvc.perform(get("/person/{id}", PERSON_ID));
@@ -143,7 +380,7 @@ class PersonControllerTest {
 		// Given / Arrange
 		person.setId(PERSON_ID);
 		
-		given(personService.findById(PERSON_ID)).willReturn(person);
+		given(personService.findById(PERSON_ID)).willReturn(Optional.of(person));
 		
 		given(personService.update(any(Person.class)))
 			.will((invocation) -> invocation.getArgument(0));
@@ -172,10 +409,10 @@ class PersonControllerTest {
 	void testGivenUnexistentPerson_WhenUpdatePerson_thenReturnNotFound() throws Exception {
 		// Given / Arrange
 		person.setId(PERSON_ID);
-		given(personService.findById(PERSON_ID)).willThrow(ResourceNotFoundException.class);
+		given(personService.findById(PERSON_ID)).willReturn(Optional.empty());
 		
 		given(personService.update(any(Person.class)))
-			.will((invocation) -> invocation.getArgument(1));
+			.willThrow(new ResourceNotFoundException("No records found this ID!"));
 		
 		Person personUpdated = new Person("First Updated Test", 
 				"Last Updated Test",
@@ -200,9 +437,9 @@ class PersonControllerTest {
 		// Given / Arrange
 		person.setId(PERSON_ID);
 		
-		given(personService.findById(PERSON_ID)).willReturn(person);
+		given(personService.findById(PERSON_ID)).willReturn(Optional.of(person));
 		
-		willDoNothing().given(personService).delete(PERSON_ID);
+		willDoNothing().given(personService).delete(PERSON_ID, null);
 		
 		// When / Act
 		ResultActions response = mockMvc.perform(delete("/person/{id}", person.getId()));
@@ -212,5 +449,431 @@ class PersonControllerTest {
 			.andDo(print());
 
 	}
+	
+	@Test
+	@DisplayName("test Given Current ETag When FindById then Return Not Modified Without Body")
+	void testGivenCurrentETag_WhenFindById_thenReturnNotModifiedWithoutBody() throws Exception {
+		// Given / Arrange
+		person.setVersion(3L);
+		given(personService.findById(PERSON_ID)).willReturn(Optional.of(person));
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(get("/person/{id}", PERSON_ID)
+				.header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+		
+		// Then / Assert
+		response.andExpect(status().isNotModified())
+			.andDo(print())
+			.andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+			.andExpect(content().string(""));
+		
+	}
+	
+	@Test
+	@DisplayName("test Given Stale If-Match When Update Person then Return Precondition Failed")
+	void testGivenStaleIfMatch_WhenUpdatePerson_thenReturnPreconditionFailed() throws Exception {
+		// Given / Arrange
+		person.setId(PERSON_ID);
+		given(personService.update(any(Person.class))).willAnswer((invocation) -> {
+			Person argument = invocation.getArgument(0);
+			if (!Long.valueOf(3L).equals(argument.getVersion())) {
+				throw new PreconditionFailedException("Person was modified, current version is 3");
+			}
+			return argument;
+		});
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(put("/person")
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.IF_MATCH, "\"2\"")
+				.content(objectMapper.writeValueAsString(person)));
+		
+		// Then / Assert
+		response.andExpect(status().isPreconditionFailed())
+			.andDo(print());
+		
+	}
+	
+	@Test
+	@DisplayName("test Given Stale If-Match When Delete then Return Precondition Failed")
+	void testGivenStaleIfMatch_WhenDelete_thenReturnPreconditionFailed() throws Exception {
+		// Given / Arrange
+		double counted = meterRegistry.counter(MetricsConfig.EXCEPTION_COUNTER,
+				"exception", "PreconditionFailedException", "status", "412").count();
+		willThrow(new PreconditionFailedException("Person was modified, current version is 3"))
+			.given(personService).delete(PERSON_ID, 2L);
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(delete("/person/{id}", PERSON_ID)
+				.header(HttpHeaders.IF_MATCH, "\"2\""));
+		
+		// Then / Assert
+		response.andExpect(status().isPreconditionFailed())
+			.andDo(print());
+		assertEquals(counted + 1, meterRegistry.counter(MetricsConfig.EXCEPTION_COUNTER,
+				"exception", "PreconditionFailedException", "status", "412").count());
+		
+	}
+	
+	@Test
+	@DisplayName("test Given People List When Create Batch then Return Per Item Results")
+	@SuppressWarnings("unchecked")
+	void testGivenPeopleList_WhenCreateBatch_thenReturnPerItemResults() throws Exception {
+		// Given / Arrange
+		given(personBatchService.createAll(any(Iterator.class))).willReturn(List.of(
+				new BatchItemResult(0, 1L, 201, null),
+				new BatchItemResult(1, null, 409, "Person already exist with given e-mail: " + person2.getEmail())));
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(post("/person/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(people)));
+		
+		// Then / Assert
+		response.andExpect(status().isOk())
+			.andDo(print())
+			.andExpect(jsonPath("$.size()", is(2)))
+			.andExpect(jsonPath("$[0].status", is(201)))
+			.andExpect(jsonPath("$[1].status", is(409)));
+	}
+	
+	@Test
+	@DisplayName("test Given NDJSON Ids When Delete Batch then Read Every Line")
+	@SuppressWarnings("unchecked")
+	void testGivenNdjsonIds_WhenDeleteBatch_thenReadEveryLine() throws Exception {
+		// Given / Arrange
+		given(personBatchService.deleteAll(any(Iterator.class))).willAnswer((invocation) -> {
+			Iterator<Long> ids = invocation.getArgument(0);
+			List<BatchItemResult> results = new ArrayList<>();
+			while (ids.hasNext()) {
+				results.add(new BatchItemResult(results.size(), ids.next(), 204, null));
+			}
+			return results;
+		});
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(delete("/person/batch")
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.content("1\n2\n3\n"));
+		
+		// Then / Assert
+		response.andExpect(status().isOk())
+			.andDo(print())
+			.andExpect(jsonPath("$.size()", is(3)))
+			.andExpect(jsonPath("$[2].id", is(3)));
+	}
+	
+	@Test
+	@DisplayName("test Given Merge Patch When Patch Person then Return No Content With Next ETag")
+	void testGivenMergePatch_WhenPatchPerson_thenReturnNoContentWithNextETag() throws Exception {
+		// Given / Arrange
+		willDoNothing().given(personService).patch(PERSON_ID, Map.of("address", "Street Patched"), 4L);
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(patch("/person/{id}", PERSON_ID)
+				.contentType(PersonController.MERGE_PATCH_JSON_VALUE)
+				.header(HttpHeaders.IF_MATCH, "\"4\"")
+				.content("{\"address\":\"Street Patched\"}"));
+		
+		// Then / Assert
+		response.andExpect(status().isNoContent())
+			.andDo(print())
+			.andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+		verify(personService).patch(PERSON_ID, Map.of("address", "Street Patched"), 4L);
 		
+	}
+	
+	@Test
+	@DisplayName("test Given Unexistent Person When Patch Person then Return Not Found")
+	void testGivenUnexistentPerson_WhenPatchPerson_thenReturnNotFound() throws Exception {
+		// Given / Arrange
+		willThrow(new ResourceNotFoundException("No records found this ID!"))
+			.given(personService).patch(PERSON_ID, Map.of("address", "Street Patched"), null);
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(patch("/person/{id}", PERSON_ID)
+				.contentType(PersonController.MERGE_PATCH_JSON_VALUE)
+				.content("{\"address\":\"Street Patched\"}"));
+		
+		// Then / Assert
+		response.andExpect(status().isNotFound())
+			.andDo(print());
+		
+	}
+	
+	@Test
+	@DisplayName("test Given Respond Async Preference When Create Person then Return Accepted With Tracking Location")
+	void testGivenRespondAsyncPreference_WhenCreatePerson_thenReturnAcceptedWithTrackingLocation() throws Exception {
+		// Given / Arrange
+		given(personWriteBehindService.isEnabled()).willReturn(true);
+		given(personWriteBehindService.submit(any(Person.class))).willReturn(
+				new PersonWriteStatus("tracking-1", PersonWriteStatus.State.PENDING, null, 202, null));
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(post("/person")
+				.contentType(MediaType.APPLICATION_JSON)
+				.header("Prefer", "respond-async")
+				.content(objectMapper.writeValueAsString(person)));
+		
+		// Then / Assert
+		response.andExpect(status().isAccepted())
+			.andDo(print())
+			.andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/person/requests/tracking-1"))
+			.andExpect(jsonPath("$.state", is("PENDING")));
+		verify(personService, never()).create(any(Person.class));
+		
+	}
+	
+	@Test
+	@DisplayName("test Given Respond Async Among Other Preferences When Create Person then Return Accepted")
+	void testGivenRespondAsyncAmongOtherPreferences_WhenCreatePerson_thenReturnAccepted() throws Exception {
+		// Given / Arrange
+		given(personWriteBehindService.isEnabled()).willReturn(true);
+		given(personWriteBehindService.submit(any(Person.class))).willReturn(
+				new PersonWriteStatus("tracking-1", PersonWriteStatus.State.PENDING, null, 202, null));
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(post("/person")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.header("Prefer", "wait=5, Respond-Async")
+				.content(objectMapper.writeValueAsString(person)));
+		
+		// Then / Assert
+		response.andExpect(status().isAccepted())
+			.andDo(print())
+			.andExpect(jsonPath("$.state", is("PENDING")));
+		verify(personService, never()).create(any(Person.class));
+		
+	}
+	
+	@Test
+	@DisplayName("test Given Other Preferences Only When Create Person then Return Created")
+	void testGivenOtherPreferencesOnly_WhenCreatePerson_thenReturnCreated() throws Exception {
+		// Given / Arrange
+		given(personWriteBehindService.isEnabled()).willReturn(true);
+		given(personService.create(any(Person.class))).willAnswer((invocation) -> invocation.getArgument(0));
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(post("/person")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.header("Prefer", "return=minimal, wait=5")
+				.content(objectMapper.writeValueAsString(person)));
+		
+		// Then / Assert
+		response.andExpect(status().isCreated())
+			.andDo(print())
+			.andExpect(jsonPath("$.email", is(person.getEmail())));
+		verify(personWriteBehindService, never()).submit(any(Person.class));
+		
+	}
+	
+	@Test
+	@DisplayName("test Given Full Write-Behind Queue When Create Person Async then Return Too Many Requests")
+	void testGivenFullWriteBehindQueue_WhenCreatePersonAsync_thenReturnTooManyRequests() throws Exception {
+		// Given / Arrange
+		given(personWriteBehindService.isEnabled()).willReturn(true);
+		given(personWriteBehindService.submit(any(Person.class)))
+			.willThrow(new TooManyRequestsException("Write-behind queue is full, retry later"));
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(post("/person")
+				.contentType(MediaType.APPLICATION_JSON)
+				.header("Prefer", "respond-async")
+				.content(objectMapper.writeValueAsString(person)));
+		
+		// Then / Assert
+		response.andExpect(status().isTooManyRequests())
+			.andDo(print())
+			.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+		
+	}
+	
+	@Test
+	@DisplayName("test Given Write-Behind Disabled When Create Person Async then Create It Right Away")
+	void testGivenWriteBehindDisabled_WhenCreatePersonAsync_thenCreateItRightAway() throws Exception {
+		// Given / Arrange
+		given(personService.create(any(Person.class))).willReturn(person);
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(post("/person")
+				.contentType(MediaType.APPLICATION_JSON)
+				.header("Prefer", "respond-async")
+				.content(objectMapper.writeValueAsString(person)));
+		
+		// Then / Assert
+		response.andExpect(status().isCreated())
+			.andDo(print())
+			.andExpect(jsonPath("$.email", is(person.getEmail())));
+		verify(personWriteBehindService, never()).submit(any(Person.class));
+		
+	}
+	
+	@Test
+	@DisplayName("test Given Tracking Id When Find Write Status then Return Status")
+	void testGivenTrackingId_WhenFindWriteStatus_thenReturnStatus() throws Exception {
+		// Given / Arrange
+		given(personWriteBehindService.findStatus("tracking-1")).willReturn(Optional.of(
+				new PersonWriteStatus("tracking-1", PersonWriteStatus.State.DONE, PERSON_ID, 201, null)));
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(get("/person/requests/{trackingId}", "tracking-1"));
+		
+		// Then / Assert
+		response.andExpect(status().isOk())
+			.andDo(print())
+			.andExpect(jsonPath("$.state", is("DONE")))
+			.andExpect(jsonPath("$.id", is((int) PERSON_ID)));
+		
+	}
+	
+	@Test
+	@DisplayName("test Given Person Id When Find By Id Accepting Protobuf then Return Protobuf Person")
+	void testGivenPersonId_WhenFindByIdAcceptingProtobuf_thenReturnProtobufPerson() throws Exception {
+		// Given / Arrange
+		person.setId(PERSON_ID);
+		person.setVersion(3L);
+		given(personService.findById(PERSON_ID)).willReturn(Optional.of(person));
+		
+		// When / Act
+		MvcResult result = mockMvc.perform(get("/person/{id}", PERSON_ID)
+				.accept(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+			.andReturn();
+		
+		// Then / Assert
+		Person decoded = protobufMapper.readerFor(Person.class).with(protobufSchema(Person.class))
+				.readValue(result.getResponse().getContentAsByteArray());
+		assertEquals(person, decoded);
+		assertEquals(person.getEmail(), decoded.getEmail());
+		assertEquals(3L, decoded.getVersion());
+	}
+	
+	@Test
+	@DisplayName("test Given Protobuf People When Create Batch then Return Protobuf Per Item Results")
+	@SuppressWarnings("unchecked")
+	void testGivenProtobufPeople_WhenCreateBatch_thenReturnProtobufPerItemResults() throws Exception {
+		// Given / Arrange
+		List<Person> received = new ArrayList<>();
+		given(personBatchService.createAll(any(Iterator.class))).willAnswer((invocation) -> {
+			((Iterator<Person>) invocation.getArgument(0)).forEachRemaining(received::add);
+			return List.of(new BatchItemResult(0, 1L, 201, null), new BatchItemResult(1, 2L, 201, null));
+		});
+		JavaType peopleType = TypeFactory.defaultInstance().constructCollectionType(List.class, Person.class);
+		byte[] body = protobufMapper.writer(protobufSchema(peopleType)).writeValueAsBytes(new Items<>(people));
+		
+		// When / Act
+		MvcResult result = mockMvc.perform(post("/person/batch")
+				.contentType(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+				.accept(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+				.content(body))
+			.andExpect(status().isOk())
+			.andReturn();
+		
+		// Then / Assert
+		assertEquals(people, received);
+		assertEquals(person2.getEmail(), received.get(1).getEmail());
+		JavaType resultsType = TypeFactory.defaultInstance().constructCollectionType(List.class, BatchItemResult.class);
+		Items<BatchItemResult> results = protobufMapper
+				.readerFor(TypeFactory.defaultInstance().constructParametricType(Items.class, BatchItemResult.class))
+				.with(protobufSchema(resultsType))
+				.readValue(result.getResponse().getContentAsByteArray());
+		assertEquals(2, results.getItems().size());
+		assertEquals(201, results.getItems().get(1).getStatus());
+	}
+	
+	@Test
+	@DisplayName("test Given Cursor And Limit When Find Page Accepting CBOR then Return CBOR Page")
+	void testGivenCursorAndLimit_WhenFindPageAcceptingCbor_thenReturnCborPage() throws Exception {
+		// Given / Arrange
+		person.setId(PERSON_ID);
+		given(personService.findPage(null, 1)).willReturn(new PersonPage(List.of(person), PERSON_ID));
+		
+		// When / Act
+		MvcResult result = mockMvc.perform(get("/person").param("limit", "1")
+				.accept(MediaType.APPLICATION_CBOR))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+			.andReturn();
+		
+		// Then / Assert
+		PersonPage page = new CBORMapper().readValue(result.getResponse().getContentAsByteArray(), PersonPage.class);
+		assertEquals(PERSON_ID, page.getNextCursor());
+		assertEquals(person.getFirstName(), page.getContent().get(0).getFirstName());
+	}
+	
+	@Test
+	@DisplayName("test Given Unexistent Person When Delete Accepting Protobuf then Return Protobuf Error")
+	void testGivenUnexistentPerson_WhenDeleteAcceptingProtobuf_thenReturnProtobufError() throws Exception {
+		// Given / Arrange
+		willThrow(new ResourceNotFoundException("No records found this ID!"))
+			.given(personService).delete(PERSON_ID, null);
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(delete("/person/{id}", PERSON_ID)
+				.accept(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+		
+		// Then / Assert
+		response.andExpect(status().isNotFound())
+			.andExpect(content().contentType(JacksonProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+	}
+	
+	@Test
+	@DisplayName("test Given Any Accept When Find All Person then Return JSON")
+	void testGivenAnyAccept_WhenFindAllPerson_thenReturnJson() throws Exception {
+		// Given / Arrange
+		given(personService.findAll()).willReturn(people);
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(get("/person").accept(MediaType.ALL));
+		
+		// Then / Assert
+		response.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+			.andExpect(jsonPath("$.size()", is(people.size())));
+	}
+	
+	@Test
+	@DisplayName("test Given Columnar Shape When Find All Person then Return One Array Per Field")
+	void testGivenColumnarShape_WhenFindAllPerson_thenReturnOneArrayPerField() throws Exception {
+		// Given / Arrange
+		person.setId(PERSON_ID);
+		given(personService.findAll()).willReturn(people);
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(get("/person")
+				.accept(ColumnarPersonHttpMessageConverter.APPLICATION_JSON_COLUMNAR));
+		
+		// Then / Assert
+		response.andExpect(status().isOk())
+			.andExpect(content().contentType(ColumnarPersonHttpMessageConverter.APPLICATION_JSON_COLUMNAR))
+			.andExpect(jsonPath("$.ids.size()", is(people.size())))
+			.andExpect(jsonPath("$.ids[0]", is(1)))
+			.andExpect(jsonPath("$.firstNames[1]", is(person2.getFirstName())))
+			.andExpect(jsonPath("$.emails[0]", is(person.getEmail())));
+	}
+	
+	@Test
+	@DisplayName("test Given Columnar Shape When Find Page then Return Plain JSON Page")
+	void testGivenColumnarShape_WhenFindPage_thenReturnPlainJsonPage() throws Exception {
+		// Given / Arrange
+		person.setId(PERSON_ID);
+		given(personService.findPage(null, 1)).willReturn(new PersonPage(List.of(person), PERSON_ID));
+		
+		// When / Act
+		ResultActions response = mockMvc.perform(get("/person").param("limit", "1")
+				.accept(ColumnarPersonHttpMessageConverter.APPLICATION_JSON_COLUMNAR));
+		
+		// Then / Assert
+		response.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+			.andExpect(jsonPath("$.content[0].firstName", is(person.getFirstName())));
+	}
+	
+	private ProtobufSchema protobufSchema(Type type) {
+		return new JacksonProtobufHttpMessageConverter().schemaFor(type).orElseThrow();
+	}
+	
 }
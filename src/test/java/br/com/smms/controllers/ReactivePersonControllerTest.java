@@ -0,0 +1,139 @@
+package br.com.smms.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonPage;
+import br.com.smms.repositories.PersonRepository;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// embedded last, so its H2 urls win over the MySQL ones of the reactive profile
+@ActiveProfiles({ "reactive", "embedded" })
+class ReactivePersonControllerTest {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	private List<Person> people;
+
+	@BeforeEach
+	void setup() {
+		people = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			people.add(personRepository.save(new Person("Reactive" + i, "Flux", "Street", "Female",
+					"reactive" + i + "@test.com")));
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		personRepository.deleteAllById(people.stream().map(Person::getId).toList());
+	}
+
+	@Test
+	@DisplayName("test Given Person Id When Find By Id then Return Person With ETag")
+	void testGivenPersonId_WhenFindById_thenReturnPersonWithETag() {
+		// Given / Arrange
+		Person person = people.get(0);
+
+		// When / Act / Then / Assert
+		webTestClient.get().uri("/person/{id}", person.getId()).exchange()
+				.expectStatus().isOk()
+				.expectHeader().valueEquals(HttpHeaders.ETAG, PersonController.eTag(person))
+				.expectBody()
+				.jsonPath("$.firstName").isEqualTo("Reactive0")
+				.jsonPath("$.email").isEqualTo("reactive0@test.com");
+		webTestClient.get().uri("/person/{id}", -1).exchange().expectStatus().isNotFound();
+	}
+
+	@Test
+	@DisplayName("test Given Stored People When Stream As NDJSON then Emit One Person Per Line On Demand")
+	void testGivenStoredPeople_WhenStreamAsNdjson_thenEmitOnePersonPerLineOnDemand() {
+		// Given / Arrange
+		Flux<Person> stream = webTestClient.get().uri("/person").accept(MediaType.APPLICATION_NDJSON).exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(Person.class).getResponseBody()
+				.filter(person -> person.getLastName().equals("Flux"));
+
+		// When / Act / Then / Assert
+		StepVerifier.create(stream, 1)
+				.expectNextMatches(person -> person.getId().equals(people.get(0).getId()))
+				.thenRequest(2)
+				.expectNextCount(2)
+				.verifyComplete();
+	}
+
+	@Test
+	@DisplayName("test Given Limit When Find Page And Search then Return Keyset Page And Paged Results")
+	void testGivenLimit_WhenFindPageAndSearch_thenReturnKeysetPageAndPagedResults() {
+		// Given / Arrange
+		Long after = people.get(0).getId() - 1;
+
+		// When / Act
+		PersonPage page = webTestClient.get().uri("/person?after={after}&limit=2", after).exchange()
+				.expectStatus().isOk()
+				.expectBody(PersonPage.class).returnResult().getResponseBody();
+
+		// Then / Assert
+		assertNotNull(page);
+		assertEquals(2, page.getContent().size());
+		assertEquals(people.get(1).getId(), page.getNextCursor());
+		webTestClient.get().uri("/person/search?lastName=Flu&firstName=Reactive&size=2").exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.content.length()").isEqualTo(2)
+				.jsonPath("$.page.totalElements").isEqualTo(3);
+	}
+
+	@Test
+	@DisplayName("test Given Person When Create Update Patch And Delete then Apply Writes Through PersonService")
+	void testGivenPerson_WhenCreateUpdatePatchAndDelete_thenApplyWritesThroughPersonService() {
+		// Given / Arrange
+		Person created = webTestClient.post().uri("/person").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(new Person("Mono", "Write", "Street", "Male", "mono@test.com")).exchange()
+				.expectStatus().isCreated()
+				.expectBody(Person.class).returnResult().getResponseBody();
+		assertNotNull(created);
+		people.add(created);
+		created.setAddress("Avenue");
+
+		// When / Act / Then / Assert
+		webTestClient.put().uri("/person").contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.IF_MATCH, "\"" + (created.getVersion() + 1) + "\"").bodyValue(created).exchange()
+				.expectStatus().isEqualTo(412);
+		webTestClient.put().uri("/person").contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.IF_MATCH, PersonController.eTag(created)).bodyValue(created).exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("$.address").isEqualTo("Avenue");
+		webTestClient.patch().uri("/person/{id}", created.getId())
+				.contentType(MediaType.valueOf(PersonController.MERGE_PATCH_JSON_VALUE))
+				.bodyValue(Map.of("gender", "Female")).exchange()
+				.expectStatus().isNoContent();
+		assertEquals("Female", personRepository.findById(created.getId()).orElseThrow().getGender());
+		webTestClient.delete().uri("/person/{id}", created.getId()).exchange().expectStatus().isNoContent();
+		webTestClient.get().uri("/person/{id}", created.getId()).exchange().expectStatus().isNotFound();
+		people.remove(created);
+	}
+}
@@ -0,0 +1,97 @@
+package br.com.smms.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.smms.model.Person;
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.services.PersonService;
+
+// The replica is a second in-memory H2 database holding one person the primary does not have,
+// so whichever database answered a JPA read shows in its result
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"person.datasource.replicas[0].url=" + ReadReplicaJpaTest.REPLICA_URL,
+		"person.datasource.probe-interval=0s" })
+@ActiveProfiles("embedded")
+class ReadReplicaJpaTest {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:replica_jpa;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	private static final String REPLICA_EMAIL = "only.on.replica@test.com";
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeAll
+	static void createReplica() throws Exception {
+		try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+				Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE IF NOT EXISTS person (id BIGINT PRIMARY KEY, first_name VARCHAR(80), "
+					+ "last_name VARCHAR(80), address VARCHAR(100), gender VARCHAR(6), email VARCHAR(100), "
+					+ "version BIGINT, updated_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6), active BOOLEAN DEFAULT TRUE)");
+			statement.execute("MERGE INTO person (id, first_name, last_name, address, gender, email, version) "
+					+ "KEY (id) VALUES (1, 'Rubens', 'Barrichello', 'Sao Paulo', 'Male', '" + REPLICA_EMAIL + "', 0)");
+		}
+	}
+
+	@Test
+	@DisplayName("test Given Read-Only Transaction When Find By Repository then Read From Replica")
+	void testGivenReadOnlyTransaction_WhenFindByRepository_thenReadFromReplica() {
+		// Given / Arrange
+		TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+		readOnly.setReadOnly(true);
+
+		// When / Act
+		boolean onReplica = readOnly.execute(status -> personRepository.findByEmail(REPLICA_EMAIL).isPresent());
+		boolean onPrimary = transactionTemplate.execute(status -> personRepository.findByEmail(REPLICA_EMAIL).isPresent());
+
+		//	Then / Assert
+		assertTrue(onReplica);
+		assertFalse(onPrimary);
+	}
+
+	@Test
+	@DisplayName("test Given Read Service Methods When Called then Read From Replica")
+	void testGivenReadServiceMethods_WhenCalled_thenReadFromReplica() {
+		// When / Act
+		boolean findAll = personService.findAll().stream().anyMatch(person -> REPLICA_EMAIL.equals(person.getEmail()));
+		boolean findPage = personService.findPage(0L, 10).getContent().stream()
+				.anyMatch(person -> REPLICA_EMAIL.equals(person.getEmail()));
+		long search = personService.search("Barrichello", "Rubens", 0, 10).getTotalElements();
+
+		//	Then / Assert
+		assertTrue(findAll);
+		assertTrue(findPage);
+		assertEquals(1, search);
+	}
+
+	@Test
+	@DisplayName("test Given Write When Create then Write To Primary")
+	void testGivenWrite_WhenCreate_thenWriteToPrimary() {
+		// When / Act
+		Person created = personService.create(new Person("Felipe", "Massa", "Sao Paulo", "Male", "massa.replica@test.com"));
+
+		//	Then / Assert
+		Boolean onPrimary = transactionTemplate.execute(status -> personRepository.findById(created.getId()).isPresent());
+		assertTrue(onPrimary);
+	}
+}
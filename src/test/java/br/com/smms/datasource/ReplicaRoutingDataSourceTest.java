@@ -0,0 +1,154 @@
+package br.com.smms.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Primary and replicas are separate in-memory H2 databases; DATABASE() tells which one answered
+class ReplicaRoutingDataSourceTest {
+
+	private ReplicaRoutingDataSource routing;
+	private TransactionTemplate readOnly;
+	private TransactionTemplate readWrite;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		start(ReplicaRoutingDataSource.Selection.ROUND_ROBIN, h2("replica1"), h2("replica2"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		routing.close();
+		ReplicaRoutingDataSource.clearPrimaryOnly();
+	}
+
+	@Test
+	@DisplayName("test Given Read-Only Transactions When Query then Alternate Between Replicas")
+	void testGivenReadOnlyTransactions_WhenQuery_thenAlternateBetweenReplicas() {
+		// When / Act
+		List<String> databases = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			databases.add(readOnly.execute(status -> database()));
+		}
+
+		// Then / Assert
+		assertEquals(List.of("REPLICA1", "REPLICA2", "REPLICA1", "REPLICA2"), databases);
+	}
+
+	@Test
+	@DisplayName("test Given Read-Write Transaction When Query then Use Primary")
+	void testGivenReadWriteTransaction_WhenQuery_thenUsePrimary() {
+		// When / Act
+		String database = readWrite.execute(status -> database());
+
+		// Then / Assert
+		assertEquals("PRIMARY", database);
+	}
+
+	@Test
+	@DisplayName("test Given Unreachable Replica When Read-Only Query then Fail Over")
+	void testGivenUnreachableReplica_WhenReadOnlyQuery_thenFailOver() {
+		// Given / Arrange
+		routing.close();
+		start(ReplicaRoutingDataSource.Selection.ROUND_ROBIN,
+				new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/unreachable", "sa", ""), h2("replica2"));
+
+		// When / Act
+		List<String> databases = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			databases.add(readOnly.execute(status -> database()));
+		}
+
+		// Then / Assert
+		assertEquals(List.of("REPLICA2", "REPLICA2", "REPLICA2"), databases);
+	}
+
+	@Test
+	@DisplayName("test Given No Reachable Replica When Read-Only Query then Use Primary")
+	void testGivenNoReachableReplica_WhenReadOnlyQuery_thenUsePrimary() {
+		// Given / Arrange
+		routing.close();
+		start(ReplicaRoutingDataSource.Selection.LEAST_LATENCY,
+				new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/unreachable", "sa", ""));
+
+		// When / Act
+		String database = readOnly.execute(status -> database());
+
+		// Then / Assert
+		assertEquals("PRIMARY", database);
+	}
+
+	@Test
+	@DisplayName("test Given Client That Wrote When Read Within Window then Use Primary")
+	void testGivenClientThatWrote_WhenReadWithinWindow_thenUsePrimary() throws Exception {
+		// Given / Arrange
+		ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1));
+		MockHttpServletRequest write = new MockHttpServletRequest("POST", "/person");
+		write.addHeader(ReadYourWritesFilter.CLIENT_HEADER, "client-1");
+		filter.doFilter(write, new MockHttpServletResponse(), (request, response) -> {});
+		MockHttpServletRequest read = new MockHttpServletRequest("GET", "/person/1");
+		read.addHeader(ReadYourWritesFilter.CLIENT_HEADER, "client-1");
+		MockHttpServletRequest otherRead = new MockHttpServletRequest("GET", "/person/1");
+		otherRead.addHeader(ReadYourWritesFilter.CLIENT_HEADER, "client-2");
+		List<String> databases = new ArrayList<>();
+
+		// When / Act
+		filter.doFilter(read, new MockHttpServletResponse(),
+				(request, response) -> databases.add(readOnly.execute(status -> database())));
+		filter.doFilter(otherRead, new MockHttpServletResponse(),
+				(request, response) -> databases.add(readOnly.execute(status -> database())));
+
+		// Then / Assert
+		assertEquals(List.of("PRIMARY", "REPLICA1"), databases);
+	}
+
+	@Test
+	@DisplayName("test Given Read-Only Transaction When Read On Primary then Use Primary And Restore Routing")
+	void testGivenReadOnlyTransaction_WhenReadOnPrimary_thenUsePrimaryAndRestoreRouting() {
+		// When / Act
+		String onPrimary = ReplicaRoutingDataSource.onPrimary(() -> readOnly.execute(status -> database()));
+		String afterwards = readOnly.execute(status -> database());
+
+		// Then / Assert
+		assertEquals("PRIMARY", onPrimary);
+		assertEquals("REPLICA1", afterwards);
+	}
+
+	private void start(ReplicaRoutingDataSource.Selection selection, DataSource... replicas) {
+		DataSource primary = h2("primary");
+		routing = new ReplicaRoutingDataSource(primary, List.of(replicas), selection,
+				Duration.ofMinutes(1), Duration.ZERO);
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+		dataSource.setReadOnlyDataSource(routing);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		readWrite = new TransactionTemplate(transactionManager);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	private String database() {
+		return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+	}
+
+	private static DataSource h2(String name) {
+		return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+	}
+}
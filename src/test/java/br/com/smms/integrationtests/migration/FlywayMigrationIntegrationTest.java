@@ -0,0 +1,141 @@
+package br.com.smms.integrationtests.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.MySQLContainer;
+
+// Runs db/migration/mysql the way the production profile does (baseline-on-migrate, baseline
+// version 0) against an empty database and against the schemas ddl-auto: update left behind
+class FlywayMigrationIntegrationTest {
+
+	// What ddl-auto: update created for the original Person entity
+	private static final String ORIGINAL_SCHEMA = "CREATE TABLE person (id BIGINT NOT NULL AUTO_INCREMENT, "
+			+ "address VARCHAR(100) NOT NULL, email VARCHAR(100) NOT NULL, first_name VARCHAR(80) NOT NULL, "
+			+ "gender VARCHAR(6) NOT NULL, last_name VARCHAR(80) NOT NULL, PRIMARY KEY (id)) ENGINE=InnoDB";
+
+	static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0.28");
+
+	private DriverManagerDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	static void startContainer() {
+		mysql.start();
+	}
+
+	@AfterAll
+	static void stopContainer() {
+		mysql.stop();
+	}
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new DriverManagerDataSource(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword());
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute(
+				"DROP TABLE IF EXISTS person, person_seq, person_change, person_change_seq, flyway_schema_history");
+	}
+
+	@Test
+	@DisplayName("test Given Empty Database When Migrate then Create Schema")
+	void testGivenEmptyDatabase_WhenMigrate_thenCreateSchema() {
+		// When / Act
+		MigrateResult result = migrate();
+
+		//	Then / Assert
+		assertTrue(result.success);
+		assertEquals(List.of("id", "first_name", "last_name", "address", "gender", "email", "version", "updated_at",
+				"active"), columns());
+		assertEquals(List.of("email", "active"), indexColumns("uk_person_email"));
+		assertEquals(1L, nextVal());
+	}
+
+	@Test
+	@DisplayName("test Given Original Schema With Rows When Migrate then Upgrade And Keep Rows")
+	void testGivenOriginalSchemaWithRows_WhenMigrate_thenUpgradeAndKeepRows() {
+		// Given / Arrange
+		jdbcTemplate.execute(ORIGINAL_SCHEMA);
+		jdbcTemplate.update("INSERT INTO person (address, email, first_name, gender, last_name) VALUES "
+				+ "('Street 1', 'first@test.com', 'First', 'Male', 'Person'), "
+				+ "('Street 2', 'second@test.com', 'Second', 'Female', 'Person')");
+
+		// When / Act
+		MigrateResult result = migrate();
+
+		//	Then / Assert
+		assertTrue(result.success);
+		assertEquals(List.of("id", "address", "email", "first_name", "gender", "last_name", "version", "updated_at",
+				"active"), columns());
+		assertEquals(List.of("email", "active"), indexColumns("uk_person_email"));
+		assertEquals(List.of("last_name", "first_name"), indexColumns("idx_person_last_first"));
+		assertEquals(List.of("updated_at", "id"), indexColumns("idx_person_updated_at"));
+		assertEquals(2, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM person WHERE version = 0 AND active = TRUE", Integer.class));
+		// The first block of 50 starts at 53 - 49, past the highest id
+		assertEquals(53L, nextVal());
+	}
+
+	@Test
+	@DisplayName("test Given Schema Updated By Ddl Auto When Migrate then Keep Columns And Move Sequence Past Rows")
+	void testGivenSchemaUpdatedByDdlAuto_WhenMigrate_thenKeepColumnsAndMoveSequencePastRows() {
+		// Given / Arrange
+		jdbcTemplate.execute(ORIGINAL_SCHEMA);
+		jdbcTemplate.update("INSERT INTO person (address, email, first_name, gender, last_name) VALUES "
+				+ "('Street 1', 'first@test.com', 'First', 'Male', 'Person')");
+		// Later entity versions added these, with the e-mail index still on (email) alone
+		jdbcTemplate.execute("ALTER TABLE person MODIFY COLUMN id BIGINT NOT NULL, "
+				+ "ADD COLUMN version BIGINT NOT NULL DEFAULT 0, "
+				+ "ADD COLUMN updated_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6) NOT NULL, "
+				+ "ADD COLUMN active BOOLEAN DEFAULT TRUE, "
+				+ "ADD CONSTRAINT uk_person_email UNIQUE (email), "
+				+ "ADD INDEX idx_person_last_first (last_name, first_name)");
+		jdbcTemplate.execute("CREATE TABLE person_seq (next_val BIGINT) ENGINE=InnoDB");
+		jdbcTemplate.update("INSERT INTO person_seq VALUES (1)");
+
+		// When / Act
+		MigrateResult result = migrate();
+
+		//	Then / Assert
+		assertTrue(result.success);
+		assertEquals(List.of("email", "active"), indexColumns("uk_person_email"));
+		assertEquals(List.of("updated_at", "id"), indexColumns("idx_person_updated_at"));
+		assertEquals(52L, nextVal());
+	}
+
+	private MigrateResult migrate() {
+		return Flyway.configure()
+				.dataSource(dataSource)
+				.locations("classpath:db/migration/mysql")
+				.baselineOnMigrate(true)
+				.baselineVersion("0")
+				.load()
+				.migrate();
+	}
+
+	private List<String> columns() {
+		return jdbcTemplate.queryForList("SELECT column_name FROM information_schema.columns "
+				+ "WHERE table_schema = DATABASE() AND table_name = 'person' ORDER BY ordinal_position", String.class);
+	}
+
+	private List<String> indexColumns(String index) {
+		return jdbcTemplate.queryForList("SELECT column_name FROM information_schema.statistics "
+				+ "WHERE table_schema = DATABASE() AND table_name = 'person' AND index_name = ? ORDER BY seq_in_index",
+				String.class, index);
+	}
+
+	private long nextVal() {
+		return jdbcTemplate.queryForObject("SELECT next_val FROM person_seq", Long.class);
+	}
+}
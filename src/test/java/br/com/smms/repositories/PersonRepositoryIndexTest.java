@@ -0,0 +1,238 @@
+package br.com.smms.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.smms.model.Person;
+
+@DataJpaTest
+@ActiveProfiles("embedded")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PersonRepositoryIndexTest {
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private RecordingStatementInspector statementInspector;
+
+	// The SQL Hibernate sends, so the plans checked are the ones of the generated queries
+	@TestConfiguration
+	static class StatementInspectorConfig {
+
+		@Bean
+		RecordingStatementInspector recordingStatementInspector() {
+			return new RecordingStatementInspector();
+		}
+
+		@Bean
+		HibernatePropertiesCustomizer statementInspectorCustomizer(RecordingStatementInspector inspector) {
+			return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+		}
+	}
+
+	static class RecordingStatementInspector implements StatementInspector {
+
+		private final List<String> statements = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			statements.add(sql);
+			return sql;
+		}
+	}
+
+	@BeforeEach
+	public void setUp() {
+		//Given / Arrage
+		personRepository.saveAllAndFlush(List.of(
+				new Person("Saulo", "Silva", "Street 1", "Male", "saulo@test.com"),
+				new Person("Sara", "Silva", "Street 2", "Female", "sara@test.com"),
+				new Person("Samuel", "Silveira", "Street 3", "Male", "samuel@test.com"),
+				new Person("Saulo", "Souza", "Street 4", "Male", "saulo.souza@test.com")));
+	}
+
+	@Test
+	@DisplayName("Given Name Prefixes when Search then Return Matching Page In Index Order")
+	void testGivenNamePrefixes_whenSearch_thenReturnMatchingPageInIndexOrder() {
+		// When / Act
+		Page<Person> page = personRepository.findByLastNameStartingWithAndFirstNameStartingWith("Sil", "Sa",
+				PageRequest.of(0, 2, Sort.by("lastName", "firstName", "id")));
+
+		//	Then / Assert
+		assertEquals(3, page.getTotalElements());
+		assertEquals(2, page.getContent().size());
+		assertEquals("Sara", page.getContent().get(0).getFirstName());
+		assertEquals("Saulo", page.getContent().get(1).getFirstName());
+	}
+
+	@Test
+	@DisplayName("Given Duplicate Names when FindByJPQL then Return Every Match")
+	void testGivenDuplicateNames_whenFindByJPQL_thenReturnEveryMatch() {
+		// Given / Arrange
+		personRepository.saveAndFlush(new Person("Saulo", "Silva", "Street 5", "Male", "saulo.2@test.com"));
+
+		// When / Act
+		List<Person> people = personRepository.findByJPQL("Saulo", "Silva");
+
+		//	Then / Assert
+		assertEquals(2, people.size());
+	}
+
+	@Test
+	@DisplayName("Given Prefix Search when Explain Generated Query then Use Composite Name Index")
+	void testGivenPrefixSearch_whenExplainGeneratedQuery_thenUseCompositeNameIndex() {
+		// Given / Arrange
+		statementInspector.statements.clear();
+		personRepository.findByLastNameStartingWithAndFirstNameStartingWith("Sil", "Sa",
+				PageRequest.of(0, 2, Sort.by("lastName", "firstName", "id")));
+		String sql = statementInspector.statements.stream()
+				.filter(statement -> statement.contains(" order by "))
+				.findFirst().orElseThrow();
+
+		// When / Act
+		// The two prefixes come first, then the page bounds
+		List<Object> parameters = new ArrayList<>(List.of("Sil%", "Sa%"));
+		while (parameters.size() < sql.chars().filter(c -> c == '?').count()) {
+			parameters.add(2);
+		}
+		String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters.toArray());
+
+		//	Then / Assert
+		assertTrue(plan.toLowerCase(Locale.ROOT).contains(Person.NAME_INDEX), plan);
+	}
+
+	@Test
+	@DisplayName("Given Changed Column when Patch then Update Only That Column And Bump Version")
+	void testGivenChangedColumn_whenPatch_thenUpdateOnlyThatColumnAndBumpVersion() {
+		// Given / Arrange
+		Person saulo = personRepository.findByEmail("saulo@test.com").get();
+		Long version = saulo.getVersion();
+
+		// When / Act
+		int updated = personRepository.patch(saulo.getId(), Map.of("address", "Street 9"), version);
+		int stale = personRepository.patch(saulo.getId(), Map.of("address", "Street 10"), version);
+		int missing = personRepository.patch(-1L, Map.of("address", "Street 10"), null);
+
+		//	Then / Assert
+		Map<String, Object> row = jdbcTemplate.queryForMap(
+				"SELECT first_name, address, version FROM person WHERE id = ?", saulo.getId());
+		assertEquals(1, updated);
+		assertEquals(0, stale);
+		assertEquals(0, missing);
+		assertEquals("Saulo", row.get("first_name"));
+		assertEquals("Street 9", row.get("address"));
+		assertEquals(version + 1, ((Number) row.get("version")).longValue());
+	}
+
+	@Test
+	@DisplayName("Given Delta Sync Query when Explain then Range Scan Updated At Index")
+	void testGivenDeltaSyncQuery_whenExplain_thenRangeScanUpdatedAtIndex() {
+		// When / Act
+		String plan = jdbcTemplate.queryForObject(
+				"EXPLAIN SELECT * FROM person p WHERE p.updated_at >= TIMESTAMP '2021-01-01 00:00:00' "
+						+ "AND (p.updated_at > TIMESTAMP '2021-01-01 00:00:00' OR p.id > 0) "
+						+ "ORDER BY p.updated_at, p.id LIMIT 101",
+				String.class);
+
+		//	Then / Assert
+		assertTrue(plan.toLowerCase(Locale.ROOT).contains(Person.UPDATED_AT_INDEX), plan);
+	}
+
+	@Test
+	@DisplayName("Given Growing Table when Find Modified Since then Return Only The Changed Rows")
+	void testGivenGrowingTable_whenFindModifiedSince_thenReturnOnlyTheChangedRows() {
+		// Given / Arrange
+		Instant lastSync = Instant.parse("2021-01-01T00:00:00Z");
+		List<Integer> sizes = new ArrayList<>();
+		for (int round = 1; round <= 3; round++) {
+			// Every row older than the last sync, then the table grows tenfold
+			jdbcTemplate.update("UPDATE person SET updated_at = TIMESTAMP '2020-01-01 00:00:00'");
+			List<Object[]> rows = new ArrayList<>();
+			for (int i = 0; i < (int) Math.pow(10, round + 1); i++) {
+				rows.add(new Object[] { round * 100_000L + i, "Grown" + i, "Round" + round, "grown" + round + "." + i + "@test.com" });
+			}
+			jdbcTemplate.batchUpdate("INSERT INTO person (id, first_name, last_name, address, gender, email, version, "
+					+ "updated_at) VALUES (?, ?, ?, 'Street', 'Male', ?, 0, TIMESTAMP '2020-01-01 00:00:00')", rows);
+			Person saulo = personRepository.findByEmail("saulo@test.com").get();
+			saulo.setAddress("Moved " + round);
+			Person sara = personRepository.findByEmail("sara@test.com").get();
+			sara.setAddress("Moved " + round);
+			personRepository.delete(personRepository.findById(round * 100_000L).get());
+			entityManager.flush();
+			entityManager.clear();
+
+			// When / Act
+			List<Person> modified = personRepository.findModifiedSince(lastSync, 0L, Limit.of(100));
+
+			// Then / Assert
+			sizes.add(modified.size());
+			assertEquals(Set.of(saulo.getId(), sara.getId(), round * 100_000L),
+					Set.copyOf(modified.stream().map(Person::getId).toList()));
+			assertEquals(1, modified.stream().filter(Person::isDeleted).count());
+		}
+		assertEquals(List.of(3, 3, 3), sizes);
+		assertTrue(personRepository.count() > 1000);
+	}
+
+	@Test
+	@DisplayName("Given Deleted Person when Find then Hide It And Keep Tombstone With Free E-mail")
+	void testGivenDeletedPerson_whenFind_thenHideItAndKeepTombstoneWithFreeEmail() {
+		// Given / Arrange
+		Person saulo = personRepository.findByEmail("saulo@test.com").get();
+		Long sara = personRepository.findByEmail("sara@test.com").get().getId();
+
+		// When / Act
+		personRepository.delete(saulo);
+		int tombstoned = personRepository.tombstoneAllById(List.of(sara));
+		entityManager.flush();
+		entityManager.clear();
+		Person again = personRepository.saveAndFlush(new Person("Saulo", "Silva", "Street 9", "Male", "saulo@test.com"));
+
+		//	Then / Assert
+		assertEquals(1, tombstoned);
+		assertFalse(personRepository.findById(saulo.getId()).isPresent());
+		assertEquals(List.of(), personRepository.findExistingIds(List.of(saulo.getId(), sara)));
+		assertEquals(List.of(again.getId()), personRepository.findByNativeSQL("Saulo", "Silva").stream()
+				.map(Person::getId).toList());
+		Map<String, Object> row = jdbcTemplate.queryForMap("SELECT active, version FROM person WHERE id = ?",
+				saulo.getId());
+		assertNull(row.get("active"));
+		assertEquals(saulo.getVersion() + 1, ((Number) row.get("version")).longValue());
+	}
+}
@@ -2,6 +2,7 @@ package br.com.smms.repositories;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
@@ -13,6 +14,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 import br.com.smms.integrationtests.testcontainers.AbstractIntegrationTest;
 import br.com.smms.model.Person;
@@ -66,6 +69,25 @@ class PersonRepositoryTest extends AbstractIntegrationTest {
 		assertNotNull(savedPerson);
 	}
 	
+	@Test
+	@DisplayName("Given Person List when FindByIdGreaterThan then Return Next Keyset Page")
+	void testGivenPersonList_whenFindByIdGreaterThan_thenReturnNextKeysetPage() {
+		// Given / Arrange
+		
+		Person person2 = new Person("First Test 2", 
+				"Last Test 2",
+				"Street Test 2",
+				"Female",
+				"email2@test.com");
+		
+		personRepository.saveAll(List.of(person, person2));
+		// When / Act
+		var page = personRepository.findByIdGreaterThanOrderByIdAsc(person.getId(), Limit.of(10));
+		//	Then / Assert
+		assertEquals(1, page.size());
+		assertEquals(person2.getId(), page.get(0).getId());
+	}
+	
 	@Test
 	@DisplayName("Given Person Object when FindByID then Return Person Object")
 	void testGivenPersonObject_whenFindById_thenReturnPersonObject() {
@@ -96,6 +118,20 @@ class PersonRepositoryTest extends AbstractIntegrationTest {
 		assertEquals(savedPerson.getEmail(), person.getEmail());
 	}
 	
+	@Test
+	@DisplayName("Given Existing Email when Save then Unique Index Rejects Person")
+	void testGivenExistingEmail_whenSave_thenUniqueIndexRejectsPerson() {
+		// Given / Arrange
+		personRepository.saveAndFlush(person);
+		Person duplicate = new Person("First Test 2", 
+				"Last Test 2",
+				"Street Test 2",
+				"Female",
+				person.getEmail());
+		// When / Act / Then / Assert
+		assertThrows(DataIntegrityViolationException.class, () -> personRepository.saveAndFlush(duplicate));
+	}
+	
 	@Test
 	@DisplayName("Given Person Object when Update Person then Return Updated Person Object")
 	void testGivenPersonObject_whenUpdatePerson_thenReturnUpadatedPersonObject() {
@@ -133,7 +169,7 @@ class PersonRepositoryTest extends AbstractIntegrationTest {
 		
 		personRepository.save(person);
 		// When / Act
-		var savedPerson = personRepository.findByJPQL(person.getFirstName(), person.getLastName());
+		var savedPerson = personRepository.findByJPQL(person.getFirstName(), person.getLastName()).get(0);
 		
 		//	Then / Assert
 		assertNotNull(savedPerson);
@@ -148,7 +184,7 @@ class PersonRepositoryTest extends AbstractIntegrationTest {
 		
 		personRepository.save(person);
 		// When / Act
-		var savedPerson = personRepository.findByJPQLNamedParameters(person.getFirstName(), person.getLastName());
+		var savedPerson = personRepository.findByJPQLNamedParameters(person.getFirstName(), person.getLastName()).get(0);
 		
 		//	Then / Assert
 		assertNotNull(savedPerson);
@@ -163,7 +199,7 @@ class PersonRepositoryTest extends AbstractIntegrationTest {
 		
 		personRepository.save(person);
 		// When / Act
-		var savedPerson = personRepository.findByNativeSQL(person.getFirstName(), person.getLastName());
+		var savedPerson = personRepository.findByNativeSQL(person.getFirstName(), person.getLastName()).get(0);
 		
 		//	Then / Assert
 		assertNotNull(savedPerson);
@@ -178,7 +214,7 @@ class PersonRepositoryTest extends AbstractIntegrationTest {
 		
 		personRepository.save(person);
 		// When / Act
-		var savedPerson = personRepository.findByNativeSQLNamedParameters(person.getFirstName(), person.getLastName());
+		var savedPerson = personRepository.findByNativeSQLNamedParameters(person.getFirstName(), person.getLastName()).get(0);
 		
 		//	Then / Assert
 		assertNotNull(savedPerson);
@@ -0,0 +1,118 @@
+package br.com.smms.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import br.com.smms.model.Person;
+
+class PersonTextIndexTest {
+
+	private PersonTextIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new PersonTextIndex(50);
+		index.index(new Person(1L, "Ana", "Souza", "Rua São João 10", "Female", "ana.souza@test.com"));
+		index.index(new Person(2L, "João", "Silva", "Avenida Paulista 1000", "Male", "joao@test.com"));
+		index.index(new Person(3L, "Mariana", "Costa", "Rua das Flores 5", "Female", "mari@souza.com"));
+	}
+
+	@Test
+	@DisplayName("test Given Accented Text When Search Unaccented Prefix then Rank Name Above Address")
+	void testGivenAccentedText_WhenSearchUnaccentedPrefix_thenRankNameAboveAddress() {
+		// When / Act
+		List<PersonTextIndex.Hit> hits = index.search("JOA", 10, false);
+
+		// Then / Assert
+		assertEquals(List.of(2L, 1L), ids(hits));
+		assertTrue(hits.get(0).score() > hits.get(1).score());
+	}
+
+	@Test
+	@DisplayName("test Given Term In Name And Email When Search then Rank Name Match First")
+	void testGivenTermInNameAndEmail_WhenSearch_thenRankNameMatchFirst() {
+		// When / Act
+		List<PersonTextIndex.Hit> hits = index.search("souza", 10, false);
+
+		// Then / Assert
+		assertEquals(List.of(1L, 3L), ids(hits));
+	}
+
+	@Test
+	@DisplayName("test Given Several Terms When Search then Return Only People Matching All")
+	void testGivenSeveralTerms_WhenSearch_thenReturnOnlyPeopleMatchingAll() {
+		// When / Act
+		List<PersonTextIndex.Hit> hits = index.search("rua souza", 10, false);
+
+		// Then / Assert
+		assertEquals(List.of(1L, 3L), ids(hits));
+		assertEquals(List.of(3L), ids(index.search("rua flores", 10, false)));
+		assertEquals(List.of(), ids(index.search("rua paulista", 10, false)));
+	}
+
+	@Test
+	@DisplayName("test Given Misspelled Term When Search Fuzzy then Return Person")
+	void testGivenMisspelledTerm_WhenSearchFuzzy_thenReturnPerson() {
+		// When / Act
+		List<PersonTextIndex.Hit> exact = index.search("paulitsa", 10, false);
+		List<PersonTextIndex.Hit> fuzzy = index.search("paulitsa", 10, true);
+
+		// Then / Assert
+		assertEquals(List.of(), ids(exact));
+		assertEquals(List.of(2L), ids(fuzzy));
+	}
+
+	@Test
+	@DisplayName("test Given Updated And Deleted People When Search then Return Current Values Only")
+	void testGivenUpdatedAndDeletedPeople_WhenSearch_thenReturnCurrentValuesOnly() {
+		// Given / Arrange
+		index.index(new Person(1L, "Ana", "Pereira", "Rua São João 10", "Female", "ana@test.com"));
+		index.delete(3L);
+
+		// When / Act
+		List<PersonTextIndex.Hit> hits = index.search("souza", 10, false);
+
+		// Then / Assert
+		assertEquals(List.of(), ids(hits));
+		assertEquals(List.of(1L), ids(index.search("pereira", 10, false)));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	@DisplayName("test Given Segments When Merge then Search Like One Index")
+	void testGivenSegments_WhenMerge_thenSearchLikeOneIndex() {
+		// Given / Arrange
+		PersonTextIndex other = new PersonTextIndex(50);
+		other.index(new Person(4L, "Ana", "Lima", "Rua Augusta 7", "Female", "lima@test.com"));
+		other.index(new Person(5L, "Pedro", "Lima", "Rua Augusta 8", "Male", "pedro@test.com"));
+		other.delete(5L);
+
+		// When / Act
+		PersonTextIndex merged = PersonTextIndex.merge(List.of(index, other), 50);
+
+		// Then / Assert
+		assertEquals(4, merged.size());
+		assertEquals(List.of(1L, 4L), ids(merged.search("ana", 10, false)));
+		assertEquals(List.of(4L), ids(merged.search("lima", 10, false)));
+	}
+
+	@Test
+	@DisplayName("test Given More Hits Than Limit When Search then Return Best Ranked")
+	void testGivenMoreHitsThanLimit_WhenSearch_thenReturnBestRanked() {
+		// When / Act
+		List<PersonTextIndex.Hit> hits = index.search("test", 1, false);
+
+		// Then / Assert
+		assertEquals(List.of(1L), ids(hits));
+	}
+
+	private static List<Long> ids(List<PersonTextIndex.Hit> hits) {
+		return hits.stream().map(PersonTextIndex.Hit::personId).toList();
+	}
+}
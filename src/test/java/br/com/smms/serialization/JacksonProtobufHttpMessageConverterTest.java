@@ -0,0 +1,96 @@
+package br.com.smms.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.web.PagedModel;
+
+import com.fasterxml.jackson.dataformat.protobuf.schema.FieldType;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufField;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufMessage;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+
+import br.com.smms.exceptions.ExceptionResponse;
+import br.com.smms.model.BatchItemResult;
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonChange;
+import br.com.smms.model.PersonChangePage;
+import br.com.smms.model.PersonDeltaPage;
+import br.com.smms.model.PersonPage;
+import br.com.smms.model.PersonWriteStatus;
+
+class JacksonProtobufHttpMessageConverterTest {
+
+	private JacksonProtobufHttpMessageConverter converter;
+
+	private NativeProtobufSchema published;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		converter = new JacksonProtobufHttpMessageConverter();
+		try (InputStream proto = getClass().getResourceAsStream("/static" + JacksonProtobufHttpMessageConverter.SCHEMA_LOCATION)) {
+			published = ProtobufSchemaLoader.std.loadNative(proto, true);
+		}
+	}
+
+	@Test
+	@DisplayName("test Given Published Proto When Generate Schema Of Every Served Type then Match Its Message")
+	void testGivenPublishedProto_WhenGenerateSchemaOfEveryServedType_thenMatchItsMessage() {
+		// Given / Arrange
+		Map<String, Type> messages = new LinkedHashMap<>();
+		messages.put("Person", Person.class);
+		messages.put("PersonPage", PersonPage.class);
+		messages.put("PersonDeltaPage", PersonDeltaPage.class);
+		messages.put("PersonSearchPage", new ParameterizedTypeReference<PagedModel<Person>>() {}.getType());
+		messages.put("PersonChangePage", PersonChangePage.class);
+		messages.put("PersonChange", PersonChange.class);
+		messages.put("BatchItemResult", BatchItemResult.class);
+		messages.put("PersonWriteStatus", PersonWriteStatus.class);
+		messages.put("ExceptionResponse", ExceptionResponse.class);
+		messages.put("PersonList", new ParameterizedTypeReference<List<Person>>() {}.getType());
+		messages.put("PersonIdList", new ParameterizedTypeReference<List<Long>>() {}.getType());
+		messages.put("BatchItemResultList", new ParameterizedTypeReference<List<BatchItemResult>>() {}.getType());
+
+		// When / Act
+		Map<String, String> generated = new LinkedHashMap<>();
+		messages.forEach((name, type) -> generated.put(name,
+				describe(converter.schemaFor(type).orElseThrow().getRootType())));
+
+		//	Then / Assert
+		assertEquals(published.getMessageNames(), new ArrayList<>(messages.keySet()));
+		messages.keySet().forEach(name -> assertEquals(describe(published.forType(name).getRootType()),
+				generated.get(name), name));
+	}
+
+	// Number, name, cardinality and type of every field, nested messages and enum values included
+	private static String describe(ProtobufMessage message) {
+		return StreamSupport.stream(message.fields().spliterator(), false)
+				.sorted()
+				.map(JacksonProtobufHttpMessageConverterTest::describe)
+				.collect(Collectors.joining(", ", "{", "}"));
+	}
+
+	private static String describe(ProtobufField field) {
+		String type = field.isObject ? describe(field.getMessageType())
+				: field.type == FieldType.ENUM ? field.getEnumValues().stream()
+						.sorted(Comparator.comparingInt(field::findEnumIndex))
+						.map(value -> value + " = " + field.findEnumIndex(value))
+						.collect(Collectors.joining(", ", "enum {", "}"))
+				: field.type.toString();
+		return field.id + " " + (field.repeated ? "repeated " : "") + field.name + " " + type;
+	}
+}
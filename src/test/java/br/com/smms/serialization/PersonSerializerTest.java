@@ -0,0 +1,64 @@
+package br.com.smms.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.smms.model.Person;
+
+@JsonTest
+class PersonSerializerTest {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private ObjectMapper beanMapper;
+
+	private Person person;
+
+	@BeforeEach
+	void setUp() {
+		beanMapper = new ObjectMapper();
+
+		person = new Person("First Test",
+				"Last \"Quoted\" Test",
+				"Rua São João",
+				"Male",
+				"email@test.com");
+		person.setId(1L);
+		person.setVersion(2L);
+	}
+
+	@Test
+	@DisplayName("test Given Person When Serialize then Match Bean Serializer Output")
+	void testGivenPerson_WhenSerialize_thenMatchBeanSerializerOutput() throws Exception {
+		// When / Act
+		String json = objectMapper.writeValueAsString(person);
+
+		// Then / Assert
+		assertEquals(beanMapper.writeValueAsString(person), json);
+		assertEquals(PersonSerializer.class,
+				objectMapper.getSerializerProviderInstance().findValueSerializer(Person.class).getClass());
+	}
+
+	@Test
+	@DisplayName("test Given New Person List When Serialize then Write Null Id And Version")
+	void testGivenNewPersonList_WhenSerialize_thenWriteNullIdAndVersion() throws Exception {
+		// Given / Arrange
+		Person unsaved = new Person("First Test 2", "Last Test 2", "Street Test 2", "Female", "email2@test.com");
+
+		// When / Act
+		String json = objectMapper.writeValueAsString(List.of(person, unsaved));
+
+		// Then / Assert
+		assertEquals(beanMapper.writeValueAsString(List.of(person, unsaved)), json);
+	}
+}
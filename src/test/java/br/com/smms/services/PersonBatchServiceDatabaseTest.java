@@ -0,0 +1,56 @@
+package br.com.smms.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.smms.model.BatchItemResult;
+import br.com.smms.model.Person;
+import br.com.smms.repositories.PersonRepository;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("embedded")
+class PersonBatchServiceDatabaseTest {
+
+	@Autowired
+	private PersonBatchService personBatchService;
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	@DisplayName("test Given Chunk Failing On Constraints When Create All then Report Every Item And Keep The Created Ones")
+	void testGivenChunkFailingOnConstraints_WhenCreateAll_thenReportEveryItemAndKeepTheCreatedOnes() {
+		// Given / Arrange
+		// Written behind the Bloom filter's back, as another instance would
+		jdbcTemplate.update("INSERT INTO person (id, first_name, last_name, address, gender, email, version) "
+				+ "VALUES (900001, 'Taken', 'Taken', 'Street', 'Male', 'taken.batch@test.com', 0)");
+		Person created = new Person("Ayrton", "Senna", "Sao Paulo", "Male", "senna.batch@test.com");
+		Person taken = new Person("Alain", "Prost", "Paris", "Male", "taken.batch@test.com");
+		Person incomplete = new Person("Nigel", null, "Birmingham", "Male", "mansell.batch@test.com");
+
+		// When / Act
+		List<BatchItemResult> results = personBatchService.createAll(List.of(created, taken, incomplete).iterator());
+
+		//	Then / Assert
+		assertEquals(List.of(201, 409, 400), results.stream().map(BatchItemResult::getStatus).toList());
+		assertNotNull(results.get(0).getId());
+		assertEquals("Senna", personService.findById(results.get(0).getId()).get().getLastName());
+		assertTrue(personRepository.findByEmail("mansell.batch@test.com").isEmpty());
+	}
+}
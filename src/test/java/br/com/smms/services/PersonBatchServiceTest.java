@@ -0,0 +1,191 @@
+package br.com.smms.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.smms.changes.PersonChangeCapture;
+import br.com.smms.config.CacheConfig;
+import br.com.smms.model.BatchItemResult;
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonChange;
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.sharding.PersonShardRouter;
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PersonBatchServiceTest {
+
+	@Mock
+	private PersonRepository personRepository;
+
+	@Mock
+	private CacheManager cacheManager;
+
+	@Mock
+	private Cache cache;
+
+	@Mock
+	private TransactionTemplate transactionTemplate;
+
+	@Mock
+	private EntityManager entityManager;
+
+	// Not sharded: no router available
+	@Mock
+	private ObjectProvider<PersonShardRouter> shardRouter;
+
+	@Mock
+	private ObjectProvider<PersonChangeCapture> changeCapture;
+
+	@Mock
+	private PersonChangeCapture capture;
+
+	@Spy
+	private EmailBloomFilter emailFilter = new EmailBloomFilter(1000, 0.01);
+
+	@InjectMocks
+	private PersonBatchService personBatchService;
+
+	private Person person, person2, person3;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		ReflectionTestUtils.setField(personBatchService, "chunkSize", 2);
+		given(cacheManager.getCache(CacheConfig.PERSON_CACHE)).willReturn(cache);
+		willAnswer((invocation) -> {
+			invocation.<Consumer<TransactionStatus>> getArgument(0).accept(null);
+			return null;
+		}).given(transactionTemplate).executeWithoutResult(any(Consumer.class));
+		given(transactionTemplate.execute(any(TransactionCallback.class))).willAnswer(
+				(invocation) -> invocation.<TransactionCallback<?>> getArgument(0).doInTransaction(null));
+		emailFilter.load(Stream.empty());
+
+		person = new Person("First Test", "Last Test", "Street Test", "Male", "email@test.com");
+		person2 = new Person("First Test 2", "Last Test 2", "Street Test 2", "Female", "email2@test.com");
+		person3 = new Person("First Test 3", "Last Test 3", "Street Test 3", "Female", "email3@test.com");
+	}
+
+	@Test
+	@DisplayName("test Given People When Create All then Save In Chunks")
+	void testGivenPeople_WhenCreateAll_thenSaveInChunks() {
+		// When / Act
+		List<BatchItemResult> results = personBatchService.createAll(List.of(person, person2, person3).iterator());
+
+		// Then / Assert
+		assertEquals(3, results.size());
+		results.forEach(result -> assertEquals(201, result.getStatus()));
+		assertEquals(2, results.get(2).getIndex());
+		verify(personRepository, times(2)).saveAll(anyIterable());
+		verify(personRepository, times(2)).flush();
+		verify(personRepository, never()).findByEmailIn(anyCollection());
+	}
+
+	@Test
+	@DisplayName("test Given Duplicate Email In Batch When Create All then Reject Second Item")
+	void testGivenDuplicateEmailInBatch_WhenCreateAll_thenRejectSecondItem() {
+		// Given / Arrange
+		person2.setEmail(person.getEmail());
+
+		// When / Act
+		List<BatchItemResult> results = personBatchService.createAll(List.of(person, person2).iterator());
+
+		// Then / Assert
+		assertEquals(201, results.get(0).getStatus());
+		assertEquals(409, results.get(1).getStatus());
+	}
+
+	@Test
+	@DisplayName("test Given Unreachable Database When Create All then Report Each Person Unavailable")
+	@SuppressWarnings("unchecked")
+	void testGivenUnreachableDatabase_WhenCreateAll_thenReportEachPersonUnavailable() {
+		// Given / Arrange
+		willThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction"))
+			.given(transactionTemplate).executeWithoutResult(any(Consumer.class));
+
+		// When / Act
+		List<BatchItemResult> results = personBatchService.createAll(List.of(person, person2, person3).iterator());
+
+		// Then / Assert
+		assertEquals(List.of(503, 503, 503), results.stream().map(BatchItemResult::getStatus).toList());
+		verify(cache, never()).evict(any());
+	}
+
+	@Test
+	@DisplayName("test Given Existing And Missing Ids When Update All then Report Not Found")
+	void testGivenExistingAndMissingIds_WhenUpdateAll_thenReportNotFound() {
+		// Given / Arrange
+		Person stored = new Person(1L, "Old", "Old", "Old", "Male", "old@test.com");
+		person.setId(1L);
+		person2.setId(2L);
+		given(personRepository.findAllById(anyIterable())).willReturn(List.of(stored));
+
+		// When / Act
+		List<BatchItemResult> results = personBatchService.updateAll(List.of(person, person2).iterator());
+
+		// Then / Assert
+		assertEquals(200, results.get(0).getStatus());
+		assertEquals(404, results.get(1).getStatus());
+		assertEquals("First Test", stored.getFirstName());
+		verify(cache).evict(1L);
+	}
+
+	@Test
+	@DisplayName("test Given Ids When Delete All then Delete Existing In One Statement")
+	void testGivenIds_WhenDeleteAll_thenDeleteExistingInOneStatement() {
+		// Given / Arrange
+		given(personRepository.findExistingIds(anyCollection())).willReturn(List.of(1L));
+		willAnswer(invocation -> {
+			invocation.<Consumer<PersonChangeCapture>>getArgument(0).accept(capture);
+			return null;
+		}).given(changeCapture).ifAvailable(any());
+
+		// When / Act
+		List<BatchItemResult> results = personBatchService.deleteAll(List.of(1L, 2L).iterator());
+
+		// Then / Assert
+		assertEquals(204, results.get(0).getStatus());
+		assertEquals(404, results.get(1).getStatus());
+		verify(personRepository).tombstoneAllById(Set.of(1L));
+		verify(cache).evict(1L);
+		verify(personRepository, never()).findById(any());
+		verify(capture).record(eq(entityManager), argThat(change -> change.getType() == PersonChange.Type.DELETED
+				&& change.getPersonId().equals(1L)));
+		verify(capture, times(1)).record(any(), any());
+	}
+}
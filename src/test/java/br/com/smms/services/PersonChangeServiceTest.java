@@ -0,0 +1,132 @@
+package br.com.smms.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.smms.changes.PersonChangeCapture;
+import br.com.smms.exceptions.NotImplementedException;
+import br.com.smms.model.PersonChange;
+import br.com.smms.repositories.PersonChangeRepository;
+import br.com.smms.sharding.PersonShardRouter;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PersonChangeServiceTest {
+
+	@Mock
+	private PersonChangeRepository personChangeRepository;
+
+	@Spy
+	private PersonChangeCapture changeCapture = new PersonChangeCapture();
+
+	// Not sharded unless a test says so
+	@Mock
+	private ObjectProvider<PersonShardRouter> shardRouter;
+
+	@InjectMocks
+	private PersonChangeService personChangeService;
+
+	// Written by another instance: no local commit wakes anyone
+	private final AtomicLong lastSequence = new AtomicLong();
+	private final AtomicInteger reads = new AtomicInteger();
+	private final AtomicInteger lookups = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(personChangeService, "pollInterval", Duration.ofMillis(50));
+		ReflectionTestUtils.setField(personChangeService, "maxWait", Duration.ofSeconds(20));
+		PersonChange change = new PersonChange(PersonChange.Type.DELETED, 1L, null);
+		change.setSequence(1L);
+		given(personChangeRepository.findLastSequence()).willAnswer((invocation) -> {
+			lookups.incrementAndGet();
+			return lastSequence.get();
+		});
+		given(personChangeRepository.findBySequenceGreaterThanOrderBySequenceAsc(anyLong(), any(Limit.class)))
+				.willAnswer((invocation) -> {
+					reads.incrementAndGet();
+					return invocation.<Long> getArgument(0) < lastSequence.get() ? List.of(change) : List.of();
+				});
+	}
+
+	@AfterEach
+	void tearDown() {
+		personChangeService.destroy();
+	}
+
+	@Test
+	@DisplayName("test Given Many Idle Followers When Polling then Only The Shared Poller Queries And Wakes Them All")
+	void testGivenManyIdleFollowers_WhenPolling_thenOnlyTheSharedPollerQueriesAndWakesThemAll() throws Exception {
+		// Given / Arrange
+		CountDownLatch delivered = new CountDownLatch(20);
+		for (int i = 0; i < 20; i++) {
+			personChangeService.follow(0L, change -> delivered.countDown());
+		}
+		Thread.sleep(500);
+		int idleReads = reads.get();
+		int idleLookups = lookups.get();
+
+		// When / Act
+		lastSequence.set(1L);
+
+		//	Then / Assert
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+		assertEquals(20, idleReads);
+		// About one lookup per poll-interval, however many followers wait
+		assertTrue(idleLookups >= 1 && idleLookups <= 15, "lookups: " + idleLookups);
+	}
+
+	@Test
+	@DisplayName("test Given Waiting Reader When Another Instance Writes then Answer After One Poll")
+	void testGivenWaitingReader_WhenAnotherInstanceWrites_thenAnswerAfterOnePoll() throws Exception {
+		// Given / Arrange
+		var waiting = personChangeService.awaitSince(0L, 10, Duration.ofSeconds(10));
+		Thread.sleep(200);
+
+		// When / Act
+		lastSequence.set(1L);
+
+		//	Then / Assert
+		assertEquals(1L, waiting.get(5, TimeUnit.SECONDS).getNextSince());
+		assertEquals(2, reads.get());
+	}
+
+	@Test
+	@DisplayName("test Given Sharded Tables When Read Changes then Throw Not Implemented")
+	void testGivenShardedTables_WhenReadChanges_thenThrowNotImplemented() {
+		// Given / Arrange
+		given(shardRouter.getIfAvailable()).willReturn(mock(PersonShardRouter.class));
+
+		// When / Act / Then / Assert
+		assertThrows(NotImplementedException.class, () -> personChangeService.findSince(0L, 10));
+		assertThrows(NotImplementedException.class,
+				() -> personChangeService.awaitSince(0L, 10, Duration.ofSeconds(1)));
+		assertThrows(NotImplementedException.class, () -> personChangeService.follow(0L, change -> {}));
+	}
+}
@@ -0,0 +1,173 @@
+package br.com.smms.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonChange;
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.sharding.PersonShardRouter;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PersonSearchServiceTest {
+
+	@Mock
+	private PersonRepository personRepository;
+
+	@Mock
+	private PersonChangeService changeService;
+
+	// Not sharded unless a test says so
+	@Mock
+	private ObjectProvider<PersonShardRouter> shardRouter;
+
+	@InjectMocks
+	private PersonSearchService searchService;
+
+	private Person person, person2;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(searchService, "rebuildThreads", 2);
+		ReflectionTestUtils.setField(searchService, "rebuildPageSize", 10);
+		ReflectionTestUtils.setField(searchService, "maxExpansions", 50);
+
+		person = new Person(1L, "First", "Stored", "Street Test", "Male", "first@test.com");
+		person2 = new Person(2L, "Second", "Elsewhere", "Street Test 2", "Female", "second@test.com");
+		given(personRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).willReturn(List.of(person));
+		given(personRepository.findAllById(anyIterable())).willReturn(List.of(person, person2));
+		given(changeService.followShard(any(Integer.class), anyLong(), any())).willAnswer(
+				(invocation) -> mock(Future.class));
+	}
+
+	@Test
+	@DisplayName("test Given Person Written By Another Instance When Its Change Is Followed then Find It")
+	void testGivenPersonWrittenByAnotherInstance_WhenItsChangeIsFollowed_thenFindIt() {
+		// Given / Arrange
+		given(changeService.lastSequence(0)).willReturn(7L);
+		searchService.rebuild();
+		Consumer<PersonChange> follower = follower(0, 7L);
+
+		// When / Act
+		follower.accept(change(PersonChange.Type.CREATED, person2));
+		follower.accept(new PersonChange(PersonChange.Type.DELETED, 1L, null));
+
+		//	Then / Assert
+		assertEquals(List.of(person2), searchService.search("second", 5, false));
+		assertTrue(searchService.search("stored", 5, false).isEmpty());
+	}
+
+	@Test
+	@DisplayName("test Given Patch Changes When Followed then Read Person Again Only For Text Fields")
+	void testGivenPatchChanges_WhenFollowed_thenReadPersonAgainOnlyForTextFields() {
+		// Given / Arrange
+		searchService.rebuild();
+		Consumer<PersonChange> follower = follower(0, 0L);
+		PersonChange gender = new PersonChange(PersonChange.Type.UPDATED, 1L, null);
+		gender.setGender("Female");
+		PersonChange lastName = new PersonChange(PersonChange.Type.UPDATED, 1L, null);
+		lastName.setLastName("Patched");
+		given(personRepository.findById(1L)).willReturn(
+				Optional.of(new Person(1L, "First", "Patched", "Street Test", "Female", "first@test.com")));
+
+		// When / Act
+		follower.accept(gender);
+		verify(personRepository, never()).findById(1L);
+		follower.accept(lastName);
+
+		//	Then / Assert
+		verify(personRepository).findById(1L);
+		assertEquals(List.of(person), searchService.search("patched", 5, false));
+		assertTrue(searchService.search("stored", 5, false).isEmpty());
+	}
+
+	@Test
+	@DisplayName("test Given Sharded Tables When Rebuild then Follow The Outbox Of Every Shard")
+	void testGivenShardedTables_WhenRebuild_thenFollowTheOutboxOfEveryShard() {
+		// Given / Arrange
+		PersonShardRouter router = mock(PersonShardRouter.class);
+		given(router.getShardCount()).willReturn(2);
+		given(shardRouter.getIfAvailable()).willReturn(router);
+		given(shardRouter.getObject()).willReturn(router);
+		given(changeService.lastSequence(0)).willReturn(3L);
+		given(changeService.lastSequence(1)).willReturn(5L);
+
+		// When / Act
+		searchService.rebuild();
+
+		//	Then / Assert
+		follower(0, 3L);
+		follower(1, 5L).accept(change(PersonChange.Type.CREATED, person2));
+		assertEquals(List.of(person2), searchService.search("elsewhere", 5, false));
+	}
+
+	@Test
+	@DisplayName("test Given Follower Of Previous Index When Rebuild then Cancel It And Keep Its Changes Off The New Index")
+	void testGivenFollowerOfPreviousIndex_WhenRebuild_thenCancelItAndKeepItsChangesOffTheNewIndex() {
+		// Given / Arrange
+		List<Future<?>> followers = new ArrayList<>();
+		given(changeService.followShard(any(Integer.class), anyLong(), any())).willAnswer((invocation) -> {
+			Future<?> follower = mock(Future.class);
+			followers.add(follower);
+			return follower;
+		});
+		searchService.rebuild();
+		Consumer<PersonChange> previous = follower(0, 0L);
+
+		// When / Act
+		searchService.rebuild();
+		previous.accept(change(PersonChange.Type.CREATED, person2));
+
+		//	Then / Assert
+		verify(followers.get(0)).cancel(true);
+		assertTrue(searchService.search("second", 5, false).isEmpty());
+		assertEquals(List.of(person), searchService.search("stored", 5, false));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Consumer<PersonChange> follower(int shard, long since) {
+		ArgumentCaptor<Consumer<PersonChange>> follower = ArgumentCaptor.forClass(Consumer.class);
+		verify(changeService, atLeastOnce()).followShard(eq(shard), eq(since), follower.capture());
+		return follower.getAllValues().get(0);
+	}
+
+	private static PersonChange change(PersonChange.Type type, Person person) {
+		PersonChange change = new PersonChange(type, person.getId(), 0L);
+		change.setFirstName(person.getFirstName());
+		change.setLastName(person.getLastName());
+		change.setAddress(person.getAddress());
+		change.setGender(person.getGender());
+		change.setEmail(person.getEmail());
+		return change;
+	}
+}
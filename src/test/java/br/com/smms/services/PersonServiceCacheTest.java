@@ -0,0 +1,218 @@
+package br.com.smms.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import br.com.smms.config.CacheConfig;
+import br.com.smms.datasource.ReplicaRoutingDataSource;
+import br.com.smms.model.Person;
+import br.com.smms.repositories.PersonRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringJUnitConfig
+class PersonServiceCacheTest {
+
+	private static final long PERSON_ID = 1L;
+
+	@Configuration
+	@Import({ CacheConfig.class, PersonService.class, EmailBloomFilter.class })
+	static class Config {
+
+		// Converts Duration values of @Value like Spring Boot does
+		@Bean
+		static ConversionService conversionService() {
+			return new ApplicationConversionService();
+		}
+	}
+
+	@MockBean
+	private PersonRepository personRepository;
+
+	@MockBean
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private Person person;
+
+	@BeforeEach
+	void setUp() {
+		cacheManager.getCache(CacheConfig.PERSON_CACHE).clear();
+		
+		person = new Person(PERSON_ID, "First Test",
+				"Last Test",
+				"Street Test",
+				"Male",
+				"email@test.com");
+	}
+
+	@Test
+	@DisplayName("test Given Cached Person When FindById Twice then Hit Repository Once")
+	void testGivenCachedPerson_WhenFindByIdTwice_thenHitRepositoryOnce() {
+		// Given / Arrange
+		given(personRepository.findById(PERSON_ID)).willReturn(Optional.of(person));
+
+		// When / Act
+		Person first = personService.findById(PERSON_ID).orElseThrow();
+		Person second = personService.findById(PERSON_ID).orElseThrow();
+
+		// Then / Assert
+		assertSame(first, second);
+		verify(personRepository, times(1)).findById(PERSON_ID);
+	}
+
+	@Test
+	@DisplayName("test Given Cached Person When Delete then Next FindById Misses")
+	void testGivenCachedPerson_WhenDelete_thenNextFindByIdMisses() {
+		// Given / Arrange
+		given(personRepository.findById(PERSON_ID)).willReturn(Optional.of(person));
+		personService.findById(PERSON_ID);
+
+		// When / Act
+		personService.delete(PERSON_ID);
+		given(personRepository.findById(PERSON_ID)).willReturn(Optional.empty());
+
+		// Then / Assert
+		assertTrue(personService.findById(PERSON_ID).isEmpty());
+	}
+
+	@Test
+	@DisplayName("test Given Missing Person When FindById Twice then Hit Repository Once")
+	void testGivenMissingPerson_WhenFindByIdTwice_thenHitRepositoryOnce() {
+		// Given / Arrange
+		given(personRepository.findById(PERSON_ID)).willReturn(Optional.empty());
+
+		// When / Act
+		personService.findById(PERSON_ID);
+		Optional<Person> second = personService.findById(PERSON_ID);
+
+		// Then / Assert
+		assertTrue(second.isEmpty());
+		verify(personRepository, times(1)).findById(PERSON_ID);
+	}
+
+	@Test
+	@DisplayName("test Given Missing Person When FindById then Cache Miss Apart From People")
+	void testGivenMissingPerson_WhenFindById_thenCacheMissApartFromPeople() {
+		// Given / Arrange
+		given(personRepository.findById(PERSON_ID)).willReturn(Optional.empty());
+
+		// When / Act
+		personService.findById(PERSON_ID);
+
+		//	Then / Assert
+		CaffeineCache people = (CaffeineCache) cacheManager.getCache(CacheConfig.PERSON_CACHE);
+		assertEquals(0, people.getNativeCache().asMap().size());
+		assertNotNull(cacheManager.getCache(CacheConfig.MISSING_PERSON_CACHE).get(PERSON_ID));
+	}
+
+	@Test
+	@DisplayName("test Given Cached Miss When Create Person then FindById Returns It")
+	void testGivenCachedMiss_WhenCreatePerson_thenFindByIdReturnsIt() {
+		// Given / Arrange
+		given(personRepository.findById(PERSON_ID)).willReturn(Optional.empty());
+		given(personRepository.findByEmail(person.getEmail())).willReturn(Optional.empty());
+		given(personRepository.save(person)).willReturn(person);
+		personService.findById(PERSON_ID);
+
+		// When / Act
+		personService.create(person);
+
+		// Then / Assert
+		assertSame(person, personService.findById(PERSON_ID).orElseThrow());
+	}
+
+	@Test
+	@DisplayName("test Given Cached Person When Update then Next FindById Reloads")
+	void testGivenCachedPerson_WhenUpdate_thenNextFindByIdReloads() {
+		// Given / Arrange
+		given(personRepository.findById(PERSON_ID)).willReturn(Optional.of(person));
+		given(personRepository.save(any(Person.class))).willAnswer((invocation) -> invocation.getArgument(0));
+		personService.findById(PERSON_ID);
+
+		// When / Act
+		personService.update(person);
+		clearInvocations(personRepository);
+		personService.findById(PERSON_ID);
+
+		// Then / Assert
+		verify(personRepository, times(1)).findById(PERSON_ID);
+	}
+
+	@Test
+	@DisplayName("test Given Created Person When FindById then Served From Cache")
+	void testGivenCreatedPerson_WhenFindById_thenServedFromCache() {
+		// Given / Arrange
+		given(personRepository.findByEmail(person.getEmail())).willReturn(Optional.empty());
+		given(personRepository.save(person)).willReturn(person);
+
+		// When / Act
+		personService.create(person);
+		Person found = personService.findById(PERSON_ID).orElseThrow();
+
+		// Then / Assert
+		assertNotNull(found);
+		verify(personRepository, times(0)).findById(PERSON_ID);
+	}
+
+	@Test
+	@DisplayName("test Given Stale Replica When FindById then Cache Row Read From Primary")
+	void testGivenStaleReplica_WhenFindById_thenCacheRowReadFromPrimary() {
+		// Given / Arrange
+		Person stale = new Person(PERSON_ID, "Stale First", "Last Test", "Street Test", "Male", "email@test.com");
+		// The replica still has the row as it was before the last write
+		given(personRepository.findById(PERSON_ID)).willAnswer((invocation) -> Optional.of(
+				ReplicaRoutingDataSource.isPrimaryOnly() ? person : stale));
+
+		// When / Act
+		Person first = personService.findById(PERSON_ID).orElseThrow();
+		Person second = personService.findById(PERSON_ID).orElseThrow();
+
+		//	Then / Assert
+		assertEquals("First Test", first.getFirstName());
+		assertSame(first, second);
+		assertFalse(ReplicaRoutingDataSource.isPrimaryOnly());
+	}
+
+	@Test
+	@DisplayName("test Given Replica Missing New Row When FindById then Do Not Cache Miss")
+	void testGivenReplicaMissingNewRow_WhenFindById_thenDoNotCacheMiss() {
+		// Given / Arrange
+		given(personRepository.findById(PERSON_ID)).willAnswer((invocation) ->
+				ReplicaRoutingDataSource.isPrimaryOnly() ? Optional.of(person) : Optional.empty());
+
+		// When / Act
+		Optional<Person> found = personService.findById(PERSON_ID);
+
+		//	Then / Assert
+		assertTrue(found.isPresent());
+	}
+}
@@ -3,11 +3,13 @@ package br.com.smms.services;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.atLeastOnce;
@@ -15,9 +17,21 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -26,11 +40,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import br.com.smms.exceptions.PreconditionFailedException;
 import br.com.smms.exceptions.ResourceNotFoundException;
 import br.com.smms.model.Person;
+import br.com.smms.model.PersonDeltaPage;
+import br.com.smms.model.PersonPage;
 import br.com.smms.repositories.PersonRepository;
+import jakarta.persistence.EntityManager;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +66,12 @@ class PersonServiceTest {
 	@Mock
 	private PersonRepository personRepository;
 	
+	@Mock
+	private EntityManager entityManager;
+	
+	@Spy
+	private EmailBloomFilter emailFilter = new EmailBloomFilter(1000, 0.01);
+	
 	@InjectMocks
 	private PersonService personService;
 	
@@ -92,6 +125,66 @@ class PersonServiceTest {
 		verify(personRepository, never()).save(any(Person.class));
 	}
 	
+	@Test
+	@DisplayName("test Given New Email When Save Person then Skip Email Lookup")
+	void testGivenNewEmail_WhenSavePerson_thenSkipEmailLookup() {
+		// Given / Arrange
+		emailFilter.load(Stream.of(person2.getEmail()));
+		given(personRepository.save(person)).willReturn(person);
+		
+		// When / Act
+		personService.create(person);
+		//	Then / Assert
+		verify(personRepository, never()).findByEmail(anyString());
+		assertTrue(emailFilter.mightContain(person.getEmail()));
+	}
+	
+	@Test
+	@DisplayName("test Given Parallel Creates With Same Email When Save Person then Only One Succeeds")
+	void testGivenParallelCreatesWithSameEmail_WhenSavePerson_thenOnlyOneSucceeds() throws Exception {
+		// Given / Arrange
+		int clients = 16;
+		emailFilter.load(Stream.empty());
+		Set<String> storedEmails = ConcurrentHashMap.newKeySet();
+		// Behaves like the uk_person_email unique index
+		given(personRepository.save(any(Person.class))).willAnswer((invocation) -> {
+			Person saving = invocation.getArgument(0);
+			if (!storedEmails.add(saving.getEmail())) {
+				throw new DataIntegrityViolationException("Duplicate entry for key 'person.uk_person_email'");
+			}
+			return saving;
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(clients);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Person>> results = new ArrayList<>();
+		for (int i = 0; i < clients; i++) {
+			Person duplicate = new Person("First " + i, "Last " + i, "Street " + i, "Male", "same@test.com");
+			results.add(executor.submit(() -> {
+				start.await();
+				return personService.create(duplicate);
+			}));
+		}
+		
+		// When / Act
+		start.countDown();
+		int created = 0;
+		int rejected = 0;
+		for (Future<Person> result : results) {
+			try {
+				result.get();
+				created++;
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof ResourceNotFoundException);
+				rejected++;
+			}
+		}
+		executor.shutdown();
+		
+		//	Then / Assert
+		assertEquals(1, created);
+		assertEquals(clients - 1, rejected);
+	}
+	
 	@Test
 	@DisplayName("test Given Person List When Find All Person then Return Person List")
 	void testGivenPersonList_WhenFindAllPerson_thenReturnPersonList() {
@@ -119,6 +212,113 @@ class PersonServiceTest {
 		assertEquals(0, people.size());
 	}
 	
+	@Test
+	@DisplayName("test Given More People Than Limit When Find Page then Return Next Cursor")
+	void testGivenMorePeopleThanLimit_WhenFindPage_thenReturnNextCursor() {
+		// Given / Arrange
+		person.setId(1L);
+		person2.setId(2L);
+		given(personRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+			.willReturn(List.of(person, person2));
+		
+		// When / Act
+		PersonPage page = personService.findPage(0L, 1);
+		//	Then / Assert
+		assertEquals(1, page.getContent().size());
+		assertEquals(1L, page.getNextCursor());
+		verify(personRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+	}
+	
+	@Test
+	@DisplayName("test Given Last Page When Find Page then Return No Cursor")
+	void testGivenLastPage_WhenFindPage_thenReturnNoCursor() {
+		// Given / Arrange
+		person2.setId(2L);
+		given(personRepository.findByIdGreaterThanOrderByIdAsc(eq(1L), any(Limit.class)))
+			.willReturn(List.of(person2));
+		
+		// When / Act
+		PersonPage page = personService.findPage(1L, 10);
+		//	Then / Assert
+		assertEquals(1, page.getContent().size());
+		assertNull(page.getNextCursor());
+	}
+	
+	@Test
+	@DisplayName("test Given More Modified Rows Than Limit When Find Modified Since then Continue After Last Row")
+	void testGivenMoreModifiedRowsThanLimit_WhenFindModifiedSince_thenContinueAfterLastRow() {
+		// Given / Arrange
+		Instant since = Instant.parse("2024-01-01T00:00:00Z");
+		person.setId(1L);
+		person.setUpdatedAt(since.plusSeconds(10));
+		person2.setId(2L);
+		person2.setUpdatedAt(since.plusSeconds(20));
+		given(personRepository.findModifiedSince(since, 0L, Limit.of(2))).willReturn(List.of(person, person2));
+		
+		// When / Act
+		PersonDeltaPage page = personService.findModifiedSince(since, null, 1);
+		//	Then / Assert
+		assertEquals(List.of(person), page.getChanged());
+		assertTrue(page.isMore());
+		assertEquals(since.plusSeconds(10), page.getNextModifiedSince());
+		assertEquals(1L, page.getNextAfter());
+	}
+	
+	@Test
+	@DisplayName("test Given Last Modified Rows When Find Modified Since then Split Deletions And Step Cursor Back")
+	void testGivenLastModifiedRows_WhenFindModifiedSince_thenSplitDeletionsAndStepCursorBack() {
+		// Given / Arrange
+		ReflectionTestUtils.setField(personService, "syncOverlap", Duration.ofSeconds(2));
+		Instant since = Instant.parse("2024-01-01T00:00:00Z");
+		person.setId(1L);
+		person.setUpdatedAt(since.plusSeconds(10));
+		person2.setId(2L);
+		person2.setUpdatedAt(since.plusSeconds(20));
+		ReflectionTestUtils.setField(person2, "active", null);
+		given(personRepository.findModifiedSince(since, 7L, Limit.of(101))).willReturn(List.of(person, person2));
+		
+		// When / Act
+		PersonDeltaPage page = personService.findModifiedSince(since, 7L, 100);
+		PersonDeltaPage caughtUp = PersonService.deltaPage(List.of(), 100, page.getNextModifiedSince(),
+				page.getNextAfter(), Duration.ofSeconds(2));
+		//	Then / Assert
+		assertEquals(List.of(person), page.getChanged());
+		assertEquals(List.of(2L), page.getDeleted());
+		assertFalse(page.isMore());
+		assertEquals(since.plusSeconds(18), page.getNextModifiedSince());
+		assertEquals(0L, page.getNextAfter());
+		assertEquals(page.getNextModifiedSince(), caughtUp.getNextModifiedSince());
+	}
+	
+	@Test
+	@DisplayName("test Given Oversized Page When Search then Clamp Size And Sort In Index Order")
+	void testGivenOversizedPage_WhenSearch_thenClampSizeAndSortInIndexOrder() {
+		// Given / Arrange
+		given(personRepository.findByLastNameStartingWithAndFirstNameStartingWith(eq("Last"), eq(""), any(Pageable.class)))
+			.willReturn(new PageImpl<>(List.of(person)));
+		
+		// When / Act
+		Page<Person> page = personService.search("Last", null, 0, 5000);
+		//	Then / Assert
+		assertEquals(1, page.getContent().size());
+		verify(personRepository).findByLastNameStartingWithAndFirstNameStartingWith("Last", "",
+				PageRequest.of(0, PersonService.MAX_PAGE_SIZE, Sort.by("lastName", "firstName", "id")));
+	}
+	
+	@Test
+	@DisplayName("test Given People When Stream All then Consume And Detach Each Person")
+	void testGivenPeople_WhenStreamAll_thenConsumeAndDetachEachPerson() {
+		// Given / Arrange
+		given(personRepository.streamAll()).willReturn(Stream.of(person, person2));
+		List<Person> consumed = new ArrayList<>();
+		
+		// When / Act
+		personService.streamAll(consumed::add);
+		//	Then / Assert
+		assertEquals(List.of(person, person2), consumed);
+		verify(entityManager, times(2)).detach(any(Person.class));
+	}
+	
 	@Test
 	@DisplayName("test Given Person Id When FindById then Return Person Object")
 	void testGivenPersonID_WhenFindById_thenReturnPersonObject() {
@@ -126,24 +326,39 @@ class PersonServiceTest {
 		given(personRepository.findById(anyLong())).willReturn(Optional.of(person));
 		
 		// When / Act
-		Person savedPerson = personService.findById(1L);
+		Person savedPerson = personService.findById(1L).orElseThrow();
 		//	Then / Assert
 		assertNotNull(savedPerson);
 		assertEquals("First Test", savedPerson.getFirstName());
 	}
 	
 	@Test
-	@DisplayName("test Given Person Id When FindById then Throws Exception")
-	void testGivenPersonID_WhenFindById_thenThrowsException() {
+	@DisplayName("test Given Unexistent Person Id When FindById then Return Empty")
+	void testGivenUnexistentPersonID_WhenFindById_thenReturnEmpty() {
+		// Given / Arrange
+		given(personRepository.findById(anyLong())).willReturn(Optional.empty());
+		
+		// When / Act
+		Optional<Person> result = personService.findById(1L);
+
+		//	Then / Assert
+		assertTrue(result.isEmpty());
+	}
+	
+	@Test
+	@DisplayName("test Given Unexistent Person Id When Update Person then Throws Stackless Exception")
+	void testGivenUnexistentPersonID_WhenUpdatePerson_thenThrowsStacklessException() {
 		// Given / Arrange
 		given(personRepository.findById(anyLong())).willReturn(Optional.empty());
+		person.setId(1L);
 		
 		// When / Act
 		ResourceNotFoundException result = assertThrows(ResourceNotFoundException.class,
-				() -> personService.findById(1L));
+				() -> personService.update(person));
 
 		//	Then / Assert
 		assertTrue(result.getMessage().contains("No records found this ID!"));
+		assertEquals(0, result.getStackTrace().length);
 	}
 	
 	@Test
@@ -182,4 +397,89 @@ class PersonServiceTest {
 		verify(personRepository, atLeastOnce()).delete(person);
 	}
 	
+	@Test
+	@DisplayName("test Given Stale Version When Update Person then Throws PreconditionFailedException")
+	void testGivenStaleVersion_WhenUpdatePerson_thenThrowsPreconditionFailedException() {
+		// Given / Arrange
+		person.setId(1L);
+		person.setVersion(3L);
+		given(personRepository.findById(anyLong())).willReturn(Optional.of(person));
+		
+		Person stale = new Person("First Update Test", "Last Test", "Street Test", "Male", "email@test.com");
+		stale.setId(1L);
+		stale.setVersion(2L);
+		
+		// When / Act
+		assertThrows(PreconditionFailedException.class, () -> personService.update(stale));
+		
+		//	Then / Assert
+		verify(personRepository, never()).save(any(Person.class));
+	}
+	
+	@Test
+	@DisplayName("test Given Stale Version When Delete Person then Throws PreconditionFailedException")
+	void testGivenStaleVersion_WhenDeletePerson_thenThrowsPreconditionFailedException() {
+		// Given / Arrange
+		person.setId(1L);
+		person.setVersion(3L);
+		given(personRepository.findById(anyLong())).willReturn(Optional.of(person));
+		
+		// When / Act
+		assertThrows(PreconditionFailedException.class, () -> personService.delete(1L, 2L));
+		
+		//	Then / Assert
+		verify(personRepository, never()).delete(any(Person.class));
+	}
+	
+	@Test
+	@DisplayName("test Given Changed Field When Patch Person then Update Without Loading")
+	void testGivenChangedField_WhenPatchPerson_thenUpdateWithoutLoading() {
+		// Given / Arrange
+		given(personRepository.patch(1L, Map.of("email", "patched@test.com"), 2L)).willReturn(1);
+		
+		// When / Act
+		personService.patch(1L, Map.of("email", "patched@test.com"), 2L);
+		
+		//	Then / Assert
+		verify(personRepository, never()).findById(anyLong());
+		assertTrue(emailFilter.mightContain("patched@test.com"));
+	}
+	
+	@Test
+	@DisplayName("test Given No Affected Row When Patch Person then Throws ResourceNotFoundException")
+	void testGivenNoAffectedRow_WhenPatchPerson_thenThrowsResourceNotFoundException() {
+		// Given / Arrange
+		given(personRepository.patch(1L, Map.of("firstName", "Patched"), null)).willReturn(0);
+		
+		// When / Act
+		assertThrows(ResourceNotFoundException.class,
+				() -> personService.patch(1L, Map.of("firstName", "Patched"), null));
+		
+		//	Then / Assert
+		verify(personRepository, never()).existsById(anyLong());
+	}
+	
+	@Test
+	@DisplayName("test Given Stale Version When Patch Person then Throws PreconditionFailedException")
+	void testGivenStaleVersion_WhenPatchPerson_thenThrowsPreconditionFailedException() {
+		// Given / Arrange
+		given(personRepository.patch(1L, Map.of("firstName", "Patched"), 2L)).willReturn(0);
+		given(personRepository.existsById(1L)).willReturn(true);
+		
+		// When / Act / Then / Assert
+		assertThrows(PreconditionFailedException.class,
+				() -> personService.patch(1L, Map.of("firstName", "Patched"), 2L));
+	}
+	
+	@Test
+	@DisplayName("test Given Unknown Field When Patch Person then Throws IllegalArgumentException")
+	void testGivenUnknownField_WhenPatchPerson_thenThrowsIllegalArgumentException() {
+		// When / Act
+		assertThrows(IllegalArgumentException.class,
+				() -> personService.patch(1L, Map.of("id", "2"), null));
+		
+		//	Then / Assert
+		verify(personRepository, never()).patch(anyLong(), any(), any());
+	}
+	
 }
@@ -0,0 +1,323 @@
+package br.com.smms.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.smms.exceptions.TooManyRequestsException;
+import br.com.smms.model.BatchItemResult;
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonWriteStatus;
+
+@ExtendWith(MockitoExtension.class)
+class PersonWriteBehindServiceTest {
+
+	@Mock
+	private PersonBatchService personBatchService;
+
+	@TempDir
+	private Path directory;
+
+	private Path journal;
+	private ObjectMapper objectMapper = new ObjectMapper();
+	private PersonWriteBehindService writeBehind;
+	private Person person;
+
+	@BeforeEach
+	void setUp() {
+		journal = directory.resolve("person.journal");
+		person = new Person("First Test",
+				"Last Test",
+				"Street Test",
+				"Male",
+				"email@test.com");
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (writeBehind != null) {
+			writeBehind.stop();
+		}
+	}
+
+	@Test
+	@DisplayName("test Given Person When Submit then Journal And Write In Batch")
+	@SuppressWarnings("unchecked")
+	void testGivenPerson_WhenSubmit_thenJournalAndWriteInBatch() throws Exception {
+		// Given / Arrange
+		givenBatchWrites((invocation) -> created(invocation.getArgument(0)));
+		writeBehind = new PersonWriteBehindService(true, 10, 100, journal.toString(), false, personBatchService, objectMapper);
+		writeBehind.start();
+
+		// When / Act
+		PersonWriteStatus accepted = writeBehind.submit(person);
+
+		// Then / Assert
+		assertEquals(PersonWriteStatus.State.PENDING, accepted.getState());
+		verify(personBatchService, timeout(5000)).createAll(any(Iterator.class), any(Consumer.class));
+		PersonWriteStatus written = awaitDone(accepted.getTrackingId());
+		assertEquals(PersonWriteStatus.State.DONE, written.getState());
+		assertEquals(201, written.getStatus());
+	}
+
+	@Test
+	@DisplayName("test Given Full Queue When Submit then Throws TooManyRequestsException")
+	@SuppressWarnings("unchecked")
+	void testGivenFullQueue_WhenSubmit_thenThrowsTooManyRequestsException() throws Exception {
+		// Given / Arrange
+		CountDownLatch release = new CountDownLatch(1);
+		givenBatchWrites((invocation) -> {
+			release.await();
+			return created(invocation.getArgument(0));
+		});
+		writeBehind = new PersonWriteBehindService(true, 1, 1, journal.toString(), false, personBatchService, objectMapper);
+		writeBehind.start();
+		writeBehind.submit(person);
+		verify(personBatchService, timeout(5000)).createAll(any(Iterator.class), any(Consumer.class));
+		writeBehind.submit(new Person("First Test 2", "Last Test 2", "Street Test 2", "Male", "email2@test.com"));
+
+		// When / Act
+		assertThrows(TooManyRequestsException.class, () -> writeBehind.submit(
+				new Person("First Test 3", "Last Test 3", "Street Test 3", "Male", "email3@test.com")));
+
+		// Then / Assert
+		assertEquals(2, Files.readAllLines(journal).size());
+		release.countDown();
+	}
+
+	@Test
+	@DisplayName("test Given Journal With Unfinished Entries When Start then Replay Only Those")
+	@SuppressWarnings("unchecked")
+	void testGivenJournalWithUnfinishedEntries_WhenStart_thenReplayOnlyThose() throws Exception {
+		// Given / Arrange
+		List<String> emails = new ArrayList<>();
+		givenBatchWrites((invocation) -> {
+			Iterator<Person> people = invocation.getArgument(0);
+			List<Person> list = new ArrayList<>();
+			people.forEachRemaining(list::add);
+			list.forEach(p -> emails.add(p.getEmail()));
+			return created(list.iterator());
+		});
+		Files.writeString(journal,
+				"A\tdone-1\t" + objectMapper.writeValueAsString(person) + "\n"
+				+ "A\tpending-1\t" + objectMapper.writeValueAsString(
+						new Person("First Test 2", "Last Test 2", "Street Test 2", "Male", "email2@test.com")) + "\n"
+				+ "D\tdone-1\n"
+				+ "A\ttorn-1\t{\"firstName\":\"Fir",
+				StandardCharsets.UTF_8);
+		writeBehind = new PersonWriteBehindService(true, 10, 100, journal.toString(), false, personBatchService, objectMapper);
+
+		// When / Act
+		writeBehind.start();
+
+		// Then / Assert
+		assertEquals(PersonWriteStatus.State.DONE, awaitDone("pending-1").getState());
+		assertEquals(List.of("email2@test.com"), emails);
+		assertTrue(writeBehind.findStatus("done-1").isEmpty());
+	}
+
+	@Test
+	@DisplayName("test Given Fsync When Submit Concurrently then Accept Each Once Journaled")
+	@SuppressWarnings("unchecked")
+	void testGivenFsync_WhenSubmitConcurrently_thenAcceptEachOnceJournaled() throws Exception {
+		// Given / Arrange
+		CountDownLatch release = new CountDownLatch(1);
+		givenBatchWrites((invocation) -> {
+			release.await();
+			return created(invocation.getArgument(0));
+		});
+		writeBehind = new PersonWriteBehindService(true, 100, 100, journal.toString(), true, personBatchService, objectMapper);
+		writeBehind.start();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<PersonWriteStatus>> accepted = new ArrayList<>();
+
+		// When / Act
+		try {
+			for (int i = 0; i < 40; i++) {
+				Person other = new Person("First " + i, "Last " + i, "Street " + i, "Male", "email" + i + "@test.com");
+				accepted.add(executor.submit(() -> writeBehind.submit(other)));
+			}
+			for (Future<PersonWriteStatus> status : accepted) {
+				assertEquals(PersonWriteStatus.State.PENDING, status.get(10, TimeUnit.SECONDS).getState());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// Then / Assert
+		assertEquals(40, Files.readAllLines(journal).size());
+		release.countDown();
+	}
+
+	@Test
+	@DisplayName("test Given Nothing Submitted When Start then Create No Journal")
+	void testGivenNothingSubmitted_WhenStart_thenCreateNoJournal() throws Exception {
+		// Given / Arrange
+		Path nested = directory.resolve("write-behind").resolve("person.journal");
+		writeBehind = new PersonWriteBehindService(true, 10, 100, nested.toString(), false, personBatchService, objectMapper);
+
+		// When / Act
+		writeBehind.start();
+
+		// Then / Assert
+		assertFalse(Files.exists(nested.getParent()));
+	}
+
+	@Test
+	@DisplayName("test Given Write-Behind Disabled When Submit then Throws IllegalStateException")
+	void testGivenWriteBehindDisabled_WhenSubmit_thenThrowsIllegalStateException() throws Exception {
+		// Given / Arrange
+		writeBehind = new PersonWriteBehindService(false, 10, 100, journal.toString(), false, personBatchService, objectMapper);
+		writeBehind.start();
+
+		// When / Act
+		assertThrows(IllegalStateException.class, () -> writeBehind.submit(person));
+
+		// Then / Assert
+		assertFalse(writeBehind.isEnabled());
+		assertFalse(Files.exists(journal));
+	}
+
+	@Test
+	@DisplayName("test Given Database Unreachable For Some People When Written then Retry Only Those")
+	@SuppressWarnings("unchecked")
+	void testGivenDatabaseUnreachableForSomePeople_WhenWritten_thenRetryOnlyThose() throws Exception {
+		// Given / Arrange
+		CountDownLatch release = new CountDownLatch(1);
+		List<List<String>> attempts = new CopyOnWriteArrayList<>();
+		givenBatchWrites((invocation) -> {
+			List<String> emails = emails(invocation.getArgument(0));
+			attempts.add(emails);
+			if (attempts.size() == 1) {
+				// Keeps the worker busy until both people are queued
+				release.await();
+				return List.of(new BatchItemResult(0, 9L, 201, null));
+			}
+			if (attempts.size() == 2) {
+				return List.of(new BatchItemResult(0, 1L, 201, null),
+						new BatchItemResult(1, null, 503, "Database unavailable, retry later"));
+			}
+			return List.of(new BatchItemResult(0, 2L, 201, null));
+		});
+		writeBehind = new PersonWriteBehindService(true, 10, 100, journal.toString(), false, personBatchService, objectMapper);
+		writeBehind.start();
+		writeBehind.submit(new Person("First Test 0", "Last Test 0", "Street Test 0", "Male", "email0@test.com"));
+		verify(personBatchService, timeout(5000)).createAll(any(Iterator.class), any(Consumer.class));
+		PersonWriteStatus first = writeBehind.submit(person);
+		PersonWriteStatus second = writeBehind.submit(
+				new Person("First Test 2", "Last Test 2", "Street Test 2", "Male", "email2@test.com"));
+
+		// When / Act
+		release.countDown();
+
+		// Then / Assert
+		assertEquals(2L, awaitDone(second.getTrackingId()).getId());
+		assertEquals(1L, awaitDone(first.getTrackingId()).getId());
+		assertEquals(List.of(List.of("email@test.com", "email2@test.com"), List.of("email2@test.com")),
+				attempts.subList(1, attempts.size()));
+	}
+
+	@Test
+	@DisplayName("test Given Batch Failing After First Chunk When Written then Keep Its Results And Fail The Rest")
+	@SuppressWarnings("unchecked")
+	void testGivenBatchFailingAfterFirstChunk_WhenWritten_thenKeepItsResultsAndFailTheRest() throws Exception {
+		// Given / Arrange
+		CountDownLatch release = new CountDownLatch(1);
+		willAnswer((invocation) -> {
+			List<String> emails = emails(invocation.getArgument(0));
+			Consumer<List<BatchItemResult>> chunkResults = invocation.getArgument(1);
+			if (emails.size() == 1) {
+				release.await();
+			}
+			chunkResults.accept(List.of(new BatchItemResult(0, 1L, 201, null)));
+			if (emails.size() > 1) {
+				throw new IllegalStateException("Broken chunk");
+			}
+			return null;
+		}).given(personBatchService).createAll(any(Iterator.class), any(Consumer.class));
+		writeBehind = new PersonWriteBehindService(true, 10, 100, journal.toString(), false, personBatchService, objectMapper);
+		writeBehind.start();
+		writeBehind.submit(new Person("First Test 0", "Last Test 0", "Street Test 0", "Male", "email0@test.com"));
+		verify(personBatchService, timeout(5000)).createAll(any(Iterator.class), any(Consumer.class));
+		PersonWriteStatus first = writeBehind.submit(person);
+		PersonWriteStatus second = writeBehind.submit(
+				new Person("First Test 2", "Last Test 2", "Street Test 2", "Male", "email2@test.com"));
+
+		// When / Act
+		release.countDown();
+
+		// Then / Assert
+		PersonWriteStatus failed = awaitDone(second.getTrackingId());
+		assertEquals(PersonWriteStatus.State.FAILED, failed.getState());
+		assertEquals(500, failed.getStatus());
+		assertEquals(PersonWriteStatus.State.DONE, awaitDone(first.getTrackingId()).getState());
+		verify(personBatchService, times(2)).createAll(any(Iterator.class), any(Consumer.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void givenBatchWrites(Answer<List<BatchItemResult>> answer) {
+		willAnswer((invocation) -> {
+			invocation.<Consumer<List<BatchItemResult>>> getArgument(1).accept(answer.answer(invocation));
+			return null;
+		}).given(personBatchService).createAll(any(Iterator.class), any(Consumer.class));
+	}
+
+	private static List<String> emails(Iterator<Person> people) {
+		List<String> emails = new ArrayList<>();
+		people.forEachRemaining(p -> emails.add(p.getEmail()));
+		return emails;
+	}
+
+	private static List<BatchItemResult> created(Iterator<Person> people) {
+		List<BatchItemResult> results = new ArrayList<>();
+		long id = 1;
+		while (people.hasNext()) {
+			people.next();
+			results.add(new BatchItemResult(results.size(), id++, 201, null));
+		}
+		return results;
+	}
+
+	private PersonWriteStatus awaitDone(String trackingId) throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			PersonWriteStatus status = writeBehind.findStatus(trackingId).orElseThrow();
+			if (status.getState() != PersonWriteStatus.State.PENDING) {
+				return status;
+			}
+			Thread.sleep(10);
+		}
+		return writeBehind.findStatus(trackingId).orElseThrow();
+	}
+}
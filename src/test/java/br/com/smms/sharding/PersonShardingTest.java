@@ -0,0 +1,241 @@
+package br.com.smms.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.smms.config.CacheConfig;
+import br.com.smms.model.BatchItemResult;
+import br.com.smms.model.Person;
+import br.com.smms.model.PersonPage;
+import br.com.smms.repositories.PersonRepository;
+import br.com.smms.services.PersonBatchService;
+import br.com.smms.services.PersonService;
+
+// Three in-memory H2 databases stand in for the MySQL shards
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"person.sharding.create-schema=true",
+		"person.sharding.shards[0].url=jdbc:h2:mem:shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+		"person.sharding.shards[1].url=jdbc:h2:mem:shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+		"person.sharding.shards[2].url=jdbc:h2:mem:shard2;MODE=MySQL;DATABASE_TO_LOWER=TRUE" })
+@ActiveProfiles("embedded")
+class PersonShardingTest {
+
+	private static final int PEOPLE = 30;
+
+	@Autowired
+	private PersonService personService;
+
+	@Autowired
+	private PersonBatchService personBatchService;
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private PersonShardRouter router;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private List<Person> people;
+
+	@BeforeEach
+	void setUp() {
+		// Given / Arrange
+		personRepository.deleteAllInBatch();
+		cacheManager.getCache(CacheConfig.PERSON_CACHE).clear();
+		people = new ArrayList<>();
+		for (int i = 0; i < PEOPLE; i++) {
+			people.add(personService.create(new Person("First" + i, "Last" + (i % 3), "Street " + i,
+					i % 2 == 0 ? "Male" : "Female", "person" + i + "@test.com")));
+		}
+	}
+
+	@Test
+	@DisplayName("test Given New People When Create then Place Each By E-mail Hash With Its Shard In The Id")
+	void testGivenNewPeople_WhenCreate_thenPlaceEachByEmailHashWithItsShardInTheId() {
+		// When / Act
+		List<Integer> rowsPerShard = IntStream.range(0, router.getShardCount())
+				.mapToObj(shard -> ShardRoutingDataSource.callOn(shard,
+						() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Integer.class)))
+				.toList();
+
+		// Then / Assert
+		assertEquals(PEOPLE, rowsPerShard.stream().mapToInt(Integer::intValue).sum());
+		rowsPerShard.forEach(rows -> assertTrue(rows > 0, "every shard holds people: " + rowsPerShard));
+		for (Person person : people) {
+			int shard = router.shardOf(person.getEmail());
+			assertEquals(shard, SnowflakeIdGenerator.shardOf(person.getId()));
+			assertEquals(1, ShardRoutingDataSource.callOn(shard, () -> jdbcTemplate.queryForObject(
+					"SELECT COUNT(*) FROM person WHERE id = ?", Integer.class, person.getId())));
+		}
+	}
+
+	@Test
+	@DisplayName("test Given Sharded People When Find By Id Or E-mail then Route To The Owning Shard")
+	void testGivenShardedPeople_WhenFindByIdOrEmail_thenRouteToTheOwningShard() {
+		for (Person person : people) {
+			// When / Act / Then / Assert
+			assertEquals(person, personService.findById(person.getId()).orElseThrow());
+			assertEquals(person.getId(), personRepository.findByEmail(person.getEmail()).orElseThrow().getId());
+		}
+		assertTrue(personService.findById(people.get(0).getId() + 1).isEmpty());
+	}
+
+	@Test
+	@DisplayName("test Given Sharded People When List Or Search then Merge Every Shard")
+	void testGivenShardedPeople_WhenListOrSearch_thenMergeEveryShard() {
+		// When / Act
+		List<Person> all = personService.findAll();
+		List<Long> keyset = new ArrayList<>();
+		PersonPage page = personService.findPage(null, 7);
+		while (true) {
+			page.getContent().forEach(person -> keyset.add(person.getId()));
+			if (page.getNextCursor() == null) {
+				break;
+			}
+			page = personService.findPage(page.getNextCursor(), 7);
+		}
+		Page<Person> firstPage = personService.search("Last1", "First", 0, 4);
+		Page<Person> secondPage = personService.search("Last1", "First", 1, 4);
+		List<Person> streamed = new ArrayList<>();
+		personService.streamAll(streamed::add);
+
+		// Then / Assert
+		assertEquals(PEOPLE, all.size());
+		assertEquals(people.stream().map(Person::getId).sorted().toList(), keyset);
+		assertEquals(10, firstPage.getTotalElements());
+		assertEquals(List.of("First1", "First10", "First13", "First16"),
+				firstPage.getContent().stream().map(Person::getFirstName).toList());
+		assertEquals(List.of("First19", "First22", "First25", "First28"),
+				secondPage.getContent().stream().map(Person::getFirstName).toList());
+		assertEquals(PEOPLE, new HashSet<>(streamed).size());
+	}
+
+	@Test
+	@DisplayName("test Given E-mail Of Another Shard When Update then Reject And Keep The Row")
+	void testGivenEmailOfAnotherShard_WhenUpdate_thenRejectAndKeepTheRow() {
+		// Given / Arrange
+		Person person = people.get(0);
+		int shard = SnowflakeIdGenerator.shardOf(person.getId());
+		String sameShard = emailOn(shard, true);
+		String otherShard = emailOn(shard, false);
+
+		// When / Act
+		person.setEmail(otherShard);
+		assertThrows(IllegalArgumentException.class, () -> personService.update(person));
+		assertThrows(IllegalArgumentException.class,
+				() -> personService.patch(person.getId(), Map.of("email", otherShard), null));
+		person.setEmail(sameShard);
+		Person updated = personService.update(person);
+
+		// Then / Assert
+		assertEquals(sameShard, updated.getEmail());
+		assertEquals(sameShard, personRepository.findByEmail(sameShard).orElseThrow().getEmail());
+	}
+
+	@Test
+	@DisplayName("test Given Batch Spanning Shards When Create And Delete then Handle Each Shard And Keep Order")
+	void testGivenBatchSpanningShards_WhenCreateAndDelete_thenHandleEachShardAndKeepOrder() {
+		// Given / Arrange
+		List<Person> batch = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			batch.add(new Person("Batch" + i, "Person", "Street", "Male", "batch" + i + "@test.com"));
+		}
+		batch.add(new Person("Batch", "Duplicate", "Street", "Male", "person3@test.com"));
+
+		// When / Act
+		List<BatchItemResult> created = personBatchService.createAll(batch.iterator());
+		List<Long> ids = created.stream().map(BatchItemResult::getId).limit(12).toList();
+		List<BatchItemResult> deleted = personBatchService.deleteAll(ids.iterator());
+
+		// Then / Assert
+		for (int i = 0; i < 12; i++) {
+			assertEquals(i, created.get(i).getIndex());
+			assertEquals(HttpStatus.CREATED.value(), created.get(i).getStatus());
+			assertEquals(router.shardOf("batch" + i + "@test.com"), SnowflakeIdGenerator.shardOf(ids.get(i)));
+			assertEquals(HttpStatus.NO_CONTENT.value(), deleted.get(i).getStatus());
+		}
+		assertEquals(HttpStatus.CONFLICT.value(), created.get(12).getStatus());
+		assertEquals(PEOPLE, personRepository.count());
+	}
+
+	@Test
+	@DisplayName("test Given One Worker When Generate Ids then Unique Increasing And Carrying The Shard")
+	void testGivenOneWorker_WhenGenerateIds_thenUniqueIncreasingAndCarryingTheShard() {
+		// Given / Arrange
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5);
+		Set<Long> ids = new HashSet<>();
+		long previous = 0;
+
+		// When / Act / Then / Assert
+		for (int i = 0; i < 10_000; i++) {
+			long id = generator.nextId(i % 3);
+			assertTrue(id > previous);
+			assertTrue(ids.add(id));
+			assertEquals(i % 3, SnowflakeIdGenerator.shardOf(id));
+			previous = id;
+		}
+	}
+
+	@Test
+	@DisplayName("test Given Virtual Threads When Generate Ids Concurrently then Unique And Carrying The Shard")
+	void testGivenVirtualThreads_WhenGenerateIdsConcurrently_thenUniqueAndCarryingTheShard() throws Exception {
+		// Given / Arrange
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5);
+		List<Future<List<Long>>> generated = new ArrayList<>();
+
+		// When / Act
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int thread = 0; thread < 16; thread++) {
+				int shard = thread % 3;
+				generated.add(executor.submit(() -> IntStream.range(0, 5_000)
+						.mapToObj(i -> generator.nextId(shard)).toList()));
+			}
+		}
+
+		//	Then / Assert
+		Set<Long> ids = new HashSet<>();
+		for (int thread = 0; thread < generated.size(); thread++) {
+			for (long id : generated.get(thread).get()) {
+				assertTrue(ids.add(id));
+				assertEquals(thread % 3, SnowflakeIdGenerator.shardOf(id));
+			}
+		}
+		assertEquals(16 * 5_000, ids.size());
+	}
+
+	private String emailOn(int shard, boolean same) {
+		for (int i = 0;; i++) {
+			String email = "moved" + i + "@test.com";
+			if ((router.shardOf(email) == shard) == same) {
+				return email;
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package br.com.smms.warmup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.com.smms.admission.AdmissionControlFilter;
+import br.com.smms.config.CacheConfig;
+import br.com.smms.model.Person;
+import br.com.smms.repositories.PersonRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"person.warm-up.enabled=true",
+		"person.warm-up.hot-ids=3",
+		"person.warm-up.rounds=10",
+		"person.admission.rate.capacity=100",
+		"person.admission.rate.refill-per-second=1" })
+@ActiveProfiles("embedded")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class WarmUpRunnerTest {
+
+	@Autowired
+	private WarmUpRunner warmUpRunner;
+
+	@Autowired
+	private PersonRepository personRepository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ApplicationAvailability availability;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	// In order: the address has its whole budget until the runner is called again at the end
+	@Test
+	@Order(1)
+	@DisplayName("test Given Warm-Up Over The Rate Of One Address When Started then No Request Was Turned Away")
+	void testGivenWarmUpOverTheRateOfOneAddress_WhenStarted_thenNoRequestWasTurnedAway() {
+		// Then / Assert
+		// Ten rounds from the loopback address cost about 160 tokens of the 100 it may spend
+		assertEquals(0, meterRegistry.get(AdmissionControlFilter.REJECTED_COUNTER).tag("reason", "rate").counter()
+				.count());
+	}
+
+	@Test
+	@Order(3)
+	@DisplayName("test Given Stored People When Warm Up then Cache Newest Ids And Time Every Step")
+	void testGivenStoredPeople_WhenWarmUp_thenCacheNewestIdsAndTimeEveryStep() {
+		// Given / Arrange
+		List<Person> people = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			people.add(personRepository.save(new Person("Warm" + i, "Up", "Street", "Male", "warm" + i + "@test.com")));
+		}
+		Cache cache = cacheManager.getCache(CacheConfig.PERSON_CACHE);
+		cache.clear();
+		long traffic = meterRegistry.get(WarmUpRunner.WARM_UP_TIMER).tag("step", "traffic").timer().count();
+
+		// When / Act
+		warmUpRunner.run(null);
+
+		// Then / Assert
+		for (int i = 0; i < 5; i++) {
+			// Only the three newest
+			assertEquals(i >= 2, cache.get(people.get(i).getId()) != null);
+		}
+		assertEquals(traffic + 1, meterRegistry.get(WarmUpRunner.WARM_UP_TIMER).tag("step", "traffic").timer().count());
+		assertNotNull(meterRegistry.get(WarmUpRunner.WARM_UP_TIMER).tag("step", "connections").timer());
+		personRepository.deleteAll(people);
+	}
+
+	@Test
+	@Order(2)
+	@DisplayName("test Given Warmed Instance When Ready And Requested then Time The First Minute Requests")
+	void testGivenWarmedInstance_WhenReadyAndRequested_thenTimeTheFirstMinuteRequests() {
+		// Given / Arrange
+		long before = meterRegistry.get(FirstMinuteLatencyFilter.FIRST_MINUTE_TIMER).tag("warm-up", "enabled")
+				.timer().count();
+
+		// When / Act
+		ResponseEntity<String> response = restTemplate.getForEntity("/person/-1", String.class);
+		// Probes are not counted
+		restTemplate.getForEntity("/actuator/health/readiness", String.class);
+
+		// Then / Assert
+		assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+		assertEquals(before + 1, meterRegistry.get(FirstMinuteLatencyFilter.FIRST_MINUTE_TIMER)
+				.tag("warm-up", "enabled").timer().count());
+	}
+}
@@ -0,0 +1,18 @@
+-- H2 counterpart of db/migration/mysql for the embedded stand-in; H2Dialect uses a real
+-- sequence instead of the person_seq table
+CREATE TABLE IF NOT EXISTS person (
+	id BIGINT NOT NULL,
+	first_name VARCHAR(80) NOT NULL,
+	last_name VARCHAR(80) NOT NULL,
+	address VARCHAR(100) NOT NULL,
+	gender VARCHAR(6) NOT NULL,
+	email VARCHAR(100) NOT NULL,
+	version BIGINT NOT NULL DEFAULT 0,
+	PRIMARY KEY (id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_person_email ON person (email);
+
+CREATE INDEX IF NOT EXISTS idx_person_last_first ON person (last_name, first_name);
+
+CREATE SEQUENCE IF NOT EXISTS person_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,23 @@
+-- H2 counterpart of db/migration/mysql/V2__create_person_change.sql
+CREATE TABLE IF NOT EXISTS person_change (
+	sequence BIGINT NOT NULL,
+	person_id BIGINT NOT NULL,
+	type VARCHAR(7) NOT NULL,
+	version BIGINT,
+	first_name VARCHAR(80),
+	last_name VARCHAR(80),
+	address VARCHAR(100),
+	gender VARCHAR(6),
+	email VARCHAR(100),
+	PRIMARY KEY (sequence)
+);
+
+CREATE TABLE IF NOT EXISTS person_change_seq (
+	id INT NOT NULL,
+	last_sequence BIGINT NOT NULL,
+	PRIMARY KEY (id)
+);
+
+INSERT INTO person_change_seq (id, last_sequence)
+SELECT 1, 0 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM person_change_seq);
@@ -0,0 +1,11 @@
+-- H2 counterpart of db/migration/mysql/V3__add_person_delta_sync.sql
+ALTER TABLE person ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6)
+	ON UPDATE CURRENT_TIMESTAMP(6) NOT NULL;
+
+ALTER TABLE person ADD COLUMN IF NOT EXISTS active BOOLEAN DEFAULT TRUE;
+
+DROP INDEX IF EXISTS uk_person_email;
+
+CREATE UNIQUE INDEX uk_person_email ON person (email, active);
+
+CREATE INDEX IF NOT EXISTS idx_person_updated_at ON person (updated_at, id);